@@ -0,0 +1,70 @@
+package com.example.solarsystemsimulation.benchmark;
+
+import com.example.solarsystemsimulation.data.PlanetDataParser;
+import com.example.solarsystemsimulation.model.CelestialBody;
+import com.example.solarsystemsimulation.physics.ArrayNewtonianPhysics;
+import com.example.solarsystemsimulation.physics.BarnesHutPhysics;
+import com.example.solarsystemsimulation.physics.NewtonianPhysics;
+import com.example.solarsystemsimulation.physics.PairwiseNewtonianPhysics;
+import com.example.solarsystemsimulation.physics.PhysicsStrategy;
+import com.example.solarsystemsimulation.physics.Vector2D;
+import com.example.solarsystemsimulation.physics.VectorizedNewtonianPhysics;
+import com.example.solarsystemsimulation.simulation.Simulation;
+import javafx.scene.paint.Color;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Wspólne scenariusze benchmarków - Układ Słoneczny uzupełniony o pas drobnych ciał
+ */
+final class BenchmarkScenarios {
+    private static final double G_AU = 2.95912208286e-4;
+
+    private BenchmarkScenarios() {
+    }
+
+    /**
+     * Tworzy strategię fizyki po nazwie parametru benchmarku
+     */
+    static PhysicsStrategy physics(String name) {
+        switch (name) {
+            case "newtonian": return new NewtonianPhysics();
+            case "array": return new ArrayNewtonianPhysics();
+            case "pairwise": return new PairwiseNewtonianPhysics();
+            case "vector": return new VectorizedNewtonianPhysics();
+            case "barnes-hut": return new BarnesHutPhysics();
+            default: throw new IllegalArgumentException("Nieznana strategia: " + name);
+        }
+    }
+
+    /**
+     * Symulacja z 9 ciałami (Słońce + planety) i pasem ciał do łącznej liczby bodyCount
+     */
+    static Simulation simulation(PhysicsStrategy physics, int bodyCount) {
+        Simulation simulation = new Simulation(physics);
+        List<CelestialBody> planets = PlanetDataParser.getDefaultPlanets();
+        for (CelestialBody planet : planets) {
+            simulation.addBody(planet);
+        }
+
+        double sunMass = planets.get(0).getMass();
+        Random random = new Random(42);
+        for (int i = planets.size(); i < bodyCount; i++) {
+            // Pas planetoid 2.1 - 3.3 AU na orbitach kołowych
+            double radius = 2.1 + 1.2 * random.nextDouble();
+            double angle = 2 * Math.PI * random.nextDouble();
+            double speed = Math.sqrt(G_AU * sunMass / radius);
+            simulation.addBody(new CelestialBody(
+                "Planetoida " + i,
+                1e-6 * random.nextDouble(),
+                1 + 100 * random.nextDouble(),
+                Color.GRAY,
+                new Vector2D(radius * Math.cos(angle), radius * Math.sin(angle)),
+                new Vector2D(-speed * Math.sin(angle), speed * Math.cos(angle))
+            ));
+        }
+
+        simulation.start();
+        return simulation;
+    }
+}
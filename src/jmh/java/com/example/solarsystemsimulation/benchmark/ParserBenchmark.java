@@ -0,0 +1,31 @@
+package com.example.solarsystemsimulation.benchmark;
+
+import com.example.solarsystemsimulation.data.PlanetDataParser;
+import com.example.solarsystemsimulation.model.CelestialBody;
+import org.openjdk.jmh.annotations.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark parsowania api-result.xml (uruchamiany z katalogu projektu)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Benchmark
+    public List<CelestialBody> parsePlanetsFromXML() {
+        return PlanetDataParser.parsePlanetsFromXML("api-result.xml", false);
+    }
+
+    /**
+     * Ścieżka z plikiem podręcznym (pierwsze wywołanie w rozgrzewce go tworzy)
+     */
+    @Benchmark
+    public List<CelestialBody> parsePlanetsFromCache() {
+        return PlanetDataParser.parsePlanetsFromXML("api-result.xml");
+    }
+}
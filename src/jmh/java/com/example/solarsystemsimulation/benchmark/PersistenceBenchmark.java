@@ -0,0 +1,64 @@
+package com.example.solarsystemsimulation.benchmark;
+
+import com.example.solarsystemsimulation.persistence.SimulationPersistence;
+import com.example.solarsystemsimulation.physics.ArrayNewtonianPhysics;
+import com.example.solarsystemsimulation.simulation.Simulation;
+import org.openjdk.jmh.annotations.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarki zapisu i odczytu stanu: Memento oraz SimulationPersistence
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    @State(Scope.Thread)
+    public static class PersistenceState {
+        @Param({"9", "1000", "100000"})
+        int bodyCount;
+
+        Simulation simulation;
+        Simulation.SimulationMemento memento;
+        File file;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            simulation = BenchmarkScenarios.simulation(new ArrayNewtonianPhysics(), bodyCount);
+            memento = simulation.saveToMemento();
+            file = Files.createTempFile("benchmark", ".sim").toFile();
+            SimulationPersistence.saveSimulation(simulation, file.getAbsolutePath());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            file.delete();
+        }
+    }
+
+    @Benchmark
+    public Simulation.SimulationMemento saveToMemento(PersistenceState state) {
+        return state.simulation.saveToMemento();
+    }
+
+    @Benchmark
+    public void restoreFromMemento(PersistenceState state) {
+        state.simulation.restoreFromMemento(state.memento);
+    }
+
+    @Benchmark
+    public void saveSimulation(PersistenceState state) throws IOException {
+        SimulationPersistence.saveSimulation(state.simulation, state.file.getAbsolutePath());
+    }
+
+    @Benchmark
+    public void loadSimulation(PersistenceState state) throws Exception {
+        SimulationPersistence.loadSimulation(state.simulation, state.file.getAbsolutePath());
+    }
+}
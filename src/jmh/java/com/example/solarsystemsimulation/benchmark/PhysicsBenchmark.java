@@ -0,0 +1,65 @@
+package com.example.solarsystemsimulation.benchmark;
+
+import com.example.solarsystemsimulation.data.PlanetDataParser;
+import com.example.solarsystemsimulation.model.CelestialBody;
+import com.example.solarsystemsimulation.physics.NewtonianPhysics;
+import com.example.solarsystemsimulation.physics.Vector2D;
+import com.example.solarsystemsimulation.simulation.Simulation;
+import org.openjdk.jmh.annotations.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarki kroku fizyki - pojedyncze przyspieszenie i pełny krok Simulation.updatePhysics
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PhysicsBenchmark {
+
+    @State(Scope.Thread)
+    public static class PlanetsState {
+        NewtonianPhysics physics;
+        List<CelestialBody> bodies;
+        CelestialBody earth;
+
+        @Setup
+        public void setup() {
+            physics = new NewtonianPhysics();
+            bodies = PlanetDataParser.getDefaultPlanets();
+            earth = bodies.get(3);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class StepState {
+        // Dla strategii "newtonian" przy 100k ciał jedna operacja trwa minuty - wybierz ją przez -p
+        @Param({"array", "pairwise", "vector", "barnes-hut"})
+        String strategy;
+
+        @Param({"9", "1000", "10000", "100000"})
+        int bodyCount;
+
+        Simulation simulation;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            simulation = BenchmarkScenarios.simulation(BenchmarkScenarios.physics(strategy), bodyCount);
+        }
+    }
+
+    @Benchmark
+    public Vector2D calculateAcceleration(PlanetsState state) {
+        return state.physics.calculateAcceleration(state.earth, state.bodies);
+    }
+
+    /**
+     * Pełny krok symulacji; kroki/s = 1e6 / wynik, bajty/krok = gc.alloc.rate.norm
+     */
+    @Benchmark
+    public void updatePhysics(StepState state) {
+        state.simulation.updatePhysics();
+    }
+}
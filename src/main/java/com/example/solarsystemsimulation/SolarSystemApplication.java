@@ -17,7 +17,7 @@ public class SolarSystemApplication extends Application {
         FXMLLoader fxmlLoader = new FXMLLoader(
             SolarSystemApplication.class.getResource("simulation-view.fxml")
         );
-        Scene scene = new Scene(fxmlLoader.load(), 1400, 850);
+        Scene scene = new Scene(fxmlLoader.load(), 1400, 890);
         stage.setTitle("Symulacja Układu Słonecznego");
         stage.setScene(scene);
         stage.setResizable(false);
@@ -0,0 +1,543 @@
+package com.example.solarsystemsimulation.data;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import com.example.solarsystemsimulation.simulation.Simulation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Wczytywanie dużych katalogów małych ciał (setki tysięcy - miliony wierszy) prosto do
+ * {@link BodyStore}, bez obiektów {@link com.example.solarsystemsimulation.model.CelestialBody}.
+ *
+ * Wątek wywołujący czyta plik porcjami po chunkRows wierszy, pula wątków parsuje porcje
+ * i przelicza elementy orbitalne na wektory stanu, a gotowe porcje są dopisywane do symulacji
+ * w kolejności z pliku ({@link Simulation#addBulkBodies}). W pamięci jest najwyżej
+ * 2 · threads porcji, więc zużycie pamięci (poza samym magazynem) nie zależy od wielkości pliku.
+ *
+ * Obsługiwane formaty:
+ * <ul>
+ *   <li>CSV wektorów stanu z nagłówkiem: x, y, vx, vy [AU, AU/dzień], opcjonalnie mass</li>
+ *   <li>CSV elementów orbitalnych z nagłówkiem: a [AU], e, i, node, peri, m [stopnie],
+ *       opcjonalnie mass</li>
+ *   <li>MPCORB (stała szerokość kolumn, eksport Minor Planet Center)</li>
+ * </ul>
+ * Elementy są heliocentryczne i odnoszą się do bieżącego czasu symulacji; orbita jest
+ * spłaszczana do płaszczyzny symulacji (długość peryhelium Ω ± ω, kierunek ruchu według
+ * znaku cos i). Ciałem centralnym jest pierwsze ciało nieruchome (Słońce). Wiersze z wartościami
+ * NaN, nieskończonymi lub zapisanymi szesnastkowo są pomijane - jedno takie ciało psułoby
+ * sumy sił wszystkich pozostałych.
+ * Wczytywanie należy wywołać na wątku, który zmienia symulację (lub przed jej uruchomieniem).
+ */
+public class BodyCatalogLoader {
+    public static final int DEFAULT_CHUNK_ROWS = 16_384;
+    // Masa planetoidy względem Ziemi - na tyle mała, by nie zaburzać planet
+    public static final double DEFAULT_MASS = 1e-10;
+
+    // Jak w NewtonianPhysics: AU³/(masa·dzień²)
+    private static final double G = 2.95912208286e-4;
+    private static final int KEPLER_ITERATIONS = 30;
+    private static final int MARK_LIMIT = 1 << 16;
+    private static final int MPCORB_PREAMBLE_LINES = 100;
+
+    /**
+     * Format pliku katalogu
+     */
+    public enum Format {
+        AUTO, STATE_CSV, ELEMENTS_CSV, MPCORB
+    }
+
+    private final int threads;
+    private final int chunkRows;
+    private double defaultMass = DEFAULT_MASS;
+
+    public BodyCatalogLoader() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_ROWS);
+    }
+
+    public BodyCatalogLoader(int threads, int chunkRows) {
+        if (threads < 1 || chunkRows < 1) {
+            throw new IllegalArgumentException("Liczba wątków i rozmiar porcji muszą być dodatnie");
+        }
+        this.threads = threads;
+        this.chunkRows = chunkRows;
+    }
+
+    /**
+     * Masa ciał, dla których katalog jej nie podaje (względem Ziemi)
+     */
+    public void setDefaultMass(double defaultMass) {
+        if (!(defaultMass > 0)) {
+            throw new IllegalArgumentException("Masa musi być dodatnia: " + defaultMass);
+        }
+        this.defaultMass = defaultMass;
+    }
+
+    /**
+     * Wczytuje katalog i dopisuje ciała do symulacji
+     */
+    public Result load(Simulation simulation, Path path, Format format) throws IOException {
+        long startNanos = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "catalog-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<>();
+        Result result = new Result();
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.ISO_8859_1)) {
+            RowParser parser = createParser(reader, format, simulation.getBodyStore());
+            String[] lines = new String[chunkRows];
+            int count;
+            while ((count = readChunk(reader, lines)) > 0) {
+                String[] chunkLines = lines;
+                int chunkCount = count;
+                inFlight.add(pool.submit(() -> parser.parse(chunkLines, chunkCount)));
+                lines = new String[chunkRows];
+                if (inFlight.size() >= 2 * threads) {
+                    commit(simulation, await(inFlight.poll()), result);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                commit(simulation, await(inFlight.poll()), result);
+            }
+        } finally {
+            for (Future<Chunk> future : inFlight) {
+                future.cancel(true);
+            }
+            pool.shutdownNow();
+        }
+        result.nanos = System.nanoTime() - startNanos;
+        return result;
+    }
+
+    private static int readChunk(BufferedReader reader, String[] lines) throws IOException {
+        int count = 0;
+        String line;
+        while (count < lines.length && (line = reader.readLine()) != null) {
+            if (!line.isBlank() && line.charAt(0) != '#') {
+                lines[count++] = line;
+            }
+        }
+        return count;
+    }
+
+    private static Chunk await(Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Przerwano wczytywanie katalogu", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Błąd parsowania katalogu: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Dopisuje porcję do magazynu (na wątku wywołującym, w kolejności z pliku)
+     */
+    private static void commit(Simulation simulation, Chunk chunk, Result result) {
+        result.rejected += chunk.rejected;
+        if (chunk.count == 0) {
+            return;
+        }
+        int first = simulation.addBulkBodies(chunk.count);
+        BodyStore store = simulation.getBodyStore();
+        System.arraycopy(chunk.x, 0, store.getXArray(), first, chunk.count);
+        System.arraycopy(chunk.y, 0, store.getYArray(), first, chunk.count);
+        System.arraycopy(chunk.vx, 0, store.getVxArray(), first, chunk.count);
+        System.arraycopy(chunk.vy, 0, store.getVyArray(), first, chunk.count);
+        System.arraycopy(chunk.mass, 0, store.getMassArray(), first, chunk.count);
+        result.loaded += chunk.count;
+    }
+
+    /**
+     * Rozpoznaje format (po pierwszym wierszu) i przygotowuje parser; nagłówek CSV jest
+     * zużywany tutaj
+     */
+    private RowParser createParser(BufferedReader reader, Format format, BodyStore store) throws IOException {
+        reader.mark(MARK_LIMIT);
+        if (format == Format.MPCORB) {
+            return createMpcorbParser(reader, store);
+        }
+        String header = reader.readLine();
+        while (header != null && (header.isBlank() || header.charAt(0) == '#')) {
+            header = reader.readLine();
+        }
+        if (header == null) {
+            throw new IOException("Pusty plik katalogu");
+        }
+        if (format == Format.AUTO && header.indexOf(',') < 0) {
+            reader.reset();
+            return createMpcorbParser(reader, store);
+        }
+
+        String[] columns = header.split(",");
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = columns[c].trim().toLowerCase(Locale.ROOT);
+        }
+        int massColumn = column(columns, "mass");
+        boolean elements = format == Format.ELEMENTS_CSV
+            || (format == Format.AUTO && column(columns, "x") < 0 && column(columns, "a") >= 0);
+        if (elements) {
+            int[] indices = {
+                requireColumn(columns, "a"), requireColumn(columns, "e"), requireColumn(columns, "i", "incl"),
+                requireColumn(columns, "node", "om"), requireColumn(columns, "peri", "w"),
+                requireColumn(columns, "m", "ma")
+            };
+            return new ElementsCsvParser(CentralBody.find(store), indices, massColumn, columns.length);
+        }
+        int[] indices = {
+            requireColumn(columns, "x"), requireColumn(columns, "y"),
+            requireColumn(columns, "vx"), requireColumn(columns, "vy")
+        };
+        return new StateCsvParser(indices, massColumn, columns.length);
+    }
+
+    /**
+     * Pomija wstęp pliku MPCORB.DAT (kończy się wierszem z myślników), jeśli występuje
+     */
+    private RowParser createMpcorbParser(BufferedReader reader, BodyStore store) throws IOException {
+        reader.mark(MARK_LIMIT);
+        String line;
+        for (int l = 0; l < MPCORB_PREAMBLE_LINES && (line = reader.readLine()) != null; l++) {
+            if (line.startsWith("-----")) {
+                return new MpcorbParser(CentralBody.find(store));
+            }
+        }
+        reader.reset();
+        return new MpcorbParser(CentralBody.find(store));
+    }
+
+    private static int column(String[] columns, String... names) {
+        for (String name : names) {
+            for (int c = 0; c < columns.length; c++) {
+                if (columns[c].equals(name)) {
+                    return c;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int requireColumn(String[] columns, String... names) throws IOException {
+        int index = column(columns, names);
+        if (index < 0) {
+            throw new IOException("Brak kolumny " + String.join("/", names) + " w nagłówku katalogu");
+        }
+        return index;
+    }
+
+    /**
+     * Przelicza elementy orbity eliptycznej na stan względem ciała centralnego i zapisuje
+     * w porcji; false dla orbit, których nie da się przeliczyć (e &gt;= 1, a &lt;= 0)
+     */
+    static boolean elementsToState(CentralBody center, double a, double e, double inclinationDeg,
+                                   double nodeDeg, double periDeg, double meanAnomalyDeg, Chunk chunk, int k) {
+        if (!(a > 0) || !(e >= 0 && e < 1)) {
+            return false;
+        }
+        double direction = Math.cos(Math.toRadians(inclinationDeg)) >= 0 ? 1 : -1;
+        double meanAnomaly = Math.IEEEremainder(Math.toRadians(meanAnomalyDeg), 2 * Math.PI);
+
+        // Równanie Keplera E - e sin E = M (Newton-Raphson)
+        double eccentricAnomaly = e < 0.8 ? meanAnomaly : Math.PI * Math.signum(meanAnomaly);
+        for (int iteration = 0; iteration < KEPLER_ITERATIONS; iteration++) {
+            double delta = (eccentricAnomaly - e * Math.sin(eccentricAnomaly) - meanAnomaly)
+                / (1 - e * Math.cos(eccentricAnomaly));
+            eccentricAnomaly -= delta;
+            if (Math.abs(delta) < 1e-14) {
+                break;
+            }
+        }
+
+        double cosE = Math.cos(eccentricAnomaly);
+        double sinE = Math.sin(eccentricAnomaly);
+        double semiMinor = Math.sqrt(1 - e * e);
+        double r = a * (1 - e * cosE);
+        double speedFactor = Math.sqrt(center.mu * a) / r;
+        double p = a * (cosE - e);
+        double q = direction * a * semiMinor * sinE;
+        double vp = -speedFactor * sinE;
+        double vq = direction * speedFactor * semiMinor * cosE;
+
+        double angle = Math.toRadians(nodeDeg + direction * periDeg);
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        chunk.x[k] = center.x + p * cos - q * sin;
+        chunk.y[k] = center.y + p * sin + q * cos;
+        chunk.vx[k] = center.vx + vp * cos - vq * sin;
+        chunk.vy[k] = center.vy + vp * sin + vq * cos;
+        return Double.isFinite(chunk.x[k]) && Double.isFinite(chunk.y[k])
+            && Double.isFinite(chunk.vx[k]) && Double.isFinite(chunk.vy[k]);
+    }
+
+    /**
+     * Liczba z fragmentu wiersza [from, to), bez spacji na brzegach; tylko zapis dziesiętny
+     * o skończonej wartości (Double.parseDouble przyjmuje też NaN, Infinity i liczby szesnastkowe)
+     */
+    private static double parseField(String line, int from, int to) {
+        while (from < to && line.charAt(from) == ' ') {
+            from++;
+        }
+        while (to > from && line.charAt(to - 1) == ' ') {
+            to--;
+        }
+        for (int c = from; c < to; c++) {
+            char ch = line.charAt(c);
+            if (!(ch >= '0' && ch <= '9' || ch == '.' || ch == '-' || ch == '+' || ch == 'e' || ch == 'E')) {
+                throw new NumberFormatException("Niedozwolony znak w liczbie: " + line.substring(from, to));
+            }
+        }
+        double value = Double.parseDouble(line.substring(from, to));
+        if (!Double.isFinite(value)) {
+            throw new NumberFormatException("Wartość nieskończona: " + line.substring(from, to));
+        }
+        return value;
+    }
+
+    /**
+     * Dzieli wiersz CSV na wartości wskazanych kolumn
+     */
+    private static boolean parseCsv(String line, int columnCount, int[] wanted, int massColumn,
+                                    double[] values, int[] starts, int[] ends) {
+        int start = 0;
+        int c = 0;
+        while (c < columnCount) {
+            int end = line.indexOf(',', start);
+            if (end < 0) {
+                end = line.length();
+            }
+            starts[c] = start;
+            ends[c] = end;
+            c++;
+            if (end == line.length()) {
+                break;
+            }
+            start = end + 1;
+        }
+        if (c < columnCount) {
+            return false;
+        }
+        for (int k = 0; k < wanted.length; k++) {
+            values[k] = parseField(line, starts[wanted[k]], ends[wanted[k]]);
+        }
+        values[wanted.length] = massColumn >= 0 ? parseField(line, starts[massColumn], ends[massColumn]) : Double.NaN;
+        return true;
+    }
+
+    /**
+     * Porcja przeliczonych ciał (tablice o długości porcji, wypełnione do count)
+     */
+    static final class Chunk {
+        final double[] x;
+        final double[] y;
+        final double[] vx;
+        final double[] vy;
+        final double[] mass;
+        int count;
+        int rejected;
+
+        Chunk(int capacity) {
+            x = new double[capacity];
+            y = new double[capacity];
+            vx = new double[capacity];
+            vy = new double[capacity];
+            mass = new double[capacity];
+        }
+    }
+
+    /**
+     * Ciało centralne dla elementów orbitalnych
+     */
+    static final class CentralBody {
+        final double mu;
+        final double x;
+        final double y;
+        final double vx;
+        final double vy;
+
+        CentralBody(double mass, double x, double y, double vx, double vy) {
+            this.mu = G * mass;
+            this.x = x;
+            this.y = y;
+            this.vx = vx;
+            this.vy = vy;
+        }
+
+        static CentralBody find(BodyStore store) {
+            for (int i = 0; i < store.size(); i++) {
+                if (store.isFixed(i)) {
+                    return new CentralBody(store.getMass(i), store.getX(i), store.getY(i),
+                        store.getVx(i), store.getVy(i));
+                }
+            }
+            throw new IllegalStateException("Elementy orbitalne wymagają ciała centralnego (Słońca) w symulacji");
+        }
+    }
+
+    /**
+     * Parser porcji wierszy - wywoływany równolegle, więc bez stanu współdzielonego
+     */
+    private interface RowParser {
+        Chunk parse(String[] lines, int count);
+    }
+
+    private final class StateCsvParser implements RowParser {
+        private final int[] columns;
+        private final int massColumn;
+        private final int columnCount;
+
+        StateCsvParser(int[] columns, int massColumn, int columnCount) {
+            this.columns = columns;
+            this.massColumn = massColumn;
+            this.columnCount = columnCount;
+        }
+
+        @Override
+        public Chunk parse(String[] lines, int count) {
+            Chunk chunk = new Chunk(count);
+            double[] values = new double[columns.length + 1];
+            int[] starts = new int[columnCount];
+            int[] ends = new int[columnCount];
+            for (int l = 0; l < count; l++) {
+                try {
+                    if (!parseCsv(lines[l], columnCount, columns, massColumn, values, starts, ends)) {
+                        chunk.rejected++;
+                        continue;
+                    }
+                } catch (NumberFormatException e) {
+                    chunk.rejected++;
+                    continue;
+                }
+                int k = chunk.count++;
+                chunk.x[k] = values[0];
+                chunk.y[k] = values[1];
+                chunk.vx[k] = values[2];
+                chunk.vy[k] = values[3];
+                chunk.mass[k] = values[4] > 0 ? values[4] : defaultMass;
+            }
+            return chunk;
+        }
+    }
+
+    private final class ElementsCsvParser implements RowParser {
+        private final CentralBody center;
+        private final int[] columns;
+        private final int massColumn;
+        private final int columnCount;
+
+        ElementsCsvParser(CentralBody center, int[] columns, int massColumn, int columnCount) {
+            this.center = center;
+            this.columns = columns;
+            this.massColumn = massColumn;
+            this.columnCount = columnCount;
+        }
+
+        @Override
+        public Chunk parse(String[] lines, int count) {
+            Chunk chunk = new Chunk(count);
+            double[] values = new double[columns.length + 1];
+            int[] starts = new int[columnCount];
+            int[] ends = new int[columnCount];
+            for (int l = 0; l < count; l++) {
+                try {
+                    if (!parseCsv(lines[l], columnCount, columns, massColumn, values, starts, ends)) {
+                        chunk.rejected++;
+                        continue;
+                    }
+                } catch (NumberFormatException e) {
+                    chunk.rejected++;
+                    continue;
+                }
+                int k = chunk.count;
+                if (elementsToState(center, values[0], values[1], values[2], values[3], values[4], values[5],
+                        chunk, k)) {
+                    chunk.mass[k] = values[6] > 0 ? values[6] : defaultMass;
+                    chunk.count++;
+                } else {
+                    chunk.rejected++;
+                }
+            }
+            return chunk;
+        }
+    }
+
+    /**
+     * Format MPCORB.DAT: M w kolumnach 27-35, ω 38-46, Ω 49-57, i 60-68, e 71-79, a 93-103
+     * (numeracja od 1)
+     */
+    private final class MpcorbParser implements RowParser {
+        private static final int MIN_LENGTH = 103;
+        private final CentralBody center;
+
+        MpcorbParser(CentralBody center) {
+            this.center = center;
+        }
+
+        @Override
+        public Chunk parse(String[] lines, int count) {
+            Chunk chunk = new Chunk(count);
+            for (int l = 0; l < count; l++) {
+                String line = lines[l];
+                boolean accepted = false;
+                if (line.length() >= MIN_LENGTH) {
+                    try {
+                        accepted = elementsToState(center,
+                            parseField(line, 92, 103), parseField(line, 70, 79), parseField(line, 59, 68),
+                            parseField(line, 48, 57), parseField(line, 37, 46), parseField(line, 26, 35),
+                            chunk, chunk.count);
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+                if (accepted) {
+                    chunk.mass[chunk.count++] = defaultMass;
+                } else {
+                    chunk.rejected++;
+                }
+            }
+            return chunk;
+        }
+    }
+
+    /**
+     * Podsumowanie wczytywania
+     */
+    public static final class Result {
+        private long loaded;
+        private long rejected;
+        private long nanos;
+
+        /**
+         * Liczba dodanych ciał
+         */
+        public long getLoaded() {
+            return loaded;
+        }
+
+        /**
+         * Liczba pominiętych wierszy (błędny format, wartość NaN lub nieskończona, orbita niezamknięta)
+         */
+        public long getRejected() {
+            return rejected;
+        }
+
+        public double getSeconds() {
+            return nanos / 1e9;
+        }
+
+        public double getRowsPerSecond() {
+            return nanos > 0 ? (loaded + rejected) * 1e9 / nanos : 0;
+        }
+    }
+}
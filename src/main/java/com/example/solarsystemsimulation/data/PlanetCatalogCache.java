@@ -0,0 +1,120 @@
+package com.example.solarsystemsimulation.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Plik podręczny z wynikiem parsowania katalogu planet (obok pliku XML, z sufiksem .cache).
+ *
+ * Wpis jest ważny, jeśli zgadzają się wersja parsera, czas modyfikacji, rozmiar i suma
+ * kontrolna CRC32C pliku źródłowego - policzenie sumy jest wielokrotnie tańsze od parsowania.
+ * Układ pliku (big-endian, {@link DataOutputStream}):
+ * <pre>
+ *   int magic "SPLC", int wersja, long czas modyfikacji [ms], long rozmiar, int CRC32C,
+ *   int liczba wierszy, dla każdego: UTF nazwa, double średnica [km]
+ * </pre>
+ * Błędy odczytu i zapisu pliku podręcznego są ignorowane - wtedy XML jest po prostu parsowany.
+ */
+final class PlanetCatalogCache {
+    private static final int MAGIC = 0x53504C43; // "SPLC"
+    // Zmiana sposobu wyciągania wierszy wymaga podbicia wersji (unieważnia stare pliki)
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".cache";
+    private static final int HASH_BUFFER_BYTES = 1 << 16;
+
+    private PlanetCatalogCache() {
+    }
+
+    static Path cachePath(Path source) {
+        return source.resolveSibling(source.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Zwraca zapamiętane wiersze albo null, jeśli pliku podręcznego brak lub jest nieaktualny
+     */
+    static List<PlanetRow> load(Path source) {
+        Path cache = cachePath(source);
+        if (!Files.isRegularFile(cache)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cache)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            long modified = in.readLong();
+            long size = in.readLong();
+            int hash = in.readInt();
+            if (modified != Files.getLastModifiedTime(source).toMillis() || size != Files.size(source)
+                    || hash != hash(source)) {
+                return null;
+            }
+            int count = in.readInt();
+            List<PlanetRow> rows = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                rows.add(new PlanetRow(in.readUTF(), in.readDouble()));
+            }
+            return rows;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Zapisuje wiersze dla bieżącej wersji pliku źródłowego (przez plik tymczasowy i zamianę,
+     * więc równoległe uruchomienie nie zobaczy niepełnego pliku)
+     */
+    static void store(Path source, List<PlanetRow> rows) {
+        Path cache = cachePath(source);
+        Path temporary = cache.resolveSibling(cache.getFileName() + ".tmp");
+        try {
+            long modified = Files.getLastModifiedTime(source).toMillis();
+            long size = Files.size(source);
+            int hash = hash(source);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(modified);
+                out.writeLong(size);
+                out.writeInt(hash);
+                out.writeInt(rows.size());
+                for (PlanetRow row : rows) {
+                    out.writeUTF(row.getName());
+                    out.writeDouble(row.getDiameter());
+                }
+            }
+            Files.move(temporary, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Nie udało się zapisać pliku podręcznego " + cache + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // plik tymczasowy zostanie nadpisany przy następnej próbie
+            }
+        }
+    }
+
+    private static int hash(Path source) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocate(HASH_BUFFER_BYTES);
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return (int) crc.getValue();
+    }
+}
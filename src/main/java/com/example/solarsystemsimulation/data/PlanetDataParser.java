@@ -3,9 +3,15 @@ package com.example.solarsystemsimulation.data;
 import com.example.solarsystemsimulation.model.CelestialBody;
 import com.example.solarsystemsimulation.physics.Vector2D;
 import javafx.scene.paint.Color;
-import org.w3c.dom.*;
-import javax.xml.parsers.*;
-import java.io.File;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.regex.*;
 
@@ -43,10 +49,31 @@ public class PlanetDataParser {
         PLANET_COLORS.put("Neptun", Color.DARKBLUE);
     }
 
+    // Wzorce kompilowane raz i używane ponownie dla każdego wiersza tabeli
+    private static final Pattern NAME_PATTERN = Pattern.compile("title=\"([^\"]+)\"[^>]*>([^<]+)</a>");
+    private static final Pattern DIAMETER_PATTERN = Pattern.compile("<td>(\\d+)</td>");
+    private static final String ROW_START = "<tr";
+    private static final String ROW_END = "</tr>";
+    
+    // Fabryka jest konfigurowana raz; bez DTD i encji zewnętrznych
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newFactory();
+    static {
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
     /**
-     * Parsuje plik XML i zwraca listę ciał niebieskich
+     * Parsuje plik XML i zwraca listę ciał niebieskich; wynik parsowania jest zapamiętywany
+     * w pliku podręcznym ({@link PlanetCatalogCache}), więc kolejne uruchomienia nie parsują XML
      */
     public static List<CelestialBody> parsePlanetsFromXML(String xmlPath) {
+        return parsePlanetsFromXML(xmlPath, true);
+    }
+
+    /**
+     * Parsuje plik XML; przy useCache = false zawsze parsuje i nie zapisuje pliku podręcznego
+     */
+    public static List<CelestialBody> parsePlanetsFromXML(String xmlPath, boolean useCache) {
         List<CelestialBody> bodies = new ArrayList<>();
         
         try {
@@ -54,16 +81,17 @@ public class PlanetDataParser {
             CelestialBody sun = createSun();
             bodies.add(sun);
             
-            // Parsuj XML
-            File xmlFile = new File(xmlPath);
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(xmlFile);
-            
-            String content = doc.getElementsByTagName("text").item(0).getTextContent();
-            
-            // Parsuj dane planet z tabeli HTML w XML
-            bodies.addAll(parsePlanetsFromTable(content));
+            Path path = Path.of(xmlPath);
+            List<PlanetRow> rows = useCache ? PlanetCatalogCache.load(path) : null;
+            if (rows == null) {
+                rows = streamPlanetRows(path);
+                if (useCache) {
+                    PlanetCatalogCache.store(path, rows);
+                }
+            }
+            for (PlanetRow row : rows) {
+                bodies.add(createPlanet(row.getName(), row.getDiameter()));
+            }
             
         } catch (Exception e) {
             System.err.println("Błąd parsowania XML: " + e.getMessage());
@@ -75,37 +103,107 @@ public class PlanetDataParser {
         return bodies;
     }
     
-    private static List<CelestialBody> parsePlanetsFromTable(String htmlContent) {
-        List<CelestialBody> planets = new ArrayList<>();
-        
-        // Regex do wyciągnięcia wierszy tabeli z planetami
-        Pattern rowPattern = Pattern.compile("<tr[^>]*>.*?</tr>", Pattern.DOTALL);
-        Matcher rowMatcher = rowPattern.matcher(htmlContent);
+    /**
+     * Czyta XML strumieniowo (StAX): tekst elementu &lt;text&gt; przychodzi porcjami, a wiersze
+     * tabeli są wycinane na bieżąco - w pamięci jest najwyżej jeden niedokończony wiersz
+     */
+    static List<PlanetRow> streamPlanetRows(Path xmlPath) throws IOException, XMLStreamException {
+        RowExtractor extractor = new RowExtractor();
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(xmlPath))) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(input);
+            try {
+                int textDepth = 0;
+                while (reader.hasNext()) {
+                    switch (reader.next()) {
+                        case XMLStreamConstants.START_ELEMENT:
+                            if (textDepth > 0 || "text".equals(reader.getLocalName())) {
+                                textDepth++;
+                            }
+                            break;
+                        case XMLStreamConstants.END_ELEMENT:
+                            if (textDepth > 0 && --textDepth == 0) {
+                                return extractor.getRows(); // interesuje nas tylko pierwszy element <text>
+                            }
+                            break;
+                        case XMLStreamConstants.CHARACTERS:
+                        case XMLStreamConstants.CDATA:
+                            if (textDepth > 0) {
+                                extractor.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        throw new IOException("Brak kompletnego elementu <text> w " + xmlPath);
+    }
+    
+    /**
+     * Wycina wiersze tabeli z tekstu dopisywanego małymi porcjami (parser dzieli tekst na
+     * encjach, więc porcje mają często kilka znaków); pamięta miejsce, w którym skończył szukać,
+     * więc każdy znak jest przeglądany raz
+     */
+    private static final class RowExtractor {
+        private final StringBuilder pending = new StringBuilder();
+        private final Matcher nameMatcher = NAME_PATTERN.matcher("");
+        private final Matcher diameterMatcher = DIAMETER_PATTERN.matcher("");
+        private final List<PlanetRow> rows = new ArrayList<>();
+        private int rowStart = -1; // początek bieżącego wiersza w pending, -1 = przed "<tr"
+        private int scanFrom;
         
-        while (rowMatcher.find()) {
-            String row = rowMatcher.group();
-            
-            // Szukaj nazwy planety i średnicy
-            if (row.contains("planeta</td>") && !row.contains("karłowata")) {
-                String planetName = extractPlanetName(row);
-                double diameter = extractDiameter(row);
-                
-                if (planetName != null && diameter > 0 && ORBITAL_DISTANCES.containsKey(planetName)) {
-                    CelestialBody planet = createPlanet(planetName, diameter);
-                    if (planet != null) {
-                        planets.add(planet);
+        void append(char[] text, int start, int length) {
+            pending.append(text, start, length);
+            while (true) {
+                if (rowStart < 0) {
+                    int found = pending.indexOf(ROW_START, scanFrom);
+                    if (found < 0) {
+                        // zostawiamy tylko końcówkę, w której może zaczynać się "<tr"
+                        pending.delete(0, Math.max(0, pending.length() - (ROW_START.length() - 1)));
+                        scanFrom = 0;
+                        return;
                     }
+                    rowStart = found;
+                    scanFrom = found + ROW_START.length();
+                }
+                int end = pending.indexOf(ROW_END, scanFrom);
+                if (end < 0) {
+                    scanFrom = Math.max(scanFrom, pending.length() - (ROW_END.length() - 1));
+                    return;
                 }
+                end += ROW_END.length();
+                PlanetRow row = parseRow(pending.substring(rowStart, end), nameMatcher, diameterMatcher);
+                if (row != null) {
+                    rows.add(row);
+                }
+                pending.delete(0, end);
+                rowStart = -1;
+                scanFrom = 0;
             }
         }
         
-        return planets;
+        List<PlanetRow> getRows() {
+            return rows;
+        }
     }
     
-    private static String extractPlanetName(String row) {
-        Pattern namePattern = Pattern.compile("title=\"([^\"]+)\"[^>]*>([^<]+)</a>");
-        Matcher nameMatcher = namePattern.matcher(row);
-        
+    private static PlanetRow parseRow(String row, Matcher nameMatcher, Matcher diameterMatcher) {
+        // Szukaj nazwy planety i średnicy
+        if (!row.contains("planeta</td>") || row.contains("karłowata")) {
+            return null;
+        }
+        String planetName = extractPlanetName(nameMatcher.reset(row));
+        double diameter = extractDiameter(diameterMatcher.reset(row));
+        if (planetName != null && diameter > 0 && ORBITAL_DISTANCES.containsKey(planetName)) {
+            return new PlanetRow(planetName, diameter);
+        }
+        return null;
+    }
+    
+    private static String extractPlanetName(Matcher nameMatcher) {
         if (nameMatcher.find()) {
             String name = nameMatcher.group(2).trim();
             // Normalizuj nazwę
@@ -116,11 +214,8 @@ public class PlanetDataParser {
         return null;
     }
     
-    private static double extractDiameter(String row) {
+    private static double extractDiameter(Matcher diameterMatcher) {
         // Szukamy średnicy (pierwsza liczba w wierszu po "planeta")
-        Pattern diameterPattern = Pattern.compile("<td>(\\d+)</td>");
-        Matcher diameterMatcher = diameterPattern.matcher(row);
-        
         if (diameterMatcher.find()) {
             try {
                 return Double.parseDouble(diameterMatcher.group(1));
@@ -0,0 +1,26 @@
+package com.example.solarsystemsimulation.data;
+
+/**
+ * Wiersz tabeli planet odczytany z XML - nazwa i średnica; pozostałe parametry planety
+ * wynikają z nich ({@link PlanetDataParser})
+ */
+final class PlanetRow {
+    private final String name;
+    private final double diameter;
+
+    PlanetRow(String name, double diameter) {
+        this.name = name;
+        this.diameter = diameter;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Średnica w km
+     */
+    double getDiameter() {
+        return diameter;
+    }
+}
@@ -0,0 +1,527 @@
+package com.example.solarsystemsimulation.headless;
+
+import com.example.solarsystemsimulation.data.BodyCatalogLoader;
+import com.example.solarsystemsimulation.data.PlanetDataParser;
+import com.example.solarsystemsimulation.metrics.MetricsRegistry;
+import com.example.solarsystemsimulation.model.BodyStore;
+import com.example.solarsystemsimulation.model.CelestialBody;
+import com.example.solarsystemsimulation.physics.ArrayNewtonianPhysics;
+import com.example.solarsystemsimulation.physics.ArrayPhysicsStrategy;
+import com.example.solarsystemsimulation.physics.BarnesHutPhysics;
+import com.example.solarsystemsimulation.physics.ForestRuthIntegrator;
+import com.example.solarsystemsimulation.physics.Integrator;
+import com.example.solarsystemsimulation.physics.LeapfrogIntegrator;
+import com.example.solarsystemsimulation.physics.NewtonianPhysics;
+import com.example.solarsystemsimulation.physics.PairwiseNewtonianPhysics;
+import com.example.solarsystemsimulation.physics.PhysicsStrategy;
+import com.example.solarsystemsimulation.physics.VectorizedNewtonianPhysics;
+import com.example.solarsystemsimulation.physics.YoshidaIntegrator;
+import com.example.solarsystemsimulation.persistence.CheckpointWriter;
+import com.example.solarsystemsimulation.persistence.SimulationPersistence;
+import com.example.solarsystemsimulation.persistence.TrajectoryRecorder;
+import com.example.solarsystemsimulation.simulation.AdaptiveStepController;
+import com.example.solarsystemsimulation.simulation.BlockTimestepScheme;
+import com.example.solarsystemsimulation.simulation.CollisionDetector;
+import com.example.solarsystemsimulation.simulation.CollisionPolicy;
+import com.example.solarsystemsimulation.simulation.EncounterEvent;
+import com.example.solarsystemsimulation.simulation.Simulation;
+import com.example.solarsystemsimulation.simulation.SimulationObserver;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Uruchamianie symulacji bez GUI - kroki liczone tak szybko jak pozwala procesor,
+ * z okresowymi zrzutami stanu do CSV i statystykami wydajności.
+ *
+ * Przykład: {@code --days 36525 --physics barnes-hut --snapshot-every 100000 --snapshots out.csv}
+ */
+public class HeadlessRunner {
+    private final Options options;
+    private final PrintStream out;
+
+    public HeadlessRunner(Options options, PrintStream out) {
+        this.options = options;
+        this.out = out;
+    }
+
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Błąd: " + e.getMessage());
+            System.err.println(Options.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try {
+            new HeadlessRunner(options, System.out).run();
+        } catch (IOException e) {
+            System.err.println("Błąd zapisu: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Wykonuje całą symulację zgodnie z opcjami
+     */
+    public void run() throws IOException {
+        Simulation simulation = createSimulation();
+        MetricsRegistry metrics = null;
+        if (options.metricsPath != null) {
+            metrics = MetricsRegistry.global();
+            simulation.setMetrics(metrics);
+        }
+        long totalSteps = options.totalSteps(simulation.getTimeStep());
+        int bodyCount = simulation.getBodyStore().size();
+
+        out.printf(Locale.ROOT, "Ciała: %d, krok: %g dnia, kroki: %d (%.1f dni)%n",
+            bodyCount, simulation.getTimeStep(), totalSteps, totalSteps * simulation.getTimeStep());
+
+        if (options.resumePath != null) {
+            int checkpoint = SimulationPersistence.loadCheckpoint(simulation, options.resumePath, -1);
+            out.printf(Locale.ROOT, "Wznowiono z punktu kontrolnego %d: krok %d, t = %.1f dni%n",
+                checkpoint, simulation.getStepCount(), simulation.getSimulationTime());
+        }
+        // Podsumowanie liczy tylko kroki tego przebiegu, bez wznowionych
+        long startStep = simulation.getStepCount();
+        double startTime = simulation.getSimulationTime();
+
+        // Pierwszy zrzut po wznowieniu - plik zaczyna się od stanu, od którego liczymy dalej
+        BufferedWriter snapshots = null;
+        if (options.snapshotPath != null) {
+            snapshots = Files.newBufferedWriter(options.snapshotPath, StandardCharsets.UTF_8);
+            snapshots.write("step,time_days,body,x_au,y_au,vx_au_day,vy_au_day");
+            snapshots.newLine();
+            writeSnapshot(snapshots, simulation);
+        }
+
+        TrajectoryRecorder trajectory = null;
+        if (options.trajectoryPath != null) {
+            trajectory = new TrajectoryRecorder(simulation, options.trajectoryPath, options.trajectoryEvery);
+            simulation.addObserver(trajectory);
+        }
+
+        EncounterLog encounters = null;
+        if (options.encountersPath != null) {
+            encounters = new EncounterLog(options.encountersPath);
+            simulation.addObserver(encounters);
+        }
+
+        CheckpointWriter checkpoints = null;
+        if (options.checkpointPath != null) {
+            checkpoints = SimulationPersistence.openCheckpoints(simulation, options.checkpointPath, options.keyframeEvery,
+                options.checkpointPrecision);
+        }
+
+        try {
+            simulation.start();
+            long startNanos = System.nanoTime();
+            long lastReportNanos = startNanos;
+            long lastCheckpointNanos = startNanos;
+            long checkpointIntervalNanos = (long) (options.checkpointIntervalSeconds * 1e9);
+            if (checkpoints != null) {
+                checkpoints.writeCheckpoint();
+            }
+            long lastReportStep = 0;
+            long statsIntervalNanos = (long) (options.statsIntervalSeconds * 1e9);
+
+            for (long step = 1; step <= totalSteps; step++) {
+                simulation.update();
+
+                // Rytm zrzutów według numeru kroku symulacji - także po wznowieniu
+                if (snapshots != null && simulation.getStepCount() % options.snapshotEvery == 0) {
+                    writeSnapshot(snapshots, simulation);
+                }
+
+                long now = System.nanoTime();
+                if (checkpoints != null && now - lastCheckpointNanos >= checkpointIntervalNanos) {
+                    checkpoints.writeCheckpoint();
+                    lastCheckpointNanos = now;
+                }
+                if (now - lastReportNanos >= statsIntervalNanos) {
+                    reportProgress(simulation, step - lastReportStep, now - lastReportNanos, bodyCount);
+                    if (metrics != null) {
+                        metrics.dump(options.metricsPath); // plik aktualny także w trakcie długich przebiegów
+                    }
+                    lastReportNanos = now;
+                    lastReportStep = step;
+                }
+            }
+
+            if (snapshots != null && totalSteps > 0 && simulation.getStepCount() % options.snapshotEvery != 0) {
+                writeSnapshot(snapshots, simulation);
+            }
+            if (checkpoints != null) {
+                checkpoints.writeCheckpoint();
+                out.printf(Locale.ROOT, "Punkty kontrolne: %d, %d bajtów (tyle pełnych stanów: %d bajtów)%n",
+                    checkpoints.getCheckpointCount(), checkpoints.getBytesWritten(),
+                    32L * bodyCount * checkpoints.getCheckpointCount());
+            }
+
+            long elapsedNanos = System.nanoTime() - startNanos;
+            double seconds = elapsedNanos / 1e9;
+            long steps = simulation.getStepCount() - startStep;
+            out.printf(Locale.ROOT,
+                "Zakończono: %d kroków w %.2f s (%.1f kroków/s, %.1f dni symulacji/s, %.3g ciał*kroków/s)%n",
+                steps, seconds,
+                steps / seconds,
+                (simulation.getSimulationTime() - startTime) / seconds,
+                (double) steps * bodyCount / seconds);
+            AdaptiveStepController adaptive = simulation.getAdaptiveStepController();
+            if (adaptive != null) {
+                out.printf(Locale.ROOT, "Krok adaptacyjny: %d zaakceptowanych, %d odrzuconych, bieżący %g dnia%n",
+                    adaptive.getAcceptedSteps(), adaptive.getRejectedSteps(), adaptive.getCurrentStep());
+            }
+            CollisionDetector detector = simulation.getCollisionDetector();
+            if (detector != null) {
+                out.printf(Locale.ROOT, "Zbliżenia: %d, zderzenia: %d, ciała usunięte przez zlepienia: %d%n",
+                    detector.getEncounterCount(), detector.getCollisionCount(), detector.getRemovedCount());
+            }
+            BlockTimestepScheme blocks = simulation.getBlockTimestepScheme();
+            if (blocks != null) {
+                out.printf(Locale.ROOT, "Kroki blokowe: %d obliczeń sił (%.1f%% wobec wspólnego najmniejszego kroku), %d podkroków%n",
+                    blocks.getForceEvaluations(),
+                    100.0 * blocks.getForceEvaluations() / ((double) blocks.getBlocks() * (1L << blocks.getMaxLevel()) * bodyCount),
+                    blocks.getSubsteps());
+            }
+            if (metrics != null) {
+                metrics.dump(options.metricsPath);
+                out.printf(Locale.ROOT, "Metryki: %s%n", options.metricsPath);
+            }
+        } finally {
+            simulation.setSequentialExecution();
+            if (snapshots != null) {
+                snapshots.close();
+            }
+            if (checkpoints != null) {
+                checkpoints.close();
+            }
+            if (encounters != null) {
+                encounters.close();
+            }
+            if (trajectory != null) {
+                out.printf(Locale.ROOT, "Trajektoria: %d rekordów w %s%n",
+                    trajectory.getRecordCount(), options.trajectoryPath);
+                trajectory.close();
+            }
+        }
+    }
+
+    private Simulation createSimulation() throws IOException {
+        Simulation simulation = new Simulation(options.createPhysics());
+        simulation.setTimeStep(options.timeStep);
+        simulation.setIntegrator(options.createIntegrator());
+        if (options.tolerance > 0) {
+            simulation.setAdaptiveTimeStep(options.tolerance);
+        }
+        if (options.blockLevels > 0) {
+            simulation.setBlockTimesteps(options.blockLevels, options.eta);
+        }
+        if (options.threads > 1) {
+            simulation.setParallelExecution(options.threads, options.chunkSize);
+        }
+        if (options.encounterDistance > 0 || options.collisionPolicy != null) {
+            CollisionDetector detector = new CollisionDetector(options.encounterDistance,
+                options.collisionPolicy != null ? options.collisionPolicy : CollisionPolicy.REPORT);
+            detector.setDefaultRadius(options.collisionRadius);
+            simulation.setCollisionDetector(detector);
+        }
+
+        List<CelestialBody> bodies;
+        if (new File(options.xmlPath).exists()) {
+            bodies = PlanetDataParser.parsePlanetsFromXML(options.xmlPath);
+        } else {
+            bodies = PlanetDataParser.getDefaultPlanets();
+        }
+        for (CelestialBody body : bodies) {
+            if (body.getName().equals("Słońce")) {
+                body.setIsSun(true);
+            }
+            simulation.addBody(body);
+        }
+
+        if (options.catalogPath != null) {
+            BodyCatalogLoader.Result catalog = new BodyCatalogLoader()
+                .load(simulation, options.catalogPath, options.catalogFormat);
+            out.printf(Locale.ROOT, "Katalog %s: %d ciał (pominięto %d wierszy) w %.2f s, %.0f wierszy/s%n",
+                options.catalogPath, catalog.getLoaded(), catalog.getRejected(), catalog.getSeconds(),
+                catalog.getRowsPerSecond());
+        }
+        return simulation;
+    }
+
+    private void reportProgress(Simulation simulation, long steps, long nanos, int bodyCount) {
+        double seconds = nanos / 1e9;
+        out.printf(Locale.ROOT, "krok %d, t = %.1f dni: %.1f kroków/s, %.3g ciał*kroków/s%n",
+            simulation.getStepCount(), simulation.getSimulationTime(),
+            steps / seconds, steps * (double) bodyCount / seconds);
+    }
+
+    private static void writeSnapshot(BufferedWriter writer, Simulation simulation) throws IOException {
+        BodyStore store = simulation.getBodyStore();
+        StringBuilder line = new StringBuilder(128);
+        for (CelestialBody body : simulation.getBodies()) {
+            int i = body.getIndex();
+            line.setLength(0);
+            line.append(simulation.getStepCount()).append(',')
+                .append(simulation.getSimulationTime()).append(',')
+                .append(body.getName()).append(',')
+                .append(store.getX(i)).append(',')
+                .append(store.getY(i)).append(',')
+                .append(store.getVx(i)).append(',')
+                .append(store.getVy(i));
+            writer.append(line);
+            writer.newLine();
+        }
+    }
+
+    /**
+     * Zdarzenia zbliżeń i zderzeń do CSV (wywoływane na wątku symulacji)
+     */
+    private static class EncounterLog implements SimulationObserver, Closeable {
+        private final BufferedWriter writer;
+
+        EncounterLog(Path path) throws IOException {
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+            writer.write("type,first,second,time_days,min_distance_au");
+            writer.newLine();
+        }
+
+        @Override
+        public void onEncounter(EncounterEvent event) {
+            try {
+                writer.write(String.format(Locale.ROOT, "%s,%d,%d,%.6f,%.9g", event.getType(), event.getFirst(),
+                    event.getSecond(), event.getTime(), event.getMinDistance()));
+                writer.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void onSimulationUpdate() {
+        }
+
+        @Override
+        public void onSimulationStarted() {
+        }
+
+        @Override
+        public void onSimulationStopped() {
+        }
+
+        @Override
+        public void onSimulationReset() {
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    /**
+     * Opcje wiersza poleceń
+     */
+    public static class Options {
+        static final String USAGE = String.join(System.lineSeparator(),
+            "Użycie: HeadlessRunner (--days D | --steps N) [opcje]",
+            "  --xml PLIK              dane planet (domyślnie api-result.xml)",
+            "  --dt DNI                krok czasowy (domyślnie 0.001)",
+            "  --physics NAZWA         newtonian | array | pairwise | vector | barnes-hut (domyślnie array)",
+            "  --theta T               kąt otwarcia Barnesa-Huta (domyślnie 0.5)",
+            "  --integrator NAZWA      euler | leapfrog | yoshida | forest-ruth (domyślnie leapfrog)",
+            "  --tolerance T           krok adaptacyjny RKF45 z tolerancją T (zastępuje integrator)",
+            "  --block-levels L        kroki blokowe dt/2^k, k ≤ L (zastępuje integrator i --tolerance)",
+            "  --eta E                 współczynnik kryterium kroku blokowego (domyślnie 0.02)",
+            "  --threads N             liczba wątków (domyślnie 1)",
+            "  --chunk N               rozmiar fragmentu dla wątków (domyślnie 256)",
+            "  --snapshots PLIK        zrzuty stanu do CSV",
+            "  --snapshot-every K      zrzut co K kroków (domyślnie 1000)",
+            "  --trajectory PLIK       binarny zapis trajektorii (TrajectoryRecorder)",
+            "  --trajectory-every K    rekord trajektorii co K kroków (domyślnie 100)",
+            "  --checkpoints PLIK      przyrostowe punkty kontrolne (klatki kluczowe + delty)",
+            "  --checkpoint-every S    punkt kontrolny co S sekund (domyślnie 300)",
+            "  --keyframe-every K      pełny stan co K punktów kontrolnych (domyślnie 10)",
+            "  --checkpoint-precision P  kwantowanie delt z dokładnością P (domyślnie 0 = bezstratnie)",
+            "  --resume PLIK           start od ostatniego punktu kontrolnego z pliku",
+            "  --catalog PLIK          dodatkowe małe ciała z katalogu (CSV lub MPCORB)",
+            "  --catalog-format F      auto | state | elements | mpcorb (domyślnie auto)",
+            "  --encounter-distance AU zgłaszanie zbliżeń par ciał na mniej niż AU",
+            "  --collisions P          report | merge | bounce - zderzenia ciał (domyślnie wyłączone)",
+            "  --collision-radius AU   promień ciał z katalogu (domyślnie 0)",
+            "  --encounters PLIK       zdarzenia zbliżeń i zderzeń do CSV",
+            "  --stats-every S         statystyki co S sekund (domyślnie 5)",
+            "  --metrics PLIK          histogramy czasów kroku i częstości do pliku (odświeżany co --stats-every)");
+
+        private String xmlPath = "api-result.xml";
+        private double days = -1;
+        private long steps = -1;
+        private double timeStep = 0.001;
+        private String physics = "array";
+        private double theta = BarnesHutPhysics.DEFAULT_THETA;
+        private String integrator = "leapfrog";
+        private double tolerance = -1;
+        private int blockLevels = 0;
+        private double eta = 0.02;
+        private int threads = 1;
+        private int chunkSize = 256;
+        private Path snapshotPath;
+        private long snapshotEvery = 1000;
+        private Path trajectoryPath;
+        private int trajectoryEvery = 100;
+        private double statsIntervalSeconds = 5;
+        private String checkpointPath;
+        private double checkpointIntervalSeconds = 300;
+        private int keyframeEvery = 10;
+        private double checkpointPrecision = 0;
+        private String resumePath;
+        private Path catalogPath;
+        private BodyCatalogLoader.Format catalogFormat = BodyCatalogLoader.Format.AUTO;
+        private Path metricsPath;
+        private double encounterDistance;
+        private CollisionPolicy collisionPolicy;
+        private double collisionRadius;
+        private Path encountersPath;
+
+        public static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String name = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Brak wartości dla " + name);
+                }
+                String value = args[++i];
+                try {
+                    switch (name) {
+                        case "--xml": options.xmlPath = value; break;
+                        case "--days": options.days = Double.parseDouble(value); break;
+                        case "--steps": options.steps = Long.parseLong(value); break;
+                        case "--dt": options.timeStep = Double.parseDouble(value); break;
+                        case "--physics": options.physics = value; break;
+                        case "--theta": options.theta = Double.parseDouble(value); break;
+                        case "--integrator": options.integrator = value; break;
+                        case "--tolerance": options.tolerance = Double.parseDouble(value); break;
+                        case "--block-levels": options.blockLevels = Integer.parseInt(value); break;
+                        case "--eta": options.eta = Double.parseDouble(value); break;
+                        case "--threads": options.threads = Integer.parseInt(value); break;
+                        case "--chunk": options.chunkSize = Integer.parseInt(value); break;
+                        case "--snapshots": options.snapshotPath = Path.of(value); break;
+                        case "--snapshot-every": options.snapshotEvery = Long.parseLong(value); break;
+                        case "--trajectory": options.trajectoryPath = Path.of(value); break;
+                        case "--trajectory-every": options.trajectoryEvery = Integer.parseInt(value); break;
+                        case "--checkpoints": options.checkpointPath = value; break;
+                        case "--checkpoint-every": options.checkpointIntervalSeconds = Double.parseDouble(value); break;
+                        case "--keyframe-every": options.keyframeEvery = Integer.parseInt(value); break;
+                        case "--checkpoint-precision": options.checkpointPrecision = Double.parseDouble(value); break;
+                        case "--resume": options.resumePath = value; break;
+                        case "--catalog": options.catalogPath = Path.of(value); break;
+                        case "--catalog-format": options.catalogFormat = parseCatalogFormat(value); break;
+                        case "--stats-every": options.statsIntervalSeconds = Double.parseDouble(value); break;
+                        case "--metrics": options.metricsPath = Path.of(value); break;
+                        case "--encounter-distance": options.encounterDistance = Double.parseDouble(value); break;
+                        case "--collisions": options.collisionPolicy = parseCollisionPolicy(value); break;
+                        case "--collision-radius": options.collisionRadius = Double.parseDouble(value); break;
+                        case "--encounters": options.encountersPath = Path.of(value); break;
+                        default: throw new IllegalArgumentException("Nieznana opcja: " + name);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Niepoprawna liczba dla " + name + ": " + value);
+                }
+            }
+
+            if ((options.days < 0) == (options.steps < 0)) {
+                throw new IllegalArgumentException("Podaj dokładnie jedną z opcji --days lub --steps");
+            }
+            if (!(options.timeStep > 0) || options.snapshotEvery < 1 || options.trajectoryEvery < 1 || options.threads < 1
+                    || options.chunkSize < 1 || !(options.statsIntervalSeconds > 0)
+                    || !(options.checkpointIntervalSeconds > 0) || options.keyframeEvery < 1) {
+                throw new IllegalArgumentException("Wartości --dt, --snapshot-every, --trajectory-every, --threads, --chunk"
+                    + ", --stats-every, --checkpoint-every i --keyframe-every muszą być dodatnie");
+            }
+            if (options.blockLevels < 0 || options.blockLevels > 30 || !(options.eta > 0)) {
+                throw new IllegalArgumentException("--block-levels musi być z zakresu 0..30, a --eta dodatnie");
+            }
+            if (!(options.checkpointPrecision >= 0) || Double.isInfinite(options.checkpointPrecision)) {
+                throw new IllegalArgumentException("--checkpoint-precision musi być nieujemne");
+            }
+            if (!(options.encounterDistance >= 0) || !(options.collisionRadius >= 0)
+                    || Double.isInfinite(options.encounterDistance) || Double.isInfinite(options.collisionRadius)) {
+                throw new IllegalArgumentException("--encounter-distance i --collision-radius muszą być nieujemne");
+            }
+            if (options.encountersPath != null && options.encounterDistance == 0 && options.collisionPolicy == null) {
+                throw new IllegalArgumentException("--encounters wymaga --encounter-distance lub --collisions");
+            }
+            if (options.checkpointPath != null && options.resumePath != null
+                    && Path.of(options.checkpointPath).toAbsolutePath().normalize()
+                        .equals(Path.of(options.resumePath).toAbsolutePath().normalize())) {
+                // Plik punktów kontrolnych jest tworzony od nowa - wznowienie straciłoby swoją historię
+                throw new IllegalArgumentException("--checkpoints nie może wskazywać pliku z --resume");
+            }
+            options.createPhysics(); // walidacja nazw
+            options.createIntegrator();
+            if (options.catalogPath != null && !(options.createPhysics() instanceof ArrayPhysicsStrategy)) {
+                throw new IllegalArgumentException("--catalog wymaga strategii tablicowej (array, pairwise, vector, barnes-hut)");
+            }
+            return options;
+        }
+
+        private static BodyCatalogLoader.Format parseCatalogFormat(String value) {
+            switch (value) {
+                case "auto": return BodyCatalogLoader.Format.AUTO;
+                case "state": return BodyCatalogLoader.Format.STATE_CSV;
+                case "elements": return BodyCatalogLoader.Format.ELEMENTS_CSV;
+                case "mpcorb": return BodyCatalogLoader.Format.MPCORB;
+                default: throw new IllegalArgumentException("Nieznany format katalogu: " + value);
+            }
+        }
+
+        private static CollisionPolicy parseCollisionPolicy(String value) {
+            switch (value) {
+                case "report": return CollisionPolicy.REPORT;
+                case "merge": return CollisionPolicy.MERGE;
+                case "bounce": return CollisionPolicy.BOUNCE;
+                default: throw new IllegalArgumentException("Nieznana polityka zderzeń: " + value);
+            }
+        }
+
+        PhysicsStrategy createPhysics() {
+            switch (physics) {
+                case "newtonian": return new NewtonianPhysics();
+                case "array": return new ArrayNewtonianPhysics();
+                case "pairwise": return new PairwiseNewtonianPhysics();
+                case "vector": return new VectorizedNewtonianPhysics();
+                case "barnes-hut": return new BarnesHutPhysics(theta);
+                default: throw new IllegalArgumentException("Nieznana fizyka: " + physics);
+            }
+        }
+
+        /**
+         * Integrator po nazwie; "euler" to dotychczasowa metoda PhysicsStrategy.updateBody
+         */
+        Integrator createIntegrator() {
+            switch (integrator) {
+                case "euler": return null;
+                case "leapfrog": return new LeapfrogIntegrator();
+                case "yoshida": return new YoshidaIntegrator();
+                case "forest-ruth": return new ForestRuthIntegrator();
+                default: throw new IllegalArgumentException("Nieznany integrator: " + integrator);
+            }
+        }
+
+        long totalSteps(double timeStep) {
+            return steps >= 0 ? steps : (long) Math.ceil(days / timeStep);
+        }
+    }
+}
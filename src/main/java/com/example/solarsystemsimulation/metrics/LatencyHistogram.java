@@ -0,0 +1,94 @@
+package com.example.solarsystemsimulation.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram czasów w nanosekundach o stałym rozmiarze: przedziały logarytmiczne (potęgi dwójki)
+ * podzielone na 4 części, więc błąd odczytu percentyla nie przekracza 25%.
+ *
+ * Zapis nie alokuje pamięci i może odbywać się z wielu wątków; odczyt z innego wątku widzi
+ * stan przybliżony (liczniki nie są odczytywane atomowo jako całość).
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        totalNanos.addAndGet(value);
+        if (value > maxNanos.get()) {
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Największa wartość należąca do przedziału
+     */
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+
+    /**
+     * Percentyl (0..1) w nanosekundach - górna granica przedziału, nie więcej niż maksimum
+     */
+    public long getPercentile(double fraction) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts.get(b);
+            if (seen >= target) {
+                return Math.min(upperBound(b), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getMeanNanos() {
+        long total = count.get();
+        return total > 0 ? (double) totalNanos.get() / total : 0;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public void reset() {
+        for (int b = 0; b < BUCKETS; b++) {
+            counts.set(b, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.solarsystemsimulation.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Rejestr metryk wydajności w procesie: histogramy czasów kroku (z fazami przyspieszeń,
+ * integracji i wykrywania zderzeń), rysowania i zapisu/odczytu oraz częstości kroków, ciał*kroków, klatek
+ * i alokacji pamięci.
+ *
+ * Metryki kroku zapisuje jeden wątek (wątek symulacji lub trybu bez GUI), rysowania -
+ * wątek JavaFX; czytać można z dowolnego wątku (nakładka HUD, zrzut do pliku).
+ * Obok metryk wysyłane są zdarzenia JFR ({@link PhysicsStepEvent}, {@link RenderEvent},
+ * {@link PersistenceEvent}), widoczne po włączeniu nagrywania, np. {@code -XX:StartFlightRecording}.
+ */
+public final class MetricsRegistry {
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+    // Odczyt licznika alokacji wątku nie jest darmowy - raz na okres, nie w każdym kroku
+    private static final long ALLOCATION_SAMPLE_NANOS = 100_000_000L;
+
+    /**
+     * Rodzaj operacji zapisu/odczytu
+     */
+    public enum Operation {
+        SAVE("zapis"),
+        LOAD("odczyt"),
+        CHECKPOINT("punkt kontrolny"),
+        CHECKPOINT_LOAD("odczyt punktu kontrolnego");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final LatencyHistogram stepLatency = new LatencyHistogram();
+    private final LatencyHistogram accelerationLatency = new LatencyHistogram();
+    private final LatencyHistogram integrationLatency = new LatencyHistogram();
+    private final LatencyHistogram collisionLatency = new LatencyHistogram();
+    private final LatencyHistogram renderLatency = new LatencyHistogram();
+    private final LatencyHistogram[] persistenceLatency = new LatencyHistogram[Operation.values().length];
+    private final RateMeter stepRate = new RateMeter();
+    private final RateMeter bodyStepRate = new RateMeter();
+    private final RateMeter allocationRate = new RateMeter();
+    private final RateMeter frameRate = new RateMeter();
+    private final com.sun.management.ThreadMXBean threadBean;
+    private volatile int bodyCount;
+    private long allocationSampleNanos;
+    private long allocationThreadId = -1;
+    private long allocatedBytes;
+
+    public MetricsRegistry() {
+        for (int i = 0; i < persistenceLatency.length; i++) {
+            persistenceLatency[i] = new LatencyHistogram();
+        }
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sunBean && sunBean.isThreadAllocatedMemorySupported()) {
+            sunBean.setThreadAllocatedMemoryEnabled(true);
+            this.threadBean = sunBean;
+        } else {
+            this.threadBean = null;
+        }
+    }
+
+    /**
+     * Wspólny rejestr aplikacji (GUI, tryb bez GUI, zapis/odczyt)
+     */
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Zapisuje jeden krok fizyki (wywołuje wątek liczący kroki); integracja to reszta kroku
+     * poza przyspieszeniami i wykrywaniem zderzeń (collisionNanos = 0 - bez wykrywania)
+     */
+    public void recordStep(long stepNanos, long accelerationNanos, long collisionNanos, int bodyCount) {
+        stepLatency.record(stepNanos);
+        accelerationLatency.record(accelerationNanos);
+        integrationLatency.record(stepNanos - accelerationNanos - collisionNanos);
+        if (collisionNanos > 0) {
+            collisionLatency.record(collisionNanos);
+        }
+        long now = System.nanoTime();
+        stepRate.mark(1, now);
+        bodyStepRate.mark(bodyCount, now);
+        this.bodyCount = bodyCount;
+        if (now - allocationSampleNanos >= ALLOCATION_SAMPLE_NANOS) {
+            sampleAllocations(now);
+        }
+    }
+
+    /**
+     * Alokacje wątku liczącego kroki od poprzedniej próbki (wątki równoległych faz nie są liczone)
+     */
+    private void sampleAllocations(long now) {
+        allocationSampleNanos = now;
+        if (threadBean == null) {
+            return;
+        }
+        long threadId = Thread.currentThread().threadId();
+        long bytes = threadBean.getCurrentThreadAllocatedBytes();
+        if (threadId == allocationThreadId && bytes >= allocatedBytes) {
+            allocationRate.mark(bytes - allocatedBytes, now);
+        }
+        allocationThreadId = threadId;
+        allocatedBytes = bytes;
+    }
+
+    /**
+     * Zapisuje narysowanie jednej klatki (wywołuje wątek JavaFX)
+     */
+    public void recordRender(long nanos) {
+        renderLatency.record(nanos);
+        frameRate.mark(1, System.nanoTime());
+    }
+
+    public void recordPersistence(Operation operation, long nanos) {
+        persistenceLatency[operation.ordinal()].record(nanos);
+    }
+
+    public LatencyHistogram getStepLatency() {
+        return stepLatency;
+    }
+
+    public LatencyHistogram getAccelerationLatency() {
+        return accelerationLatency;
+    }
+
+    public LatencyHistogram getIntegrationLatency() {
+        return integrationLatency;
+    }
+
+    public LatencyHistogram getCollisionLatency() {
+        return collisionLatency;
+    }
+
+    public LatencyHistogram getRenderLatency() {
+        return renderLatency;
+    }
+
+    public LatencyHistogram getPersistenceLatency(Operation operation) {
+        return persistenceLatency[operation.ordinal()];
+    }
+
+    public RateMeter getStepRate() {
+        return stepRate;
+    }
+
+    public RateMeter getBodyStepRate() {
+        return bodyStepRate;
+    }
+
+    public RateMeter getAllocationRate() {
+        return allocationRate;
+    }
+
+    public RateMeter getFrameRate() {
+        return frameRate;
+    }
+
+    public int getBodyCount() {
+        return bodyCount;
+    }
+
+    /**
+     * Zeruje histogramy (częstości liczą się w oknach i nie wymagają zerowania)
+     */
+    public void resetHistograms() {
+        stepLatency.reset();
+        accelerationLatency.reset();
+        integrationLatency.reset();
+        collisionLatency.reset();
+        renderLatency.reset();
+        for (LatencyHistogram histogram : persistenceLatency) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Raport tekstowy ze wszystkimi metrykami
+     */
+    public void writeReport(Appendable out) throws IOException {
+        out.append(String.format(Locale.ROOT, "Ciała: %d%n", bodyCount));
+        out.append(String.format(Locale.ROOT, "Kroki: %d (%.1f kroków/s, %.3g ciał*kroków/s)%n",
+            stepRate.getTotal(), stepRate.getRate(), bodyStepRate.getRate()));
+        out.append(String.format(Locale.ROOT, "Alokacje wątku kroków: %.3f MB/s%n", allocationRate.getRate() / 1e6));
+        out.append(String.format(Locale.ROOT, "Klatki: %d (%.1f klatek/s)%n", frameRate.getTotal(), frameRate.getRate()));
+        appendHistogram(out, "krok", stepLatency);
+        appendHistogram(out, "przyspieszenia", accelerationLatency);
+        appendHistogram(out, "integracja", integrationLatency);
+        appendHistogram(out, "zderzenia", collisionLatency);
+        appendHistogram(out, "rysowanie", renderLatency);
+        for (Operation operation : Operation.values()) {
+            appendHistogram(out, operation.getLabel(), getPersistenceLatency(operation));
+        }
+    }
+
+    private static void appendHistogram(Appendable out, String name, LatencyHistogram histogram) throws IOException {
+        if (histogram.getCount() == 0) {
+            return;
+        }
+        out.append(String.format(Locale.ROOT,
+            "%-26s n=%d  śr=%.1f µs  p50=%.1f µs  p99=%.1f µs  p99.9=%.1f µs  max=%.1f µs%n",
+            name, histogram.getCount(), histogram.getMeanNanos() / 1e3,
+            histogram.getPercentile(0.5) / 1e3, histogram.getPercentile(0.99) / 1e3,
+            histogram.getPercentile(0.999) / 1e3, histogram.getMaxNanos() / 1e3));
+    }
+
+    /**
+     * Zapisuje raport do pliku
+     */
+    public void dump(Path path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writeReport(writer);
+        }
+    }
+}
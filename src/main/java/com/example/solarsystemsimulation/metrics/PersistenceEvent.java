@@ -0,0 +1,27 @@
+package com.example.solarsystemsimulation.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Zdarzenie JFR: zapis lub odczyt stanu, punktu kontrolnego
+ */
+@Name("com.example.solarsystemsimulation.Persistence")
+@Label("Zapis/odczyt stanu")
+@Category({"Symulacja Układu Słonecznego", "Zapis"})
+@Description("Operacja SimulationPersistence lub CheckpointWriter")
+public class PersistenceEvent extends Event {
+    @Label("Operacja")
+    public String operation;
+
+    @Label("Plik")
+    public String path;
+
+    @Label("Rozmiar")
+    @DataAmount
+    public long bytes;
+}
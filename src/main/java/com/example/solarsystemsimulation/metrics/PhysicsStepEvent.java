@@ -0,0 +1,37 @@
+package com.example.solarsystemsimulation.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Zdarzenie JFR: jeden krok fizyki z podziałem na fazy przyspieszeń, integracji i zderzeń
+ */
+@Name("com.example.solarsystemsimulation.PhysicsStep")
+@Label("Krok fizyki")
+@Category({"Symulacja Układu Słonecznego", "Fizyka"})
+@Description("Jeden krok Simulation.updatePhysics")
+@StackTrace(false)
+public class PhysicsStepEvent extends Event {
+    @Label("Numer kroku")
+    public long step;
+
+    @Label("Liczba ciał")
+    public int bodyCount;
+
+    @Label("Faza przyspieszeń")
+    @Timespan(Timespan.NANOSECONDS)
+    public long accelerationNanos;
+
+    @Label("Faza integracji")
+    @Timespan(Timespan.NANOSECONDS)
+    public long integrationNanos;
+
+    @Label("Faza wykrywania zderzeń")
+    @Timespan(Timespan.NANOSECONDS)
+    public long collisionNanos;
+}
@@ -0,0 +1,52 @@
+package com.example.solarsystemsimulation.metrics;
+
+/**
+ * Częstość zdarzeń na sekundę liczona w oknach czasu (domyślnie 1 s).
+ *
+ * Zapisuje jeden wątek ({@link #mark}), odczytywać można z dowolnego. Gdy przez dwa okna
+ * nic nie zostało zapisane (np. symulacja zatrzymana), częstość wynosi 0.
+ */
+public final class RateMeter {
+    private final long windowNanos;
+    private long windowCount;
+    private volatile long windowStartNanos;
+    private volatile double rate;
+    private volatile long total;
+
+    public RateMeter() {
+        this(1_000_000_000L);
+    }
+
+    public RateMeter(long windowNanos) {
+        this.windowNanos = windowNanos;
+    }
+
+    public void mark(long amount, long nowNanos) {
+        if (windowStartNanos == 0) {
+            windowStartNanos = nowNanos;
+        }
+        windowCount += amount;
+        total += amount;
+        long elapsed = nowNanos - windowStartNanos;
+        if (elapsed >= windowNanos) {
+            rate = windowCount * 1e9 / elapsed;
+            windowCount = 0;
+            windowStartNanos = nowNanos;
+        }
+    }
+
+    /**
+     * Częstość z ostatniego pełnego okna
+     */
+    public double getRate() {
+        long start = windowStartNanos;
+        if (start == 0 || System.nanoTime() - start > 2 * windowNanos) {
+            return 0;
+        }
+        return rate;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.solarsystemsimulation.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Zdarzenie JFR: narysowanie jednej klatki
+ */
+@Name("com.example.solarsystemsimulation.Render")
+@Label("Rysowanie klatki")
+@Category({"Symulacja Układu Słonecznego", "Rysowanie"})
+@Description("Jedno wywołanie SimulationRenderer.render")
+@StackTrace(false)
+public class RenderEvent extends Event {
+    @Label("Liczba ciał")
+    public int bodyCount;
+
+    @Label("Krok migawki")
+    public long step;
+}
@@ -0,0 +1,181 @@
+package com.example.solarsystemsimulation.model;
+
+import java.util.Arrays;
+
+/**
+ * Magazyn stanu ciał w układzie "structure of arrays" - równoległe tablice double
+ * dla pozycji, prędkości, przyspieszeń i mas. Pozwala liczyć krok fizyki bez
+ * tworzenia obiektów {@code Vector2D}.
+ *
+ * Tablice zwracane przez metody {@code get...Array()} mogą być dłuższe niż {@link #size()}
+ * i są podmieniane przy powiększaniu magazynu, więc nie należy ich przechowywać
+ * pomiędzy krokami symulacji.
+ */
+public class BodyStore {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private double[] x; // AU
+    private double[] y; // AU
+    private double[] vx; // AU/day
+    private double[] vy; // AU/day
+    private double[] ax; // AU/day²
+    private double[] ay; // AU/day²
+    private double[] mass;
+    private boolean[] fixed; // ciała nieruchome (Słońce)
+    private int size;
+
+    public BodyStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public BodyStore(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        x = new double[capacity];
+        y = new double[capacity];
+        vx = new double[capacity];
+        vy = new double[capacity];
+        ax = new double[capacity];
+        ay = new double[capacity];
+        mass = new double[capacity];
+        fixed = new boolean[capacity];
+    }
+
+    /**
+     * Dodaje ciało i zwraca jego indeks
+     */
+    public int add(double mass, double x, double y, double vx, double vy, boolean fixed) {
+        ensureCapacity(size + 1);
+        int index = size++;
+        this.mass[index] = mass;
+        this.x[index] = x;
+        this.y[index] = y;
+        this.vx[index] = vx;
+        this.vy[index] = vy;
+        this.ax[index] = 0;
+        this.ay[index] = 0;
+        this.fixed[index] = fixed;
+        return index;
+    }
+
+    /**
+     * Dodaje count ciał naraz i zwraca indeks pierwszego; pozycje, prędkości i masy wpisuje
+     * wywołujący bezpośrednio do tablic (pobranych po tym wywołaniu)
+     */
+    public int addBulk(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Liczba ciał nie może być ujemna: " + count);
+        }
+        ensureCapacity(size + count);
+        int first = size;
+        size += count;
+        Arrays.fill(ax, first, size, 0);
+        Arrays.fill(ay, first, size, 0);
+        Arrays.fill(fixed, first, size, false);
+        return first;
+    }
+
+    /**
+     * Zapewnia miejsce na co najmniej podaną liczbę ciał
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= x.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, x.length * 2);
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        vx = Arrays.copyOf(vx, newCapacity);
+        vy = Arrays.copyOf(vy, newCapacity);
+        ax = Arrays.copyOf(ax, newCapacity);
+        ay = Arrays.copyOf(ay, newCapacity);
+        mass = Arrays.copyOf(mass, newCapacity);
+        fixed = Arrays.copyOf(fixed, newCapacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getX(int index) {
+        return x[index];
+    }
+
+    public double getY(int index) {
+        return y[index];
+    }
+
+    public double getVx(int index) {
+        return vx[index];
+    }
+
+    public double getVy(int index) {
+        return vy[index];
+    }
+
+    public double getAx(int index) {
+        return ax[index];
+    }
+
+    public double getAy(int index) {
+        return ay[index];
+    }
+
+    public double getMass(int index) {
+        return mass[index];
+    }
+
+    public boolean isFixed(int index) {
+        return fixed[index];
+    }
+
+    public void setPosition(int index, double x, double y) {
+        this.x[index] = x;
+        this.y[index] = y;
+    }
+
+    public void setVelocity(int index, double vx, double vy) {
+        this.vx[index] = vx;
+        this.vy[index] = vy;
+    }
+
+    public void setAcceleration(int index, double ax, double ay) {
+        this.ax[index] = ax;
+        this.ay[index] = ay;
+    }
+
+    public void setFixed(int index, boolean fixed) {
+        this.fixed[index] = fixed;
+    }
+
+    public double[] getXArray() {
+        return x;
+    }
+
+    public double[] getYArray() {
+        return y;
+    }
+
+    public double[] getVxArray() {
+        return vx;
+    }
+
+    public double[] getVyArray() {
+        return vy;
+    }
+
+    public double[] getAxArray() {
+        return ax;
+    }
+
+    public double[] getAyArray() {
+        return ay;
+    }
+
+    public double[] getMassArray() {
+        return mass;
+    }
+
+    public boolean[] getFixedArray() {
+        return fixed;
+    }
+}
@@ -4,7 +4,10 @@ import com.example.solarsystemsimulation.physics.Vector2D;
 import javafx.scene.paint.Color;
 
 /**
- * Klasa reprezentująca ciało niebieskie w symulacji
+ * Klasa reprezentująca ciało niebieskie w symulacji.
+ * Po dodaniu do symulacji ciało staje się widokiem na swój indeks w {@link BodyStore} -
+ * pozycja, prędkość i przyspieszenie są wtedy czytane i zapisywane w tablicach magazynu,
+ * a masa i nieruchomość czytane z magazynu (zmieniają je zlepienia ciał).
  */
 public class CelestialBody {
     private final String name;
@@ -15,6 +18,8 @@ public class CelestialBody {
     private Vector2D velocity; // AU/day
     private Vector2D acceleration; // AU/day²
     private boolean isSun;
+    private BodyStore store; // null dopóki ciało nie jest w symulacji
+    private int index = -1;
 
     public CelestialBody(String name, double mass, double radius, Color color, 
                          Vector2D position, Vector2D velocity) {
@@ -33,6 +38,9 @@ public class CelestialBody {
     }
 
     public double getMass() {
+        if (store != null) {
+            return store.getMass(index);
+        }
         return mass;
     }
 
@@ -45,56 +53,110 @@ public class CelestialBody {
     }
 
     public Vector2D getPosition() {
+        if (store != null) {
+            return new Vector2D(store.getX(index), store.getY(index));
+        }
         return position;
     }
 
     public void setPosition(Vector2D position) {
-        this.position = position;
+        if (store != null) {
+            store.setPosition(index, position.getX(), position.getY());
+        } else {
+            this.position = position;
+        }
     }
 
     public Vector2D getVelocity() {
+        if (store != null) {
+            return new Vector2D(store.getVx(index), store.getVy(index));
+        }
         return velocity;
     }
 
     public void setVelocity(Vector2D velocity) {
-        this.velocity = velocity;
+        if (store != null) {
+            store.setVelocity(index, velocity.getX(), velocity.getY());
+        } else {
+            this.velocity = velocity;
+        }
     }
 
     public Vector2D getAcceleration() {
+        if (store != null) {
+            return new Vector2D(store.getAx(index), store.getAy(index));
+        }
         return acceleration;
     }
 
     public void setAcceleration(Vector2D acceleration) {
-        this.acceleration = acceleration;
+        if (store != null) {
+            store.setAcceleration(index, acceleration.getX(), acceleration.getY());
+        } else {
+            this.acceleration = acceleration;
+        }
     }
 
     public boolean isSun() {
         return isSun;
     }
 
+    /**
+     * Ciało nieruchome - Słońce albo ciało pochłonięte w zderzeniu; nie jest całkowane
+     */
+    public boolean isFixed() {
+        if (store != null) {
+            return store.isFixed(index);
+        }
+        return isSun;
+    }
+
     public void setIsSun(boolean isSun) {
         this.isSun = isSun;
+        if (store != null) {
+            store.setFixed(index, isSun);
+        }
+    }
+
+    /**
+     * Przenosi stan ciała do magazynu i od tej pory działa jako widok na jego indeks
+     */
+    public void attachTo(BodyStore store) {
+        if (this.store != null) {
+            throw new IllegalStateException("Ciało " + name + " jest już w magazynie");
+        }
+        this.index = store.add(mass, position.getX(), position.getY(),
+            velocity.getX(), velocity.getY(), isSun);
+        store.setAcceleration(index, acceleration.getX(), acceleration.getY());
+        this.store = store;
+    }
+
+    /**
+     * Indeks ciała w magazynie lub -1 jeśli ciało nie jest w symulacji
+     */
+    public int getIndex() {
+        return index;
     }
 
     /**
      * Tworzy kopię ciała niebieskiego (wzorzec Memento)
      */
     public CelestialBodyMemento saveToMemento() {
-        return new CelestialBodyMemento(position, velocity, acceleration);
+        return new CelestialBodyMemento(getPosition(), getVelocity(), getAcceleration());
     }
 
     /**
      * Przywraca stan z mementos (wzorzec Memento)
      */
     public void restoreFromMemento(CelestialBodyMemento memento) {
-        this.position = memento.getPosition();
-        this.velocity = memento.getVelocity();
-        this.acceleration = memento.getAcceleration();
+        setPosition(memento.getPosition());
+        setVelocity(memento.getVelocity());
+        setAcceleration(memento.getAcceleration());
     }
 
     @Override
     public String toString() {
-        return String.format("%s: pos=%s, vel=%s", name, position, velocity);
+        return String.format("%s: pos=%s, vel=%s", name, getPosition(), getVelocity());
     }
 
     /**
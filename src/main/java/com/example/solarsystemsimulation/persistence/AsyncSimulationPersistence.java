@@ -0,0 +1,116 @@
+package com.example.solarsystemsimulation.persistence;
+
+import com.example.solarsystemsimulation.simulation.Simulation;
+import com.example.solarsystemsimulation.simulation.SimulationThread;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Zapis i odczyt stanu bez blokowania wywołującego (np. wątku JavaFX).
+ *
+ * Zapis: wątek symulacji pomiędzy krokami kopiuje stan ({@link SavedState#capture}), a plik
+ * powstaje na osobnym wątku wejścia-wyjścia, gdy symulacja liczy dalej. Odczyt: plik jest
+ * czytany na wątku wejścia-wyjścia do kopii, a gotowa kopia jest wpisywana do symulacji jednym
+ * poleceniem wątku symulacji - symulacja nigdy nie widzi stanu wczytanego częściowo.
+ * Postęp ({@link PersistenceProgress}) jest zgłaszany na wątku wejścia-wyjścia.
+ */
+public class AsyncSimulationPersistence implements Closeable {
+    private final Simulation simulation;
+    private final SimulationThread simulationThread;
+    private final ExecutorService ioExecutor;
+
+    public AsyncSimulationPersistence(Simulation simulation, SimulationThread simulationThread) {
+        this.simulation = simulation;
+        this.simulationThread = simulationThread;
+        this.ioExecutor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "persistence-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Zapisuje stan z chwili pomiędzy najbliższymi krokami symulacji
+     */
+    public CompletableFuture<Transfer> save(String filePath, PersistenceProgress progress) {
+        return simulationThread.call(() -> SavedState.capture(simulation))
+            .thenApplyAsync(state -> {
+                long startNanos = System.nanoTime();
+                try {
+                    SimulationPersistence.writeState(state, filePath, progress);
+                    return new Transfer(Files.size(Path.of(filePath)), System.nanoTime() - startNanos);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, ioExecutor);
+    }
+
+    /**
+     * Wczytuje plik do kopii stanu na wątku wejścia-wyjścia, bez zmieniania symulacji
+     */
+    public CompletableFuture<SavedState> stage(String filePath, PersistenceProgress progress) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return SimulationPersistence.readState(filePath, progress);
+            } catch (IOException | ClassNotFoundException e) {
+                throw new CompletionException(e);
+            }
+        }, ioExecutor);
+    }
+
+    /**
+     * Wczytuje plik i podmienia stan symulacji pomiędzy krokami; afterApply (np. wyczyszczenie
+     * historii) wykonuje się na wątku symulacji w tym samym poleceniu co podmiana
+     */
+    public CompletableFuture<Transfer> load(String filePath, PersistenceProgress progress, Runnable afterApply) {
+        long startNanos = System.nanoTime();
+        return stage(filePath, progress).thenCompose(state -> {
+            long nanos = System.nanoTime() - startNanos;
+            long bytes = BinarySimulationFormat.fileSize(state);
+            return simulationThread.call(() -> {
+                state.applyTo(simulation);
+                afterApply.run();
+                return new Transfer(bytes, nanos);
+            });
+        });
+    }
+
+    /**
+     * Kończy wątek wejścia-wyjścia po wykonaniu zleconych operacji
+     */
+    @Override
+    public void close() {
+        ioExecutor.shutdown();
+    }
+
+    /**
+     * Podsumowanie zakończonego zapisu lub odczytu
+     */
+    public static final class Transfer {
+        private final long bytes;
+        private final long nanos;
+
+        Transfer(long bytes, long nanos) {
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public double getSeconds() {
+            return nanos / 1e9;
+        }
+
+        public double getBytesPerSecond() {
+            return nanos > 0 ? bytes * 1e9 / nanos : 0;
+        }
+    }
+}
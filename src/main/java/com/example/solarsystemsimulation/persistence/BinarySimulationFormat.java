@@ -0,0 +1,243 @@
+package com.example.solarsystemsimulation.persistence;
+
+import com.example.solarsystemsimulation.simulation.Simulation;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Binarny format pliku .sim (little-endian):
+ * <pre>
+ *   int    magic          "SSIM"
+ *   int    wersja schematu
+ *   int    liczba ciał N
+ *   int    flagi (zarezerwowane, 0)
+ *   double mnożnik prędkości
+ *   double czas symulacji [dni]
+ *   long   liczba kroków
+ *   double[N] x, y, vx, vy, ax, ay
+ *   double[N] masy                (od wersji 2)
+ *   byte[N]   ciało nieruchome 0/1 (od wersji 2)
+ * </pre>
+ * Wersja 2 zapisuje masy i nieruchomość, które zmieniają zlepienia ciał
+ * ({@link com.example.solarsystemsimulation.simulation.CollisionDetector}); pliki wersji 1
+ * są nadal czytane, a masy symulacji pozostają wtedy bez zmian.
+ * Tablice są zapisywane i czytane blokowo przez {@link FileChannel}, a duże pliki są
+ * mapowane do pamięci. Zapis i odczyt działają na kopii stanu ({@link SavedState}), więc
+ * mogą trwać poza wątkiem symulacji.
+ */
+final class BinarySimulationFormat {
+    static final int MAGIC = 0x5353494D; // "SSIM"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 40;
+    static final int ARRAY_COUNT = SavedState.ARRAY_COUNT;
+
+    // Od tej wielkości pliku używamy mapowania zamiast kopiowania przez bufor
+    private static final long MAPPING_THRESHOLD = 1 << 20;
+    private static final int CHUNK_BYTES = 1 << 16;
+    // Porcja danych pomiędzy zgłoszeniami postępu przy mapowaniu (1 MiB)
+    private static final int CHUNK_DOUBLES = 1 << 17;
+
+    private BinarySimulationFormat() {
+    }
+
+    static long fileSize(int bodyCount, int version) {
+        long perBody = (long) ARRAY_COUNT * Double.BYTES;
+        if (version >= 2) {
+            perBody += Double.BYTES + 1; // masa i flaga nieruchomości
+        }
+        return HEADER_BYTES + perBody * bodyCount;
+    }
+
+    /**
+     * Rozmiar pliku z kopią stanu (stan bez mas jest zapisywany w wersji 1)
+     */
+    static long fileSize(SavedState state) {
+        return fileSize(state.getBodyCount(), version(state));
+    }
+
+    private static int version(SavedState state) {
+        return state.getMass() != null ? VERSION : 1;
+    }
+
+    static void write(Simulation simulation, Path path) throws IOException {
+        SavedState state = SavedState.capture(simulation);
+        write(state, path, new ProgressTracker(PersistenceProgress.NONE, fileSize(state)));
+    }
+
+    /**
+     * Zapisuje kopię stanu do pliku; może działać na dowolnym wątku
+     */
+    static void write(SavedState state, Path path, ProgressTracker progress) throws IOException {
+        int n = state.getBodyCount();
+        double[][] arrays = doubleArrays(state.getArrays(), state.getMass());
+        boolean[] fixed = state.getFixed();
+        long size = fileSize(state);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (size >= MAPPING_THRESHOLD) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                mapped.order(ByteOrder.LITTLE_ENDIAN);
+                writeHeader(mapped, state);
+                progress.advance(HEADER_BYTES);
+                DoubleBuffer doubles = mapped.asDoubleBuffer();
+                for (double[] array : arrays) {
+                    for (int offset = 0; offset < n; offset += CHUNK_DOUBLES) {
+                        int count = Math.min(CHUNK_DOUBLES, n - offset);
+                        doubles.put(array, offset, count);
+                        progress.advance((long) count * Double.BYTES);
+                    }
+                }
+                if (fixed != null) {
+                    mapped.position(HEADER_BYTES + arrays.length * Double.BYTES * n);
+                    for (int i = 0; i < n; i++) {
+                        mapped.put(fixed[i] ? (byte) 1 : 0);
+                    }
+                    progress.advance(n);
+                }
+                mapped.force();
+                progress.finish();
+                return;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            writeHeader(buffer, state);
+            for (double[] array : arrays) {
+                int offset = 0;
+                while (offset < n) {
+                    if (buffer.remaining() < Double.BYTES) {
+                        progress.advance(drain(channel, buffer));
+                    }
+                    int count = Math.min(n - offset, buffer.remaining() / Double.BYTES);
+                    buffer.asDoubleBuffer().put(array, offset, count);
+                    buffer.position(buffer.position() + count * Double.BYTES);
+                    offset += count;
+                }
+            }
+            if (fixed != null) {
+                for (int i = 0; i < n; i++) {
+                    if (!buffer.hasRemaining()) {
+                        progress.advance(drain(channel, buffer));
+                    }
+                    buffer.put(fixed[i] ? (byte) 1 : 0);
+                }
+            }
+            drain(channel, buffer);
+            progress.finish();
+        }
+    }
+
+    /**
+     * Wczytuje plik do symulacji; zakłada, że nagłówek zaczyna się od {@link #MAGIC}
+     */
+    static void read(Simulation simulation, Path path) throws IOException {
+        read(path, PersistenceProgress.NONE).applyTo(simulation);
+    }
+
+    /**
+     * Wczytuje plik do nowej kopii stanu, bez dotykania symulacji; może działać na dowolnym wątku
+     */
+    static SavedState read(Path path, PersistenceProgress listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("To nie jest binarny plik symulacji: " + path);
+            }
+            int version = header.getInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Nieobsługiwana wersja pliku symulacji: " + version);
+            }
+            int n = header.getInt();
+            header.getInt(); // flagi
+            double speedMultiplier = header.getDouble();
+            double simulationTime = header.getDouble();
+            long stepCount = header.getLong();
+            long size = fileSize(n, version);
+            if (n < 0 || channel.size() < size) {
+                throw new IOException("Plik symulacji jest uszkodzony lub niekompletny: " + path);
+            }
+
+            ProgressTracker progress = new ProgressTracker(listener, size);
+            progress.advance(HEADER_BYTES);
+            double[][] arrays = SavedState.allocate(n);
+            double[] mass = version >= 2 ? new double[n] : null;
+            boolean[] fixed = version >= 2 ? new boolean[n] : null;
+            ByteBuffer data;
+            if (size >= MAPPING_THRESHOLD) {
+                data = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, size - HEADER_BYTES);
+            } else {
+                data = ByteBuffer.allocate((int) (size - HEADER_BYTES));
+                readFully(channel, data);
+                data.flip();
+            }
+            data.order(ByteOrder.LITTLE_ENDIAN);
+            DoubleBuffer doubles = data.asDoubleBuffer();
+            double[][] doubleArrays = doubleArrays(arrays, mass);
+            for (double[] array : doubleArrays) {
+                for (int offset = 0; offset < n; offset += CHUNK_DOUBLES) {
+                    int count = Math.min(CHUNK_DOUBLES, n - offset);
+                    doubles.get(array, offset, count);
+                    progress.advance((long) count * Double.BYTES);
+                }
+            }
+            if (fixed != null) {
+                data.position(doubleArrays.length * Double.BYTES * n);
+                for (int i = 0; i < n; i++) {
+                    fixed[i] = data.get() != 0;
+                }
+                progress.advance(n);
+            }
+            progress.finish();
+            return new SavedState(arrays, mass, fixed, n, speedMultiplier, simulationTime, stepCount);
+        }
+    }
+
+    /**
+     * Tablice double w kolejności pliku: x, y, vx, vy, ax, ay i masy (jeśli są)
+     */
+    private static double[][] doubleArrays(double[][] arrays, double[] mass) {
+        if (mass == null) {
+            return arrays;
+        }
+        double[][] all = Arrays.copyOf(arrays, arrays.length + 1);
+        all[arrays.length] = mass;
+        return all;
+    }
+
+    private static void writeHeader(ByteBuffer buffer, SavedState state) {
+        buffer.putInt(MAGIC);
+        buffer.putInt(version(state));
+        buffer.putInt(state.getBodyCount());
+        buffer.putInt(0);
+        buffer.putDouble(state.getSpeedMultiplier());
+        buffer.putDouble(state.getSimulationTime());
+        buffer.putLong(state.getStepCount());
+    }
+
+    private static int drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        int written = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        return written;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Nieoczekiwany koniec pliku symulacji");
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.solarsystemsimulation.persistence;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Kodowanie stanu punktu kontrolnego: liczby 64-bitowe rozłożone na płaszczyzny bajtów
+ * i skompresowane Deflate na najszybszym poziomie.
+ *
+ * Delty są liczone względem przewidywania z poprzedniego punktu (x + vx·Δt, prędkość bez zmian):
+ * bezstratnie jako XOR bitów liczby i przewidywania albo stratnie jako różnica kwantowana
+ * z zadaną dokładnością. W obu przypadkach starsze bajty są w większości zerami, a ułożenie
+ * ich obok siebie daje długie serie zer.
+ */
+final class CheckpointCodec {
+    // Większe różnice kwantowane nie mieszczą się dokładnie w double - wtedy zapis bezstratny
+    static final long MAX_QUANTIZED = 1L << 50;
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+    private final Inflater inflater = new Inflater(true);
+    private byte[] planes = new byte[0];
+    private byte[] compressed = new byte[0];
+
+    /**
+     * Przewidywany stan (x, y, vx, vy) po czasie dt od stanu previous
+     */
+    static void predict(double[] previous, double dt, int bodyCount, double[] out) {
+        int n = bodyCount;
+        for (int i = 0; i < n; i++) {
+            out[i] = previous[i] + previous[2 * n + i] * dt;
+            out[n + i] = previous[n + i] + previous[3 * n + i] * dt;
+        }
+        System.arraycopy(previous, 2 * n, out, 2 * n, 2 * n);
+    }
+
+    /**
+     * Zwalnia natywną pamięć zlib (koder nie nadaje się potem do użycia)
+     */
+    void end() {
+        deflater.end();
+        inflater.end();
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Koduje values (XOR base, jeśli base != null) i zwraca liczbę bajtów w {@link #output()}
+     */
+    int encode(long[] values, long[] base, int count) {
+        int rawBytes = count * Long.BYTES;
+        if (planes.length < rawBytes) {
+            planes = new byte[rawBytes];
+            compressed = new byte[rawBytes + rawBytes / 16 + 64];
+        }
+        for (int k = 0; k < count; k++) {
+            long value = base == null ? values[k] : values[k] ^ base[k];
+            for (int p = 0; p < Long.BYTES; p++) {
+                planes[p * count + k] = (byte) (value >>> (56 - 8 * p));
+            }
+        }
+
+        deflater.reset();
+        deflater.setInput(planes, 0, rawBytes);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        return length;
+    }
+
+    byte[] output() {
+        return compressed;
+    }
+
+    /**
+     * Dekoduje count wartości do values (XOR base, jeśli base != null)
+     */
+    void decode(byte[] input, int length, long[] values, long[] base, int count) throws IOException {
+        int rawBytes = count * Long.BYTES;
+        if (planes.length < rawBytes) {
+            planes = new byte[rawBytes];
+        }
+        inflater.reset();
+        inflater.setInput(input, 0, length);
+        try {
+            int read = 0;
+            while (read < rawBytes) {
+                int n = inflater.inflate(planes, read, rawBytes - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("Uszkodzony punkt kontrolny");
+                }
+                read += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Uszkodzony punkt kontrolny", e);
+        }
+
+        for (int k = 0; k < count; k++) {
+            long value = 0;
+            for (int p = 0; p < Long.BYTES; p++) {
+                value |= (planes[p * count + k] & 0xFFL) << (56 - 8 * p);
+            }
+            values[k] = base == null ? value : value ^ base[k];
+        }
+    }
+}
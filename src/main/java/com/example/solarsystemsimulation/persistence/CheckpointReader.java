@@ -0,0 +1,225 @@
+package com.example.solarsystemsimulation.persistence;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import com.example.solarsystemsimulation.simulation.Simulation;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Odczyt pliku przyrostowych punktów kontrolnych ({@link CheckpointWriter}).
+ * Punkt kontrolny jest odtwarzany od najbliższej wcześniejszej klatki kluczowej
+ * przez nałożenie kolejnych delt.
+ */
+public class CheckpointReader implements Closeable {
+    private final FileChannel channel;
+    private final int bodyCount;
+    private final int version;
+    private final double precision;
+    private final CheckpointCodec codec = new CheckpointCodec();
+    private long[] positions = new long[16]; // początek wpisu (nagłówka)
+    private int[] types = new int[16];
+    private int[] lengths = new int[16];
+    private long[] steps = new long[16];
+    private double[] times = new double[16];
+    private double[] speeds = new double[16];
+    private int count;
+    private byte[] payload = new byte[0];
+
+    public CheckpointReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(CheckpointWriter.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (!readAt(header, 0) || header.getInt(0) != CheckpointWriter.MAGIC) {
+                throw new IOException("To nie jest plik punktów kontrolnych: " + path);
+            }
+            this.version = header.getInt(4);
+            if (version < 1 || version > CheckpointWriter.VERSION) {
+                throw new IOException("Nieobsługiwana wersja punktów kontrolnych: " + version);
+            }
+            this.bodyCount = header.getInt(8);
+            this.precision = header.getDouble(16);
+            indexEntries();
+        } catch (IOException e) {
+            release();
+            throw e;
+        }
+    }
+
+    /**
+     * Przegląda nagłówki wpisów; niepełny ostatni wpis (przerwany zapis) jest pomijany
+     */
+    private void indexEntries() throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(CheckpointWriter.ENTRY_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long position = CheckpointWriter.HEADER_BYTES;
+        long size = channel.size();
+        while (true) {
+            entry.clear();
+            if (!readAt(entry, position)) {
+                break;
+            }
+            int length = entry.getInt(4);
+            long end = position + CheckpointWriter.ENTRY_HEADER_BYTES + length;
+            if (length < 0 || end > size) {
+                break;
+            }
+            if (count == positions.length) {
+                int capacity = count * 2;
+                positions = Arrays.copyOf(positions, capacity);
+                types = Arrays.copyOf(types, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                steps = Arrays.copyOf(steps, capacity);
+                times = Arrays.copyOf(times, capacity);
+                speeds = Arrays.copyOf(speeds, capacity);
+            }
+            positions[count] = position;
+            types[count] = entry.getInt(0);
+            lengths[count] = length;
+            steps[count] = entry.getLong(8);
+            times[count] = entry.getDouble(16);
+            speeds[count] = entry.getDouble(24);
+            count++;
+            position = end;
+        }
+    }
+
+    public int getCheckpointCount() {
+        return count;
+    }
+
+    public int getBodyCount() {
+        return bodyCount;
+    }
+
+    public long getStep(int index) {
+        checkIndex(index);
+        return steps[index];
+    }
+
+    /**
+     * Dokładność kwantowania delt zapisana w pliku (0 = punkty kontrolne są dokładne)
+     */
+    public double getPrecision() {
+        return precision;
+    }
+
+    public double getTime(int index) {
+        checkIndex(index);
+        return times[index];
+    }
+
+    /**
+     * Odtwarza punkt kontrolny i wpisuje go do symulacji (ciała o tych samych indeksach)
+     */
+    public void restore(Simulation simulation, int index) throws IOException {
+        checkIndex(index);
+        int keyframe = index;
+        while (types[keyframe] != CheckpointWriter.KEYFRAME) {
+            keyframe--;
+            if (keyframe < 0) {
+                throw new IOException("Brak klatki kluczowej przed punktem " + index);
+            }
+        }
+
+        int length = CheckpointWriter.STATE_ARRAYS * bodyCount;
+        int keyframeLength = version >= 2 ? CheckpointWriter.KEYFRAME_ARRAYS * bodyCount : length;
+        double[] state = new double[length];
+        double[] predicted = new double[length];
+        long[] values = new long[keyframeLength];
+        long[] base = new long[length];
+        double[] mass = version >= 2 ? new double[bodyCount] : null;
+        boolean[] fixed = version >= 2 ? new boolean[bodyCount] : null;
+        for (int k = keyframe; k <= index; k++) {
+            readPayload(k);
+            if (types[k] == CheckpointWriter.KEYFRAME) {
+                codec.decode(payload, lengths[k], values, null, keyframeLength);
+                for (int i = 0; i < length; i++) {
+                    state[i] = Double.longBitsToDouble(values[i]);
+                }
+                if (mass != null) {
+                    for (int i = 0; i < bodyCount; i++) {
+                        mass[i] = Double.longBitsToDouble(values[length + i]);
+                        fixed[i] = values[length + bodyCount + i] != 0;
+                    }
+                }
+                continue;
+            }
+            // to samo przewidywanie co przy zapisie - identyczne działania dają identyczne bity
+            CheckpointCodec.predict(state, times[k] - times[k - 1], bodyCount, predicted);
+            if (types[k] == CheckpointWriter.DELTA_QUANTIZED) {
+                codec.decode(payload, lengths[k], values, null, length);
+                for (int i = 0; i < length; i++) {
+                    state[i] = predicted[i] + CheckpointCodec.unZigZag(values[i]) * precision;
+                }
+            } else {
+                for (int i = 0; i < length; i++) {
+                    base[i] = Double.doubleToRawLongBits(predicted[i]);
+                }
+                codec.decode(payload, lengths[k], values, base, length);
+                for (int i = 0; i < length; i++) {
+                    state[i] = Double.longBitsToDouble(values[i]);
+                }
+            }
+        }
+
+        BodyStore store = simulation.getBodyStore();
+        int n = Math.min(bodyCount, store.size());
+        System.arraycopy(state, 0, store.getXArray(), 0, n);
+        System.arraycopy(state, bodyCount, store.getYArray(), 0, n);
+        System.arraycopy(state, 2 * bodyCount, store.getVxArray(), 0, n);
+        System.arraycopy(state, 3 * bodyCount, store.getVyArray(), 0, n);
+        simulation.restoreState(speeds[index], times[index], steps[index]);
+        if (mass != null) {
+            simulation.restoreMasses(mass, fixed, n);
+        }
+    }
+
+    private void readPayload(int k) throws IOException {
+        int length = lengths[k];
+        if (payload.length < length) {
+            payload = new byte[length];
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(payload, 0, length);
+        if (!readAt(buffer, positions[k] + CheckpointWriter.ENTRY_HEADER_BYTES)) {
+            throw new IOException("Nieoczekiwany koniec pliku punktów kontrolnych");
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Brak punktu kontrolnego " + index);
+        }
+    }
+
+    private boolean readAt(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        release();
+    }
+
+    /**
+     * Zamyka plik i zwalnia pamięć kodera (także po błędzie w konstruktorze)
+     */
+    private void release() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            codec.end();
+        }
+    }
+}
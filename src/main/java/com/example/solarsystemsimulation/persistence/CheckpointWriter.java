@@ -0,0 +1,242 @@
+package com.example.solarsystemsimulation.persistence;
+
+import com.example.solarsystemsimulation.metrics.MetricsRegistry;
+import com.example.solarsystemsimulation.metrics.PersistenceEvent;
+import com.example.solarsystemsimulation.model.BodyStore;
+import com.example.solarsystemsimulation.simulation.Simulation;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Przyrostowe punkty kontrolne w jednym pliku: co keyframeInterval punktów pełny stan
+ * (klatka kluczowa), pomiędzy nimi różnice względem poprzedniego punktu ({@link CheckpointCodec}).
+ *
+ * Przy dokładności 0 delty są bezstratne (XOR). Przy dokładności &gt; 0 różnice są kwantowane
+ * z tą dokładnością (w AU i AU/dzień); zapisujący liczy kolejne delty względem stanu odtworzonego,
+ * więc błąd punktu kontrolnego nie przekracza połowy dokładności i nie kumuluje się.
+ * Klatki kluczowe są zawsze dokładne i zawierają też masy oraz nieruchomość ciał; zmiana mas
+ * (zlepienie ciał) wymusza klatkę kluczową w najbliższym punkcie kontrolnym, więc delty nigdy
+ * nie łączą nowych pozycji ze starymi masami.
+ *
+ * Układ pliku (little-endian):
+ * <pre>
+ *   nagłówek (24 B): int magic "SCHK", int wersja, int liczba ciał N, int odstęp klatek kluczowych,
+ *                    double dokładność kwantowania (0 = bezstratnie)
+ *   wpis:            int typ (0 = klatka kluczowa, 1 = delta XOR, 2 = delta kwantowana),
+ *                    int długość danych, long krok, double czas [dni], double mnożnik prędkości,
+ *                    dane (x, y, vx, vy; klatka kluczowa także masy i nieruchomość 0/1)
+ * </pre>
+ * Wersja 1 nie zapisywała mas w klatkach kluczowych - czytający zostawia wtedy masy symulacji.
+ * Każdy wpis jest dopisywany w całości i utrwalany (force), więc po awarii plik kończy się
+ * na ostatnim pełnym punkcie kontrolnym.
+ */
+public class CheckpointWriter implements Closeable {
+    static final int MAGIC = 0x5343484B; // "SCHK"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 24;
+    static final int ENTRY_HEADER_BYTES = 32;
+    static final int KEYFRAME = 0;
+    static final int DELTA_XOR = 1;
+    static final int DELTA_QUANTIZED = 2;
+    static final int STATE_ARRAYS = 4;
+    static final int KEYFRAME_ARRAYS = 6; // x, y, vx, vy, masa, nieruchomość
+
+    private final Simulation simulation;
+    private final Path path;
+    private final FileChannel channel;
+    private final int bodyCount;
+    private final int keyframeInterval;
+    private final double precision;
+    private final CheckpointCodec codec = new CheckpointCodec();
+    private final double[] current;
+    private final double[] reference; // stan poprzedniego punktu widziany przez czytającego
+    private final double[] predicted;
+    private final long[] values;
+    private final long[] base;
+    private final double[] keyframeMass; // masy i nieruchomość z ostatniej klatki kluczowej
+    private final boolean[] keyframeFixed;
+    private int sinceKeyframe; // punktów kontrolnych od ostatniej klatki kluczowej
+    private final ByteBuffer entryHeader = ByteBuffer.allocate(ENTRY_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private double referenceTime;
+    private long checkpointCount;
+    private long bytesWritten;
+
+    public CheckpointWriter(Simulation simulation, Path path, int keyframeInterval) throws IOException {
+        this(simulation, path, keyframeInterval, 0);
+    }
+
+    /**
+     * @param precision dokładność kwantowania delt (AU, AU/dzień); 0 = delty bezstratne
+     */
+    public CheckpointWriter(Simulation simulation, Path path, int keyframeInterval, double precision)
+            throws IOException {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Odstęp klatek kluczowych musi być dodatni: " + keyframeInterval);
+        }
+        if (!(precision >= 0) || Double.isInfinite(precision)) {
+            throw new IllegalArgumentException("Nieprawidłowa dokładność kwantowania: " + precision);
+        }
+        this.simulation = simulation;
+        this.path = path;
+        this.bodyCount = simulation.getBodyStore().size();
+        this.keyframeInterval = keyframeInterval;
+        this.precision = precision;
+        int length = STATE_ARRAYS * bodyCount;
+        this.current = new double[length];
+        this.reference = new double[length];
+        this.predicted = new double[length];
+        this.values = new long[KEYFRAME_ARRAYS * bodyCount];
+        this.base = new long[length];
+        this.keyframeMass = new double[bodyCount];
+        this.keyframeFixed = new boolean[bodyCount];
+
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(bodyCount).putInt(keyframeInterval).putDouble(precision).flip();
+        try {
+            write(header);
+        } catch (IOException e) {
+            release();
+            throw e;
+        }
+    }
+
+    /**
+     * Dopisuje punkt kontrolny z bieżącym stanem symulacji (wywoływać pomiędzy krokami)
+     */
+    public void writeCheckpoint() throws IOException {
+        PersistenceEvent event = SimulationPersistence.beginEvent();
+        long startNanos = System.nanoTime();
+        long startBytes = bytesWritten;
+        BodyStore store = simulation.getBodyStore();
+        if (store.size() != bodyCount) {
+            throw new IllegalStateException("Liczba ciał zmieniła się od otwarcia pliku punktów kontrolnych");
+        }
+        int n = bodyCount;
+        System.arraycopy(store.getXArray(), 0, current, 0, n);
+        System.arraycopy(store.getYArray(), 0, current, n, n);
+        System.arraycopy(store.getVxArray(), 0, current, 2 * n, n);
+        System.arraycopy(store.getVyArray(), 0, current, 3 * n, n);
+        double time = simulation.getSimulationTime();
+
+        int type;
+        int length;
+        if (checkpointCount == 0 || sinceKeyframe >= keyframeInterval || massesChanged(store)) {
+            type = KEYFRAME;
+            for (int k = 0; k < current.length; k++) {
+                values[k] = Double.doubleToRawLongBits(current[k]);
+            }
+            double[] mass = store.getMassArray();
+            boolean[] fixed = store.getFixedArray();
+            for (int i = 0; i < n; i++) {
+                values[4 * n + i] = Double.doubleToRawLongBits(mass[i]);
+                values[5 * n + i] = fixed[i] ? 1 : 0;
+            }
+            System.arraycopy(mass, 0, keyframeMass, 0, n);
+            System.arraycopy(fixed, 0, keyframeFixed, 0, n);
+            length = codec.encode(values, null, KEYFRAME_ARRAYS * n);
+            System.arraycopy(current, 0, reference, 0, current.length);
+            sinceKeyframe = 0;
+        } else {
+            CheckpointCodec.predict(reference, time - referenceTime, n, predicted);
+            if (precision > 0 && quantize()) {
+                type = DELTA_QUANTIZED;
+                length = codec.encode(values, null, current.length);
+            } else {
+                type = DELTA_XOR;
+                for (int k = 0; k < current.length; k++) {
+                    values[k] = Double.doubleToRawLongBits(current[k]);
+                    base[k] = Double.doubleToRawLongBits(predicted[k]);
+                }
+                length = codec.encode(values, base, current.length);
+                System.arraycopy(current, 0, reference, 0, current.length);
+            }
+        }
+        referenceTime = time;
+        sinceKeyframe++;
+
+        entryHeader.clear();
+        entryHeader.putInt(type)
+            .putInt(length)
+            .putLong(simulation.getStepCount())
+            .putDouble(time)
+            .putDouble(simulation.getSpeedMultiplier())
+            .flip();
+        write(entryHeader);
+        write(ByteBuffer.wrap(codec.output(), 0, length));
+        channel.force(false);
+        checkpointCount++;
+        SimulationPersistence.recordOperation(MetricsRegistry.Operation.CHECKPOINT, event, startNanos, path.toString(),
+            bytesWritten - startBytes);
+    }
+
+    /**
+     * Czy masy lub nieruchomość zmieniły się od ostatniej klatki kluczowej
+     */
+    private boolean massesChanged(BodyStore store) {
+        return !Arrays.equals(store.getMassArray(), 0, bodyCount, keyframeMass, 0, bodyCount)
+            || !Arrays.equals(store.getFixedArray(), 0, bodyCount, keyframeFixed, 0, bodyCount);
+    }
+
+    /**
+     * Kwantuje różnice względem przewidywania; false, jeśli któraś nie mieści się w zakresie
+     * (np. po dużej zmianie stanu) - wtedy wpis jest zapisywany bezstratnie
+     */
+    private boolean quantize() {
+        for (int k = 0; k < current.length; k++) {
+            double q = Math.rint((current[k] - predicted[k]) / precision);
+            if (!(Math.abs(q) < CheckpointCodec.MAX_QUANTIZED)) {
+                return false;
+            }
+            values[k] = CheckpointCodec.zigZag((long) q);
+        }
+        for (int k = 0; k < current.length; k++) {
+            reference[k] = predicted[k] + CheckpointCodec.unZigZag(values[k]) * precision;
+        }
+        return true;
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+    }
+
+    public long getCheckpointCount() {
+        return checkpointCount;
+    }
+
+    public double getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Rozmiar pliku w bajtach (do porównania z pełnymi zapisami)
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        release();
+    }
+
+    /**
+     * Zamyka plik i zwalnia pamięć kodera (także po błędzie w konstruktorze)
+     */
+    private void release() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            codec.end();
+        }
+    }
+}
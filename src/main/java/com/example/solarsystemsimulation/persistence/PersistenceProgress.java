@@ -0,0 +1,12 @@
+package com.example.solarsystemsimulation.persistence;
+
+/**
+ * Postęp zapisu lub odczytu pliku - wywoływany na wątku wejścia-wyjścia, najwyżej kilkadziesiąt
+ * razy na sekundę i zawsze po zakończeniu (bytesDone == totalBytes)
+ */
+@FunctionalInterface
+public interface PersistenceProgress {
+    PersistenceProgress NONE = (bytesDone, totalBytes, bytesPerSecond) -> { };
+
+    void onProgress(long bytesDone, long totalBytes, double bytesPerSecond);
+}
@@ -0,0 +1,50 @@
+package com.example.solarsystemsimulation.persistence;
+
+/**
+ * Zlicza przesłane bajty i przekazuje postęp wraz z przepustowością, nie częściej niż co
+ * {@link #REPORT_INTERVAL_NANOS}
+ */
+final class ProgressTracker {
+    static final long REPORT_INTERVAL_NANOS = 50_000_000L;
+
+    private final PersistenceProgress listener;
+    private final long totalBytes;
+    private final long startNanos = System.nanoTime();
+    private long bytesDone;
+    private long lastReportNanos = startNanos;
+
+    ProgressTracker(PersistenceProgress listener, long totalBytes) {
+        this.listener = listener;
+        this.totalBytes = totalBytes;
+    }
+
+    void advance(long bytes) {
+        bytesDone += bytes;
+        long now = System.nanoTime();
+        if (now - lastReportNanos >= REPORT_INTERVAL_NANOS) {
+            lastReportNanos = now;
+            listener.onProgress(bytesDone, totalBytes, getBytesPerSecond());
+        }
+    }
+
+    /**
+     * Kończy przesyłanie i zgłasza końcowy postęp
+     */
+    void finish() {
+        bytesDone = totalBytes;
+        listener.onProgress(bytesDone, totalBytes, getBytesPerSecond());
+    }
+
+    long getBytesDone() {
+        return bytesDone;
+    }
+
+    double getSeconds() {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    double getBytesPerSecond() {
+        double seconds = getSeconds();
+        return seconds > 0 ? bytesDone / seconds : 0;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.solarsystemsimulation.persistence;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import com.example.solarsystemsimulation.model.CelestialBody;
+import com.example.solarsystemsimulation.simulation.Simulation;
+import java.util.List;
+
+/**
+ * Niezależna od symulacji kopia jej stanu (tablice x, y, vx, vy, ax, ay, masy, nieruchomość
+ * oraz parametry). Stany ze starszych plików nie mają mas - wtedy zostają masy symulacji.
+ *
+ * Kopia jest robiona szybko, pomiędzy krokami ({@link #capture}), a zapis do pliku może potem
+ * trwać na innym wątku. Przy wczytywaniu plik jest najpierw czytany do kopii, a dopiero
+ * gotowa kopia jest wpisywana do symulacji ({@link #applyTo}) - w jednym kroku wątku symulacji.
+ */
+public final class SavedState {
+    static final int ARRAY_COUNT = 6;
+
+    private final double[][] arrays; // x, y, vx, vy, ax, ay
+    private final double[] mass; // null = stan bez mas
+    private final boolean[] fixed;
+    private final int bodyCount;
+    private final double speedMultiplier;
+    private final double simulationTime;
+    private final long stepCount;
+
+    SavedState(double[][] arrays, int bodyCount, double speedMultiplier, double simulationTime, long stepCount) {
+        this(arrays, null, null, bodyCount, speedMultiplier, simulationTime, stepCount);
+    }
+
+    SavedState(double[][] arrays, double[] mass, boolean[] fixed, int bodyCount, double speedMultiplier,
+               double simulationTime, long stepCount) {
+        this.arrays = arrays;
+        this.mass = mass;
+        this.fixed = fixed;
+        this.bodyCount = bodyCount;
+        this.speedMultiplier = speedMultiplier;
+        this.simulationTime = simulationTime;
+        this.stepCount = stepCount;
+    }
+
+    static double[][] allocate(int bodyCount) {
+        return new double[ARRAY_COUNT][bodyCount];
+    }
+
+    /**
+     * Kopiuje bieżący stan symulacji (wywoływać na wątku symulacji)
+     */
+    public static SavedState capture(Simulation simulation) {
+        BodyStore store = simulation.getBodyStore();
+        int n = store.size();
+        double[][] source = storeArrays(store);
+        double[][] arrays = allocate(n);
+        for (int a = 0; a < ARRAY_COUNT; a++) {
+            System.arraycopy(source[a], 0, arrays[a], 0, n);
+        }
+        double[] mass = new double[n];
+        boolean[] fixed = new boolean[n];
+        System.arraycopy(store.getMassArray(), 0, mass, 0, n);
+        System.arraycopy(store.getFixedArray(), 0, fixed, 0, n);
+        return new SavedState(arrays, mass, fixed, n, simulation.getSpeedMultiplier(), simulation.getSimulationTime(),
+            simulation.getStepCount());
+    }
+
+    /**
+     * Przepisuje stan z Memento (pliki zapisane dawną serializacją)
+     */
+    static SavedState fromMemento(Simulation.SimulationMemento memento) {
+        List<CelestialBody.CelestialBodyMemento> bodies = memento.getBodyMementos();
+        int n = bodies.size();
+        double[][] arrays = allocate(n);
+        for (int i = 0; i < n; i++) {
+            CelestialBody.CelestialBodyMemento body = bodies.get(i);
+            arrays[0][i] = body.getPosition().getX();
+            arrays[1][i] = body.getPosition().getY();
+            arrays[2][i] = body.getVelocity().getX();
+            arrays[3][i] = body.getVelocity().getY();
+            arrays[4][i] = body.getAcceleration().getX();
+            arrays[5][i] = body.getAcceleration().getY();
+        }
+        return new SavedState(arrays, n, memento.getSpeedMultiplier(), memento.getSimulationTime(),
+            memento.getStepCount());
+    }
+
+    /**
+     * Wpisuje stan do symulacji (wywoływać na wątku symulacji); jak w Memento przywracane są
+     * ciała istniejące w obu stanach
+     */
+    public void applyTo(Simulation simulation) {
+        BodyStore store = simulation.getBodyStore();
+        int n = Math.min(bodyCount, store.size());
+        double[][] target = storeArrays(store);
+        for (int a = 0; a < ARRAY_COUNT; a++) {
+            System.arraycopy(arrays[a], 0, target[a], 0, n);
+        }
+        simulation.restoreState(speedMultiplier, simulationTime, stepCount);
+        if (mass != null) {
+            simulation.restoreMasses(mass, fixed, n);
+        }
+    }
+
+    static double[][] storeArrays(BodyStore store) {
+        return new double[][] {
+            store.getXArray(), store.getYArray(),
+            store.getVxArray(), store.getVyArray(),
+            store.getAxArray(), store.getAyArray()
+        };
+    }
+
+    double[][] getArrays() {
+        return arrays;
+    }
+
+    /**
+     * Masy ciał lub null (stan ze starszego pliku)
+     */
+    double[] getMass() {
+        return mass;
+    }
+
+    boolean[] getFixed() {
+        return fixed;
+    }
+
+    public int getBodyCount() {
+        return bodyCount;
+    }
+
+    public double getSpeedMultiplier() {
+        return speedMultiplier;
+    }
+
+    public double getSimulationTime() {
+        return simulationTime;
+    }
+
+    public long getStepCount() {
+        return stepCount;
+    }
+}
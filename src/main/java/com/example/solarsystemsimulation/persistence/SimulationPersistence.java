@@ -1,30 +1,165 @@
 package com.example.solarsystemsimulation.persistence;
 
+import com.example.solarsystemsimulation.metrics.MetricsRegistry;
+import com.example.solarsystemsimulation.metrics.PersistenceEvent;
 import com.example.solarsystemsimulation.simulation.Simulation;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import jdk.jfr.EventType;
 
 /**
- * Klasa do zapisywania i wczytywania stanu symulacji (wzorzec Memento)
+ * Klasa do zapisywania i wczytywania stanu symulacji (wzorzec Memento).
+ *
+ * Stan jest zapisywany w binarnym formacie {@link BinarySimulationFormat}; pliki zapisane
+ * wcześniej przez serializację Javy są rozpoznawane i nadal wczytywane. Dla długich przebiegów
+ * dostępne są przyrostowe punkty kontrolne ({@link CheckpointWriter}, {@link CheckpointReader}).
+ * Czasy operacji trafiają do {@link MetricsRegistry#global()} i zdarzeń JFR {@link PersistenceEvent}.
  */
 public class SimulationPersistence {
-    
+    // Pierwsze bajty strumienia ObjectOutputStream (STREAM_MAGIC)
+    private static final int SERIALIZATION_MAGIC = 0xACED;
+    // Zdarzenie JFR tworzone tylko, gdy nagrywanie je obejmuje
+    private static final EventType PERSISTENCE_EVENT = EventType.getEventType(PersistenceEvent.class);
+
     /**
      * Zapisuje stan symulacji do pliku
      */
     public static void saveSimulation(Simulation simulation, String filePath) throws IOException {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filePath))) {
-            Simulation.SimulationMemento memento = simulation.saveToMemento();
-            oos.writeObject(memento);
-        }
+        PersistenceEvent event = beginEvent();
+        long startNanos = System.nanoTime();
+        BinarySimulationFormat.write(simulation, Path.of(filePath));
+        recordOperation(MetricsRegistry.Operation.SAVE, event, startNanos, filePath, Files.size(Path.of(filePath)));
     }
     
     /**
-     * Wczytuje stan symulacji z pliku
+     * Wczytuje stan symulacji z pliku (format binarny lub dawna serializacja)
      */
     public static void loadSimulation(Simulation simulation, String filePath) throws IOException, ClassNotFoundException {
+        PersistenceEvent event = beginEvent();
+        long startNanos = System.nanoTime();
+        Path path = Path.of(filePath);
+        if (isLegacyFile(path)) {
+            loadLegacySimulation(simulation, filePath);
+        } else {
+            BinarySimulationFormat.read(simulation, path);
+        }
+        recordOperation(MetricsRegistry.Operation.LOAD, event, startNanos, filePath, Files.size(path));
+    }
+
+    /**
+     * Wczytuje plik zapisany przez ObjectOutputStream (format sprzed wersji binarnej)
+     */
+    public static void loadLegacySimulation(Simulation simulation, String filePath) throws IOException, ClassNotFoundException {
+        simulation.restoreFromMemento(readLegacyMemento(filePath));
+    }
+
+    /**
+     * Wczytuje plik do kopii stanu bez zmieniania symulacji (np. na wątku wejścia-wyjścia);
+     * kopię wpisuje się potem przez {@link SavedState#applyTo} pomiędzy krokami
+     */
+    public static SavedState readState(String filePath, PersistenceProgress progress)
+            throws IOException, ClassNotFoundException {
+        PersistenceEvent event = beginEvent();
+        long startNanos = System.nanoTime();
+        Path path = Path.of(filePath);
+        SavedState state;
+        if (isLegacyFile(path)) {
+            state = SavedState.fromMemento(readLegacyMemento(filePath));
+            long size = Files.size(path);
+            progress.onProgress(size, size, 0);
+        } else {
+            state = BinarySimulationFormat.read(path, progress);
+        }
+        recordOperation(MetricsRegistry.Operation.LOAD, event, startNanos, filePath, Files.size(path));
+        return state;
+    }
+
+    /**
+     * Zapisuje wcześniej wykonaną kopię stanu (może działać na dowolnym wątku)
+     */
+    public static void writeState(SavedState state, String filePath, PersistenceProgress progress)
+            throws IOException {
+        PersistenceEvent event = beginEvent();
+        long startNanos = System.nanoTime();
+        long size = BinarySimulationFormat.fileSize(state);
+        BinarySimulationFormat.write(state, Path.of(filePath), new ProgressTracker(progress, size));
+        recordOperation(MetricsRegistry.Operation.SAVE, event, startNanos, filePath, size);
+    }
+
+    private static Simulation.SimulationMemento readLegacyMemento(String filePath)
+            throws IOException, ClassNotFoundException {
         try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filePath))) {
-            Simulation.SimulationMemento memento = (Simulation.SimulationMemento) ois.readObject();
-            simulation.restoreFromMemento(memento);
+            return (Simulation.SimulationMemento) ois.readObject();
+        }
+    }
+
+    /**
+     * Otwiera plik przyrostowych punktów kontrolnych: co keyframeInterval punktów pełny stan,
+     * pomiędzy nimi skompresowane różnice (bezstratne przy precision = 0, kwantowane przy precision &gt; 0)
+     */
+    public static CheckpointWriter openCheckpoints(Simulation simulation, String filePath,
+                                                   int keyframeInterval, double precision) throws IOException {
+        return new CheckpointWriter(simulation, Path.of(filePath), keyframeInterval, precision);
+    }
+
+    /**
+     * Wczytuje punkt kontrolny o podanym numerze (-1 = ostatni) i zwraca jego numer
+     */
+    public static int loadCheckpoint(Simulation simulation, String filePath, int index) throws IOException {
+        PersistenceEvent event = beginEvent();
+        long startNanos = System.nanoTime();
+        try (CheckpointReader reader = new CheckpointReader(Path.of(filePath))) {
+            int checkpoint = index < 0 ? reader.getCheckpointCount() - 1 : index;
+            if (checkpoint < 0) {
+                throw new IOException("Plik nie zawiera punktów kontrolnych: " + filePath);
+            }
+            reader.restore(simulation, checkpoint);
+            recordOperation(MetricsRegistry.Operation.CHECKPOINT_LOAD, event, startNanos, filePath,
+                Files.size(Path.of(filePath)));
+            return checkpoint;
+        }
+    }
+
+    /**
+     * Rozpoczęte zdarzenie JFR operacji albo null, gdy nagrywanie go nie obejmuje
+     */
+    static PersistenceEvent beginEvent() {
+        if (!PERSISTENCE_EVENT.isEnabled()) {
+            return null;
+        }
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Zapisuje czas zakończonej operacji w rejestrze metryk i zdarzeniu JFR (event może być null)
+     */
+    static void recordOperation(MetricsRegistry.Operation operation, PersistenceEvent event, long startNanos,
+                                String filePath, long bytes) {
+        MetricsRegistry.global().recordPersistence(operation, System.nanoTime() - startNanos);
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation.getLabel();
+            event.path = filePath;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    private static boolean isLegacyFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer prefix = ByteBuffer.allocate(2).order(ByteOrder.BIG_ENDIAN);
+            channel.read(prefix);
+            return prefix.position() == 2 && (prefix.getShort(0) & 0xFFFF) == SERIALIZATION_MAGIC;
         }
     }
     
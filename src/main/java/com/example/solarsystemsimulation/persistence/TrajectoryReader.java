@@ -0,0 +1,170 @@
+package com.example.solarsystemsimulation.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Odczyt pliku trajektorii zapisanego przez {@link TrajectoryRecorder} - także w trakcie
+ * zapisu, z innego procesu. Dostęp do dowolnego rekordu w czasie O(1).
+ *
+ * Uruchomienie jako narzędzie: {@code TrajectoryReader PLIK [KROK]} wypisuje nagłówek
+ * albo stan ciał w danym kroku w formacie CSV.
+ */
+public class TrajectoryReader implements Closeable {
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final int bodyCount;
+    private final int recordInterval;
+    private final double timeStep;
+    private final long recordBytes;
+    private final ByteBuffer recordBuffer;
+
+    public TrajectoryReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        if (channel.size() < TrajectoryRecorder.HEADER_BYTES) {
+            channel.close();
+            throw new IOException("To nie jest plik trajektorii: " + path);
+        }
+        this.header = channel.map(FileChannel.MapMode.READ_ONLY, 0, TrajectoryRecorder.HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt(0) != TrajectoryRecorder.MAGIC || header.getInt(4) != TrajectoryRecorder.VERSION) {
+            channel.close();
+            throw new IOException("Nieobsługiwany plik trajektorii: " + path);
+        }
+        this.bodyCount = header.getInt(8);
+        this.recordInterval = header.getInt(12);
+        this.timeStep = header.getDouble(32);
+        this.recordBytes = TrajectoryRecorder.recordBytes(bodyCount);
+        this.recordBuffer = ByteBuffer.allocateDirect((int) recordBytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public int getBodyCount() {
+        return bodyCount;
+    }
+
+    public int getRecordInterval() {
+        return recordInterval;
+    }
+
+    public double getTimeStep() {
+        return timeStep;
+    }
+
+    /**
+     * Liczba kompletnych rekordów - rośnie, jeśli symulacja wciąż zapisuje
+     */
+    public long getRecordCount() {
+        return (long) TrajectoryRecorder.LONG_VIEW.getAcquire(header, TrajectoryRecorder.RECORD_COUNT_OFFSET);
+    }
+
+    /**
+     * Krok pierwszego rekordu lub -1, jeśli plik nie ma jeszcze rekordów
+     */
+    public long getFirstStep() {
+        return header.getLong(TrajectoryRecorder.FIRST_STEP_OFFSET);
+    }
+
+    /**
+     * Indeks rekordu dla kroku symulacji lub -1, jeśli krok nie został zapisany
+     */
+    public long indexOfStep(long step) {
+        long first = getFirstStep();
+        if (first < 0 || step < first || (step - first) % recordInterval != 0) {
+            return -1;
+        }
+        long index = (step - first) / recordInterval;
+        return index < getRecordCount() ? index : -1;
+    }
+
+    /**
+     * Wczytuje rekord do podanych tablic (co najmniej getBodyCount() elementów)
+     * i zwraca numer kroku rekordu
+     */
+    public long readRecord(long index, double[] x, double[] y, double[] vx, double[] vy) throws IOException {
+        loadRecord(index);
+        DoubleBuffer doubles = recordBuffer.position(2 * Long.BYTES).slice()
+            .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        double[][] arrays = {x, y, vx, vy};
+        for (double[] array : arrays) {
+            doubles.get(array, 0, bodyCount);
+        }
+        return recordBuffer.getLong(0);
+    }
+
+    /**
+     * Czas symulacji w dniach zapisany w rekordzie
+     */
+    public double readTime(long index) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        readAt(buffer, position(index));
+        return buffer.getDouble(Long.BYTES);
+    }
+
+    private void loadRecord(long index) throws IOException {
+        recordBuffer.clear();
+        readAt(recordBuffer, position(index));
+    }
+
+    private long position(long index) {
+        if (index < 0 || index >= getRecordCount()) {
+            throw new IndexOutOfBoundsException("Brak rekordu " + index);
+        }
+        return TrajectoryRecorder.HEADER_BYTES + index * recordBytes;
+    }
+
+    private void readAt(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Nieoczekiwany koniec pliku trajektorii");
+            }
+            position += read;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Użycie: TrajectoryReader PLIK [KROK]");
+            System.exit(2);
+            return;
+        }
+        try (TrajectoryReader reader = new TrajectoryReader(Path.of(args[0]))) {
+            if (args.length == 1) {
+                System.out.printf(Locale.ROOT, "Ciała: %d, zapis co %d kroków (dt = %g dnia), rekordy: %d, pierwszy krok: %d%n",
+                    reader.getBodyCount(), reader.getRecordInterval(), reader.getTimeStep(),
+                    reader.getRecordCount(), reader.getFirstStep());
+                return;
+            }
+            long index = reader.indexOfStep(Long.parseLong(args[1]));
+            if (index < 0) {
+                System.err.println("Krok " + args[1] + " nie został zapisany");
+                System.exit(1);
+                return;
+            }
+            int n = reader.getBodyCount();
+            double[] x = new double[n];
+            double[] y = new double[n];
+            double[] vx = new double[n];
+            double[] vy = new double[n];
+            long step = reader.readRecord(index, x, y, vx, vy);
+            double time = reader.readTime(index);
+            System.out.println("step,time_days,body,x_au,y_au,vx_au_day,vy_au_day");
+            for (int i = 0; i < n; i++) {
+                System.out.println(step + "," + time + "," + i + "," + x[i] + "," + y[i] + "," + vx[i] + "," + vy[i]);
+            }
+        }
+    }
+}
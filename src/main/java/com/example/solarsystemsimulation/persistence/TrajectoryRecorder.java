@@ -0,0 +1,185 @@
+package com.example.solarsystemsimulation.persistence;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import com.example.solarsystemsimulation.simulation.Simulation;
+import com.example.solarsystemsimulation.simulation.SimulationObserver;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Zapis trajektorii (Observer) - co K kroków dopisuje pozycje i prędkości wszystkich ciał
+ * do pliku mapowanego w pamięci.
+ *
+ * Rekordy mają stały rozmiar, więc rekord dla kroku T leży pod wyliczalnym przesunięciem
+ * ({@link TrajectoryReader}). Licznik rekordów w nagłówku jest zapisywany dopiero po
+ * skopiowaniu danych rekordu, dzięki czemu inny proces może czytać plik w trakcie zapisu.
+ * Zapis to kopiowanie tablic do pamięci - bez fsync i (poza mapowaniem kolejnego segmentu)
+ * bez wywołań systemowych w kroku.
+ *
+ * Układ pliku (little-endian):
+ * <pre>
+ *   nagłówek (64 B): int magic "STRJ", int wersja, int liczba ciał N, int co ile kroków K,
+ *                    long krok pierwszego rekordu, long liczba rekordów, double krok czasowy
+ *   rekord:          long krok, double czas [dni], double[N] x, y, vx, vy
+ * </pre>
+ * Plik jest powiększany segmentami (rosnącymi geometrycznie), więc za ostatnim rekordem może
+ * być nieużywane miejsce; rozstrzyga licznik rekordów z nagłówka.
+ */
+public final class TrajectoryRecorder implements SimulationObserver, Closeable {
+    static final int MAGIC = 0x5354524A; // "STRJ"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int RECORD_COUNT_OFFSET = 24;
+    static final int FIRST_STEP_OFFSET = 16;
+
+    // Zapis z semantyką release - czytelnik widzący nowy licznik widzi też dane rekordu
+    static final VarHandle LONG_VIEW =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    // Segmenty rosną geometrycznie od 1 MiB do 64 MiB
+    private static final long MIN_SEGMENT_BYTES = 1L << 20;
+    private static final long MAX_SEGMENT_BYTES = 64L << 20;
+
+    private final Simulation simulation;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final int bodyCount;
+    private final int recordInterval;
+    private final long recordBytes;
+    private final long minSegmentRecords;
+    private final long maxSegmentRecords;
+    private MappedByteBuffer segment;
+    private long segmentRecords;
+    private long segmentFirstRecord = -1;
+    private long recordCount;
+    private boolean closed;
+
+    /**
+     * Tworzy plik trajektorii dla bieżących ciał symulacji; rekordy powstają w krokach
+     * podzielnych przez recordInterval (także od razu, jeśli bieżący krok jest podzielny)
+     */
+    public TrajectoryRecorder(Simulation simulation, Path path, int recordInterval) throws IOException {
+        if (recordInterval < 1) {
+            throw new IllegalArgumentException("Odstęp zapisu musi być dodatni: " + recordInterval);
+        }
+        this.simulation = simulation;
+        this.bodyCount = simulation.getBodyStore().size();
+        this.recordInterval = recordInterval;
+        this.recordBytes = recordBytes(bodyCount);
+        this.maxSegmentRecords = Math.max(1, Math.min(Integer.MAX_VALUE, MAX_SEGMENT_BYTES) / recordBytes);
+        this.minSegmentRecords = Math.max(1, Math.min(maxSegmentRecords, MIN_SEGMENT_BYTES / recordBytes));
+
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, bodyCount);
+        header.putInt(12, recordInterval);
+        header.putLong(FIRST_STEP_OFFSET, -1);
+        header.putLong(RECORD_COUNT_OFFSET, 0);
+        header.putDouble(32, simulation.getTimeStep());
+
+        if (simulation.getStepCount() % recordInterval == 0) {
+            record();
+        }
+    }
+
+    static long recordBytes(int bodyCount) {
+        return 2L * Long.BYTES + 4L * Double.BYTES * bodyCount;
+    }
+
+    @Override
+    public void onSimulationUpdate() {
+        if (!closed && simulation.getStepCount() % recordInterval == 0) {
+            record();
+        }
+    }
+
+    @Override
+    public void onSimulationStarted() {
+    }
+
+    @Override
+    public void onSimulationStopped() {
+    }
+
+    @Override
+    public void onSimulationReset() {
+    }
+
+    /**
+     * Dopisuje rekord z bieżącym stanem niezależnie od numeru kroku
+     */
+    public void record() {
+        try {
+            long index = recordCount;
+            if (segment == null || index >= segmentFirstRecord + segmentRecords) {
+                mapSegment(index);
+            }
+            int offset = (int) ((index - segmentFirstRecord) * recordBytes);
+            BodyStore store = simulation.getBodyStore();
+            int n = Math.min(bodyCount, store.size());
+
+            segment.putLong(offset, simulation.getStepCount());
+            segment.putDouble(offset + Long.BYTES, simulation.getSimulationTime());
+            DoubleBuffer doubles = segment.slice(offset + 2 * Long.BYTES, (int) recordBytes - 2 * Long.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            double[][] arrays = {store.getXArray(), store.getYArray(), store.getVxArray(), store.getVyArray()};
+            for (int a = 0; a < arrays.length; a++) {
+                doubles.position(a * bodyCount);
+                doubles.put(arrays[a], 0, n);
+            }
+
+            if (index == 0) {
+                header.putLong(FIRST_STEP_OFFSET, simulation.getStepCount());
+            }
+            recordCount = index + 1;
+            LONG_VIEW.setRelease(header, RECORD_COUNT_OFFSET, recordCount);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nie udało się powiększyć pliku trajektorii", e);
+        }
+    }
+
+    private void mapSegment(long firstRecord) throws IOException {
+        long position = HEADER_BYTES + firstRecord * recordBytes;
+        segmentRecords = Math.max(minSegmentRecords, Math.min(maxSegmentRecords, firstRecord));
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, position, segmentRecords * recordBytes);
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        segmentFirstRecord = firstRecord;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public int getRecordInterval() {
+        return recordInterval;
+    }
+
+    /**
+     * Kończy zapis; dane trafiają na dysk (force), a plik pozostaje czytelny
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (segment != null) {
+            segment.force();
+        }
+        header.force();
+        channel.close();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.solarsystemsimulation.physics;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+
+/**
+ * Grawitacja Newtona liczona na tablicach prymitywów (bez alokacji w trakcie kroku).
+ * Daje te same wzory co {@link NewtonianPhysics}, a interfejs obiektowy dziedziczy bez zmian.
+ */
+public class ArrayNewtonianPhysics extends NewtonianPhysics implements ArrayPhysicsStrategy {
+
+    @Override
+    public void computeAccelerations(BodyStore store, int from, int to) {
+        int n = store.size();
+        double[] x = store.getXArray();
+        double[] y = store.getYArray();
+        double[] ax = store.getAxArray();
+        double[] ay = store.getAyArray();
+        double[] mass = store.getMassArray();
+        boolean[] fixed = store.getFixedArray();
+
+        for (int i = from; i < to; i++) {
+            if (fixed[i]) {
+                continue; // Słońce nie porusza się
+            }
+            double xi = x[i];
+            double yi = y[i];
+            double sumX = 0;
+            double sumY = 0;
+
+            for (int j = 0; j < n; j++) {
+                if (j == i) {
+                    continue;
+                }
+                double dx = x[j] - xi;
+                double dy = y[j] - yi;
+                double distanceSquared = dx * dx + dy * dy;
+
+                // Unikamy dzielenia przez zero dla bardzo bliskich obiektów
+                if (distanceSquared < 1e-10) {
+                    continue;
+                }
+
+                // a = G * m2 / r² w kierunku (dx, dy) / r
+                double distance = Math.sqrt(distanceSquared);
+                double accelerationMagnitude = G * mass[j] / distanceSquared;
+                sumX += dx / distance * accelerationMagnitude;
+                sumY += dy / distance * accelerationMagnitude;
+            }
+
+            ax[i] = sumX;
+            ay[i] = sumY;
+        }
+    }
+
+    @Override
+    public void integrate(BodyStore store, double deltaTime, int from, int to) {
+        double[] x = store.getXArray();
+        double[] y = store.getYArray();
+        double[] vx = store.getVxArray();
+        double[] vy = store.getVyArray();
+        double[] ax = store.getAxArray();
+        double[] ay = store.getAyArray();
+        boolean[] fixed = store.getFixedArray();
+        double halfDtSquared = 0.5 * deltaTime * deltaTime;
+
+        for (int i = from; i < to; i++) {
+            if (fixed[i]) {
+                continue;
+            }
+            // Te same wzory co NewtonianPhysics.updateBody
+            x[i] += vx[i] * deltaTime + ax[i] * halfDtSquared;
+            y[i] += vy[i] * deltaTime + ay[i] * halfDtSquared;
+            vx[i] += ax[i] * deltaTime;
+            vy[i] += ay[i] * deltaTime;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.solarsystemsimulation.physics;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+
+/**
+ * Wariant wzorca Strategy liczący cały krok fizyki bezpośrednio na tablicach {@link BodyStore},
+ * bez tworzenia obiektów {@link Vector2D}.
+ *
+ * Metody zakresowe liczą tylko ciała o indeksach [from, to) i mogą być wywoływane
+ * równolegle dla rozłącznych zakresów (po jednym wywołaniu {@link #prepareAccelerations}).
+ */
+public interface ArrayPhysicsStrategy extends PhysicsStrategy {
+    /**
+     * Przygotowanie wspólnych danych przed fazą przyspieszeń (np. budowa drzewa)
+     */
+    default void prepareAccelerations(BodyStore store) {
+    }
+
+    /**
+     * Oblicza przyspieszenia ruchomych ciał z zakresu [from, to)
+     */
+    void computeAccelerations(BodyStore store, int from, int to);
+
+    /**
+     * Aktualizuje pozycje i prędkości ruchomych ciał z zakresu [from, to)
+     */
+    void integrate(BodyStore store, double deltaTime, int from, int to);
+
+    /**
+     * Oblicza przyspieszenia wszystkich ruchomych ciał i zapisuje je w magazynie
+     */
+    default void computeAccelerations(BodyStore store) {
+        prepareAccelerations(store);
+        computeAccelerations(store, 0, store.size());
+    }
+
+    /**
+     * Oblicza przyspieszenia tylko wybranych ciał (indices[0..count)) - dla kroków blokowych,
+     * w których siły liczone są wyłącznie dla ciał aktywnych
+     */
+    default void computeAccelerations(BodyStore store, int[] indices, int count) {
+        prepareAccelerations(store);
+        for (int k = 0; k < count; k++) {
+            int i = indices[k];
+            computeAccelerations(store, i, i + 1);
+        }
+    }
+
+    /**
+     * Aktualizuje pozycje i prędkości wszystkich ruchomych ciał
+     */
+    default void integrate(BodyStore store, double deltaTime) {
+        integrate(store, deltaTime, 0, store.size());
+    }
+}
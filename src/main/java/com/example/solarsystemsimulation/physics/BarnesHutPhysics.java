@@ -0,0 +1,329 @@
+package com.example.solarsystemsimulation.physics;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import com.example.solarsystemsimulation.model.CelestialBody;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Strategia grawitacji Barnesa-Huta - drzewo czwórkowe budowane raz na krok,
+ * przyspieszenia liczone w O(N log N).
+ *
+ * Węzły drzewa trzymane są w tablicach (pula węzłów), które są używane ponownie
+ * w kolejnych krokach - budowa drzewa nie tworzy nowych obiektów.
+ */
+public class BarnesHutPhysics extends ArrayNewtonianPhysics {
+    public static final double DEFAULT_THETA = 0.5;
+
+    // Ograniczenie głębokości chroni przed nieskończonym podziałem dla ciał w tym samym punkcie
+    private static final int MAX_DEPTH = 48;
+    private static final int EMPTY = -1;
+    private static final int INTERNAL = -2;
+
+    private final double theta;
+    private final double thetaSquared;
+
+    // Pula węzłów: 4 dzieci na węzeł, geometria komórki i zsumowana masa
+    private int[] children = new int[0];
+    private int[] leafBody = new int[0]; // indeks ciała, EMPTY lub INTERNAL
+    private double[] cellX = new double[0];
+    private double[] cellY = new double[0];
+    private double[] halfSize = new double[0];
+    private double[] nodeMass = new double[0];
+    private double[] comX = new double[0]; // środek masy (w trakcie budowy: suma m*x)
+    private double[] comY = new double[0];
+    private boolean[] aggregated = new boolean[0]; // liść na MAX_DEPTH z kilkoma ciałami
+    private int nodeCount;
+
+    // Stos przejścia drzewa - osobny dla każdego wątku liczącego zakresy
+    private final ThreadLocal<TraversalScratch> traversalScratch =
+        ThreadLocal.withInitial(TraversalScratch::new);
+
+    // Kopia pozycji dla interfejsu obiektowego (drzewo budowane raz na listę ciał)
+    private List<CelestialBody> treeSource;
+    private double[] sourceX = new double[0];
+    private double[] sourceY = new double[0];
+    private double[] sourceMass = new double[0];
+
+    public BarnesHutPhysics() {
+        this(DEFAULT_THETA);
+    }
+
+    /**
+     * @param theta kąt otwarcia - komórka o rozmiarze s w odległości d jest przybliżana
+     *              swoim środkiem masy gdy s/d < theta (0 = dokładne sumowanie)
+     */
+    public BarnesHutPhysics(double theta) {
+        if (theta < 0) {
+            throw new IllegalArgumentException("Kąt otwarcia nie może być ujemny: " + theta);
+        }
+        this.theta = theta;
+        this.thetaSquared = theta * theta;
+    }
+
+    public double getTheta() {
+        return theta;
+    }
+
+    /**
+     * Buduje drzewo raz na krok - przed równoległym liczeniem zakresów
+     */
+    @Override
+    public void prepareAccelerations(BodyStore store) {
+        buildTree(store.getXArray(), store.getYArray(), store.getMassArray(), store.size());
+    }
+
+    @Override
+    public void computeAccelerations(BodyStore store, int from, int to) {
+        double[] x = store.getXArray();
+        double[] y = store.getYArray();
+        double[] ax = store.getAxArray();
+        double[] ay = store.getAyArray();
+        double[] mass = store.getMassArray();
+        boolean[] fixed = store.getFixedArray();
+        TraversalScratch scratch = traversalScratch.get();
+
+        for (int i = from; i < to; i++) {
+            if (fixed[i]) {
+                continue; // Słońce nie porusza się
+            }
+            evaluate(x[i], y[i], mass[i], scratch);
+            ax[i] = scratch.resultX;
+            ay[i] = scratch.resultY;
+        }
+    }
+
+    /**
+     * Interfejs obiektowy - drzewo jest budowane raz dla danej listy ciał
+     * (Simulation tworzy nową kopię listy w każdym kroku)
+     */
+    @Override
+    public synchronized Vector2D calculateAcceleration(CelestialBody body, List<CelestialBody> allBodies) {
+        if (allBodies != treeSource) {
+            int n = allBodies.size();
+            if (sourceX.length < n) {
+                sourceX = new double[n];
+                sourceY = new double[n];
+                sourceMass = new double[n];
+            }
+            for (int i = 0; i < n; i++) {
+                CelestialBody other = allBodies.get(i);
+                Vector2D position = other.getPosition();
+                sourceX[i] = position.getX();
+                sourceY[i] = position.getY();
+                sourceMass[i] = other.getMass();
+            }
+            buildTree(sourceX, sourceY, sourceMass, n);
+            treeSource = allBodies;
+        }
+
+        Vector2D position = body.getPosition();
+        TraversalScratch scratch = traversalScratch.get();
+        evaluate(position.getX(), position.getY(), body.getMass(), scratch);
+        return new Vector2D(scratch.resultX, scratch.resultY);
+    }
+
+    /**
+     * Buduje drzewo czwórkowe z pierwszych n ciał, używając ponownie puli węzłów
+     */
+    private void buildTree(double[] x, double[] y, double[] mass, int n) {
+        nodeCount = 0;
+        if (n == 0) {
+            return;
+        }
+
+        // Kwadrat obejmujący wszystkie ciała
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        double half = Math.max(maxX - minX, maxY - minY) * 0.5 + 1e-9;
+
+        ensureNodeCapacity(2 * n + 1);
+        newNode((minX + maxX) * 0.5, (minY + maxY) * 0.5, half);
+
+        for (int i = 0; i < n; i++) {
+            insert(i, x, y, mass);
+        }
+
+        // Zamiana sum m*x na środki masy
+        for (int node = 0; node < nodeCount; node++) {
+            if (nodeMass[node] > 0) {
+                comX[node] /= nodeMass[node];
+                comY[node] /= nodeMass[node];
+            } else {
+                comX[node] = cellX[node];
+                comY[node] = cellY[node];
+            }
+        }
+    }
+
+    private void insert(int body, double[] x, double[] y, double[] mass) {
+        double bx = x[body];
+        double by = y[body];
+        double bm = mass[body];
+        int node = 0;
+
+        for (int depth = 0; ; depth++) {
+            if (leafBody[node] == EMPTY) {
+                leafBody[node] = body;
+                addMass(node, bx, by, bm);
+                return;
+            }
+
+            if (leafBody[node] >= 0) {
+                if (depth >= MAX_DEPTH) {
+                    // Zbyt głęboko - liść agreguje kilka ciał
+                    aggregated[node] = true;
+                    addMass(node, bx, by, bm);
+                    return;
+                }
+                // Podział liścia: dotychczasowe ciało schodzi poziom niżej
+                int existing = leafBody[node];
+                leafBody[node] = INTERNAL;
+                int child = childFor(node, x[existing], y[existing]);
+                leafBody[child] = existing;
+                addMass(child, x[existing], y[existing], mass[existing]);
+            }
+
+            addMass(node, bx, by, bm);
+            node = childFor(node, bx, by);
+        }
+    }
+
+    /**
+     * Zwraca (tworząc w razie potrzeby) dziecko węzła zawierające punkt
+     */
+    private int childFor(int node, double px, double py) {
+        int quadrant = (px >= cellX[node] ? 1 : 0) + (py >= cellY[node] ? 2 : 0);
+        int child = children[4 * node + quadrant];
+        if (child == EMPTY) {
+            double quarter = halfSize[node] * 0.5;
+            child = newNode(
+                cellX[node] + ((quadrant & 1) != 0 ? quarter : -quarter),
+                cellY[node] + ((quadrant & 2) != 0 ? quarter : -quarter),
+                quarter
+            );
+            children[4 * node + quadrant] = child;
+        }
+        return child;
+    }
+
+    private int newNode(double centerX, double centerY, double half) {
+        if (nodeCount == leafBody.length) {
+            ensureNodeCapacity(nodeCount * 2);
+        }
+        int node = nodeCount++;
+        children[4 * node] = EMPTY;
+        children[4 * node + 1] = EMPTY;
+        children[4 * node + 2] = EMPTY;
+        children[4 * node + 3] = EMPTY;
+        leafBody[node] = EMPTY;
+        aggregated[node] = false;
+        cellX[node] = centerX;
+        cellY[node] = centerY;
+        halfSize[node] = half;
+        nodeMass[node] = 0;
+        comX[node] = 0;
+        comY[node] = 0;
+        return node;
+    }
+
+    private void addMass(int node, double px, double py, double m) {
+        nodeMass[node] += m;
+        comX[node] += m * px;
+        comY[node] += m * py;
+    }
+
+    private void ensureNodeCapacity(int capacity) {
+        if (capacity <= leafBody.length) {
+            return;
+        }
+        children = Arrays.copyOf(children, 4 * capacity);
+        leafBody = Arrays.copyOf(leafBody, capacity);
+        cellX = Arrays.copyOf(cellX, capacity);
+        cellY = Arrays.copyOf(cellY, capacity);
+        halfSize = Arrays.copyOf(halfSize, capacity);
+        nodeMass = Arrays.copyOf(nodeMass, capacity);
+        comX = Arrays.copyOf(comX, capacity);
+        comY = Arrays.copyOf(comY, capacity);
+        aggregated = Arrays.copyOf(aggregated, capacity);
+    }
+
+    /**
+     * Przechodzi drzewo dla ciała o masie selfMass w punkcie (px, py) i zapisuje przyspieszenie
+     * w scratch. Ciało samo siebie pomija tak jak NewtonianPhysics - przez próg odległości 1e-10.
+     * Komórki zawierające punkt są zawsze otwierane (przy theta >= 1/sqrt(2) środek masy
+     * własnej komórki byłby inaczej przyjmowany z masą ciała), a z liścia agregującego kilka
+     * ciał odejmowana jest masa ciała.
+     */
+    private void evaluate(double px, double py, double selfMass, TraversalScratch scratch) {
+        double sumX = 0;
+        double sumY = 0;
+        int[] stack = scratch.stack;
+
+        if (nodeCount > 0) {
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int node = stack[--top];
+                double m = nodeMass[node];
+                if (m == 0) {
+                    continue;
+                }
+                double dx = comX[node] - px;
+                double dy = comY[node] - py;
+                double half = halfSize[node];
+                boolean contains = Math.abs(px - cellX[node]) <= half && Math.abs(py - cellY[node]) <= half;
+                if (contains && aggregated[node]) {
+                    // Środek masy pozostałych ciał liścia
+                    double rest = m - selfMass;
+                    if (rest <= 0) {
+                        continue;
+                    }
+                    dx = (comX[node] * m - px * selfMass) / rest - px;
+                    dy = (comY[node] * m - py * selfMass) / rest - py;
+                    m = rest;
+                }
+                double distanceSquared = dx * dx + dy * dy;
+                double size = 2 * half;
+
+                if (leafBody[node] >= 0 || !contains && size * size < thetaSquared * distanceSquared) {
+                    // Liść lub komórka wystarczająco daleko - przybliżenie środkiem masy
+                    if (distanceSquared < 1e-10) {
+                        continue;
+                    }
+                    double distance = Math.sqrt(distanceSquared);
+                    double accelerationMagnitude = G * m / distanceSquared;
+                    sumX += dx / distance * accelerationMagnitude;
+                    sumY += dy / distance * accelerationMagnitude;
+                } else {
+                    for (int q = 0; q < 4; q++) {
+                        int child = children[4 * node + q];
+                        if (child != EMPTY) {
+                            stack[top++] = child;
+                        }
+                    }
+                }
+            }
+        }
+
+        scratch.resultX = sumX;
+        scratch.resultY = sumY;
+    }
+
+    /**
+     * Bufory jednego wątku przechodzącego drzewo
+     */
+    private static final class TraversalScratch {
+        private final int[] stack = new int[3 * MAX_DEPTH + 4];
+        private double resultX;
+        private double resultY;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.solarsystemsimulation.physics;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+
+/**
+ * Integrator Foresta-Rutha 4. rzędu w postaci pozycyjnej (drift-kick-...-drift).
+ * Trzy liczenia sił na krok; nie wymaga przyspieszeń z poprzedniego kroku.
+ */
+public class ForestRuthIntegrator extends SymplecticIntegrator {
+    private static final double THETA = 1.0 / (2.0 - Math.cbrt(2.0));
+
+    @Override
+    public void step(BodyStore store, double deltaTime, AccelerationEvaluator evaluator) {
+        drift(store, 0.5 * THETA * deltaTime);
+        evaluator.evaluate(store);
+        kick(store, THETA * deltaTime);
+        drift(store, 0.5 * (1 - THETA) * deltaTime);
+        evaluator.evaluate(store);
+        kick(store, (1 - 2 * THETA) * deltaTime);
+        drift(store, 0.5 * (1 - THETA) * deltaTime);
+        evaluator.evaluate(store);
+        kick(store, THETA * deltaTime);
+        drift(store, 0.5 * THETA * deltaTime);
+    }
+
+    @Override
+    public int getOrder() {
+        return 4;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.solarsystemsimulation.physics;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+
+/**
+ * Wzorzec Strategy - metoda całkowania równań ruchu, oddzielona od liczenia sił.
+ * Integrator przesuwa pozycje i prędkości ciał w {@link BodyStore}, a przyspieszenia
+ * zamawia przez {@link AccelerationEvaluator} tyle razy, ile wymaga jego schemat.
+ */
+public interface Integrator {
+
+    /**
+     * Liczy przyspieszenia wszystkich ruchomych ciał dla bieżących pozycji w magazynie
+     */
+    @FunctionalInterface
+    interface AccelerationEvaluator {
+        void evaluate(BodyStore store);
+    }
+
+    /**
+     * Wykonuje jeden krok o długości deltaTime
+     */
+    void step(BodyStore store, double deltaTime, AccelerationEvaluator evaluator);
+
+    /**
+     * Rząd dokładności metody
+     */
+    int getOrder();
+
+    /**
+     * Czy przyspieszenia po kroku odpowiadają końcowym pozycjom i mogą otworzyć następny krok.
+     * Takie integratory wymagają aktualnych przyspieszeń na początku kroku.
+     */
+    default boolean isFirstSameAsLast() {
+        return false;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.solarsystemsimulation.physics;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+
+/**
+ * Leapfrog w wersji kick-drift-kick (prędkościowy Verlet) - 2. rząd, jedno liczenie sił na krok
+ */
+public class LeapfrogIntegrator extends SymplecticIntegrator {
+
+    @Override
+    public void step(BodyStore store, double deltaTime, AccelerationEvaluator evaluator) {
+        double halfStep = 0.5 * deltaTime;
+        kick(store, halfStep);
+        drift(store, deltaTime);
+        evaluator.evaluate(store);
+        kick(store, halfStep);
+    }
+
+    @Override
+    public int getOrder() {
+        return 2;
+    }
+
+    @Override
+    public boolean isFirstSameAsLast() {
+        return true;
+    }
+}
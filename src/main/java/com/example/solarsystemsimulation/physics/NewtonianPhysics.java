@@ -10,7 +10,7 @@ public class NewtonianPhysics implements PhysicsStrategy {
     // Stała grawitacyjna w jednostkach AU³/(M☉·day²)
     // G = 6.67430e-11 m³/(kg·s²)
     // Przekształcone do AU³/(M☉·day²) ≈ 2.95912208286e-4
-    private static final double G = 2.95912208286e-4;
+    static final double G = 2.95912208286e-4;
 
     @Override
     public Vector2D calculateAcceleration(CelestialBody body, List<CelestialBody> allBodies) {
@@ -50,7 +50,8 @@ public class NewtonianPhysics implements PhysicsStrategy {
 
     @Override
     public void updateBody(CelestialBody body, double deltaTime) {
-        // Metoda Verleta (lepsza stabilność numeryczna niż Euler)
+        // Półjawna metoda Eulera z przyspieszeniem z początku kroku (to nie jest Verlet -
+        // metody symplektyczne dostępne są przez Simulation.setIntegrator)
         // v(t+Δt) = v(t) + a(t) * Δt
         Vector2D newVelocity = body.getVelocity().add(
             body.getAcceleration().multiply(deltaTime)
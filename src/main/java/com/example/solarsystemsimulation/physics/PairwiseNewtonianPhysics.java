@@ -0,0 +1,217 @@
+package com.example.solarsystemsimulation.physics;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import com.example.solarsystemsimulation.model.CelestialBody;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Grawitacja Newtona z trzecią zasadą dynamiki - każda para (i, j) jest liczona raz
+ * (jeden pierwiastek i jedno dzielenie), a przyczynki trafiają do obu ciał z przeciwnymi znakami.
+ *
+ * Ciała są dzielone na kafelki po tileSize; para kafelków mieści się w pamięci podręcznej L1/L2.
+ * Pary kafelków są ułożone w rundy metodą "round-robin" tak, że w jednej rundzie każdy kafelek
+ * występuje najwyżej raz - pary z jednej rundy można liczyć równolegle bez synchronizacji,
+ * a wynik nie zależy od liczby wątków.
+ */
+public class PairwiseNewtonianPhysics extends ArrayNewtonianPhysics {
+    public static final int DEFAULT_TILE_SIZE = 256;
+
+    private final int tileSize;
+    // Harmonogram dla scheduledTiles kafelków: pary rundy r to indeksy [roundStart[r], roundStart[r + 1])
+    private int scheduledTiles = -1;
+    private int roundCount;
+    private int[] roundStart = new int[1];
+    private int[] pairA = new int[0];
+    private int[] pairB = new int[0];
+
+    public PairwiseNewtonianPhysics() {
+        this(DEFAULT_TILE_SIZE);
+    }
+
+    public PairwiseNewtonianPhysics(int tileSize) {
+        if (tileSize < 1) {
+            throw new IllegalArgumentException("Rozmiar kafelka musi być dodatni: " + tileSize);
+        }
+        this.tileSize = tileSize;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Liczy wszystkie przyspieszenia sekwencyjnie, runda po rundzie
+     */
+    @Override
+    public void computeAccelerations(BodyStore store) {
+        beginAccelerations(store);
+        for (int round = 0; round < roundCount; round++) {
+            accumulateTilePairs(store, round, 0, getTilePairCount(round));
+        }
+        finishAccelerations(store);
+    }
+
+    /**
+     * Zeruje przyspieszenia i przygotowuje harmonogram rund dla bieżącej liczby ciał
+     */
+    public void beginAccelerations(BodyStore store) {
+        int n = store.size();
+        Arrays.fill(store.getAxArray(), 0, n, 0.0);
+        Arrays.fill(store.getAyArray(), 0, n, 0.0);
+        int tiles = (n + tileSize - 1) / tileSize;
+        if (tiles != scheduledTiles) {
+            buildSchedule(tiles);
+        }
+    }
+
+    public int getRoundCount() {
+        return roundCount;
+    }
+
+    public int getTilePairCount(int round) {
+        return roundStart[round + 1] - roundStart[round];
+    }
+
+    /**
+     * Dodaje przyczynki par kafelków [from, to) z danej rundy. Różne pary jednej rundy
+     * zapisują do rozłącznych kafelków, więc mogą być liczone równolegle.
+     */
+    public void accumulateTilePairs(BodyStore store, int round, int from, int to) {
+        int n = store.size();
+        for (int p = roundStart[round] + from; p < roundStart[round] + to; p++) {
+            int a = pairA[p] * tileSize;
+            int b = pairB[p] * tileSize;
+            accumulateTiles(store.getXArray(), store.getYArray(), store.getMassArray(),
+                store.getAxArray(), store.getAyArray(),
+                a, Math.min(a + tileSize, n), b, Math.min(b + tileSize, n));
+        }
+    }
+
+    /**
+     * Kończy fazę przyspieszeń - ciała nieruchome nie przyspieszają
+     */
+    public void finishAccelerations(BodyStore store) {
+        double[] ax = store.getAxArray();
+        double[] ay = store.getAyArray();
+        boolean[] fixed = store.getFixedArray();
+        for (int i = 0, n = store.size(); i < n; i++) {
+            if (fixed[i]) {
+                ax[i] = 0;
+                ay[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Ścieżka obiektowa - te same rachunki na tablicach skopiowanych z listy
+     */
+    @Override
+    public void calculateAllAccelerations(List<CelestialBody> bodies) {
+        int n = bodies.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] mass = new double[n];
+        double[] ax = new double[n];
+        double[] ay = new double[n];
+        for (int i = 0; i < n; i++) {
+            Vector2D position = bodies.get(i).getPosition();
+            x[i] = position.getX();
+            y[i] = position.getY();
+            mass[i] = bodies.get(i).getMass();
+        }
+
+        for (int a = 0; a < n; a += tileSize) {
+            for (int b = a; b < n; b += tileSize) {
+                accumulateTiles(x, y, mass, ax, ay, a, Math.min(a + tileSize, n), b, Math.min(b + tileSize, n));
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            CelestialBody body = bodies.get(i);
+            if (!body.isFixed()) {
+                body.setAcceleration(new Vector2D(ax[i], ay[i]));
+            }
+        }
+    }
+
+    /**
+     * Para kafelków [aFrom, aTo) x [bFrom, bTo); dla kafelka z samym sobą tylko pary i < j
+     */
+    private static void accumulateTiles(double[] x, double[] y, double[] mass, double[] ax, double[] ay,
+                                        int aFrom, int aTo, int bFrom, int bTo) {
+        boolean sameTile = aFrom == bFrom;
+        for (int i = aFrom; i < aTo; i++) {
+            double xi = x[i];
+            double yi = y[i];
+            double massI = mass[i];
+            double sumX = 0;
+            double sumY = 0;
+
+            for (int j = sameTile ? i + 1 : bFrom; j < bTo; j++) {
+                double dx = x[j] - xi;
+                double dy = y[j] - yi;
+                double distanceSquared = dx * dx + dy * dy;
+
+                // Unikamy dzielenia przez zero dla bardzo bliskich obiektów
+                if (distanceSquared < 1e-10) {
+                    continue;
+                }
+
+                // G / r³ - wspólne dla obu kierunków
+                double factor = G / (distanceSquared * Math.sqrt(distanceSquared));
+                double towardJ = factor * mass[j];
+                double towardI = factor * massI;
+                sumX += dx * towardJ;
+                sumY += dy * towardJ;
+                ax[j] -= dx * towardI;
+                ay[j] -= dy * towardI;
+            }
+
+            ax[i] += sumX;
+            ay[i] += sumY;
+        }
+    }
+
+    /**
+     * Harmonogram metodą kołową: przy parzystej liczbie kafelków osobna runda par (t, t),
+     * przy nieparzystej kafelek sparowany z "pustym" liczy w tej rundzie parę z samym sobą
+     */
+    private void buildSchedule(int tiles) {
+        int pairCount = tiles * (tiles + 1) / 2;
+        pairA = new int[pairCount];
+        pairB = new int[pairCount];
+        int slots = tiles % 2 == 0 ? tiles : tiles + 1;
+        roundCount = tiles; // parzysta: runda (t, t) + tiles - 1 rund, nieparzysta: tiles rund
+        roundStart = new int[roundCount + 1];
+
+        int p = 0;
+        int round = 0;
+        if (tiles > 0 && tiles % 2 == 0) {
+            for (int t = 0; t < tiles; t++) {
+                pairA[p] = t;
+                pairB[p++] = t;
+            }
+            roundStart[++round] = p;
+        }
+        for (int r = 0; tiles > 0 && r < slots - 1; r++) {
+            p = addPair(r, slots - 1, tiles, p);
+            for (int k = 1; k < slots / 2; k++) {
+                p = addPair((r + k) % (slots - 1), (r - k + slots - 1) % (slots - 1), tiles, p);
+            }
+            roundStart[++round] = p;
+        }
+        scheduledTiles = tiles;
+    }
+
+    private int addPair(int first, int second, int tiles, int p) {
+        if (second == tiles) {
+            second = first; // para z pustym miejscem
+        } else if (first == tiles) {
+            first = second;
+        }
+        pairA[p] = Math.min(first, second);
+        pairB[p] = Math.max(first, second);
+        return p + 1;
+    }
+}
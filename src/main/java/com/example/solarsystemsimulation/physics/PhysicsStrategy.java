@@ -1,6 +1,7 @@
 package com.example.solarsystemsimulation.physics;
 
 import com.example.solarsystemsimulation.model.CelestialBody;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -16,4 +17,18 @@ public interface PhysicsStrategy {
      * Aktualizuje pozycję i prędkość ciała na podstawie przyspieszenia
      */
     void updateBody(CelestialBody body, double deltaTime);
+
+    /**
+     * Oblicza i ustawia przyspieszenia wszystkich ruchomych ciał naraz.
+     * Domyślnie wywołuje {@link #calculateAcceleration} dla każdego ciała; strategie mogą
+     * liczyć każdą parę tylko raz (trzecia zasada dynamiki).
+     */
+    default void calculateAllAccelerations(List<CelestialBody> bodies) {
+        List<CelestialBody> bodiesCopy = new ArrayList<>(bodies);
+        for (CelestialBody body : bodies) {
+            if (!body.isFixed()) { // Słońce (i ciała pochłonięte) nie poruszają się
+                body.setAcceleration(calculateAcceleration(body, bodiesCopy));
+            }
+        }
+    }
 }
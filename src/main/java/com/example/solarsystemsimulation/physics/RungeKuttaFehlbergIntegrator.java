@@ -0,0 +1,171 @@
+package com.example.solarsystemsimulation.physics;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import java.util.Arrays;
+
+/**
+ * Zagnieżdżona metoda Rungego-Kutty-Fehlberga 4(5).
+ *
+ * Każdy krok daje rozwiązanie 4. rzędu oraz oszacowanie błędu (różnica z rozwiązaniem
+ * 5. rzędu), na podstawie którego można dobrać długość kolejnego kroku.
+ * Sześć liczeń sił na krok; bufory etapów są alokowane raz i używane ponownie.
+ */
+public class RungeKuttaFehlbergIntegrator implements Integrator {
+    private static final int STAGES = 6;
+
+    // Tablica Butchera RKF45
+    private static final double[][] A = {
+        {},
+        {1.0 / 4},
+        {3.0 / 32, 9.0 / 32},
+        {1932.0 / 2197, -7200.0 / 2197, 7296.0 / 2197},
+        {439.0 / 216, -8.0, 3680.0 / 513, -845.0 / 4104},
+        {-8.0 / 27, 2.0, -3544.0 / 2565, 1859.0 / 4104, -11.0 / 40}
+    };
+    // Wagi rozwiązania 4. rzędu
+    private static final double[] B4 = {25.0 / 216, 0, 1408.0 / 2565, 2197.0 / 4104, -1.0 / 5, 0};
+    // Różnica wag 5. i 4. rzędu - oszacowanie błędu
+    private static final double[] E = {
+        1.0 / 360, 0, -128.0 / 4275, -2197.0 / 75240, 1.0 / 50, 2.0 / 55
+    };
+
+    // Stan na początku kroku (do odrzucenia kroku)
+    private double[] x0 = new double[0];
+    private double[] y0 = new double[0];
+    private double[] vx0 = new double[0];
+    private double[] vy0 = new double[0];
+    // Pochodne etapów: dx/dt = v, dv/dt = a
+    private final double[][] kxX = new double[STAGES][0];
+    private final double[][] kxY = new double[STAGES][0];
+    private final double[][] kvX = new double[STAGES][0];
+    private final double[][] kvY = new double[STAGES][0];
+
+    /**
+     * Krok o stałej długości (oszacowanie błędu jest pomijane)
+     */
+    @Override
+    public void step(BodyStore store, double deltaTime, AccelerationEvaluator evaluator) {
+        attemptStep(store, deltaTime, 1.0, evaluator);
+    }
+
+    @Override
+    public int getOrder() {
+        return 4;
+    }
+
+    /**
+     * Wykonuje krok i zwraca znormalizowany błąd: wartość ≤ 1 oznacza, że błąd mieści się
+     * w tolerancji (względnej i bezwzględnej). Po odrzuceniu kroku należy wywołać
+     * {@link #rejectStep}, aby przywrócić stan sprzed kroku.
+     */
+    public double attemptStep(BodyStore store, double h, double tolerance,
+                              AccelerationEvaluator evaluator) {
+        int n = store.size();
+        ensureCapacity(n);
+        double[] x = store.getXArray();
+        double[] y = store.getYArray();
+        double[] vx = store.getVxArray();
+        double[] vy = store.getVyArray();
+        boolean[] fixed = store.getFixedArray();
+
+        System.arraycopy(x, 0, x0, 0, n);
+        System.arraycopy(y, 0, y0, 0, n);
+        System.arraycopy(vx, 0, vx0, 0, n);
+        System.arraycopy(vy, 0, vy0, 0, n);
+
+        for (int s = 0; s < STAGES; s++) {
+            double[] a = A[s];
+            // Pozycje i prędkości etapu s
+            for (int i = 0; i < n; i++) {
+                if (fixed[i]) {
+                    continue;
+                }
+                double sx = 0, sy = 0, svx = 0, svy = 0;
+                for (int j = 0; j < s; j++) {
+                    sx += a[j] * kxX[j][i];
+                    sy += a[j] * kxY[j][i];
+                    svx += a[j] * kvX[j][i];
+                    svy += a[j] * kvY[j][i];
+                }
+                x[i] = x0[i] + h * sx;
+                y[i] = y0[i] + h * sy;
+                kxX[s][i] = vx0[i] + h * svx;
+                kxY[s][i] = vy0[i] + h * svy;
+            }
+
+            evaluator.evaluate(store);
+            double[] ax = store.getAxArray();
+            double[] ay = store.getAyArray();
+            for (int i = 0; i < n; i++) {
+                if (!fixed[i]) {
+                    kvX[s][i] = ax[i];
+                    kvY[s][i] = ay[i];
+                }
+            }
+        }
+
+        // Rozwiązanie 4. rzędu i błąd względem 5. rzędu
+        double errorNorm = 0;
+        for (int i = 0; i < n; i++) {
+            if (fixed[i]) {
+                x[i] = x0[i];
+                y[i] = y0[i];
+                continue;
+            }
+            double dx = 0, dy = 0, dvx = 0, dvy = 0;
+            double ex = 0, ey = 0, evx = 0, evy = 0;
+            for (int s = 0; s < STAGES; s++) {
+                dx += B4[s] * kxX[s][i];
+                dy += B4[s] * kxY[s][i];
+                dvx += B4[s] * kvX[s][i];
+                dvy += B4[s] * kvY[s][i];
+                ex += E[s] * kxX[s][i];
+                ey += E[s] * kxY[s][i];
+                evx += E[s] * kvX[s][i];
+                evy += E[s] * kvY[s][i];
+            }
+            x[i] = x0[i] + h * dx;
+            y[i] = y0[i] + h * dy;
+            vx[i] = vx0[i] + h * dvx;
+            vy[i] = vy0[i] + h * dvy;
+
+            errorNorm = Math.max(errorNorm, scaledError(h * ex, x0[i], x[i], tolerance));
+            errorNorm = Math.max(errorNorm, scaledError(h * ey, y0[i], y[i], tolerance));
+            errorNorm = Math.max(errorNorm, scaledError(h * evx, vx0[i], vx[i], tolerance));
+            errorNorm = Math.max(errorNorm, scaledError(h * evy, vy0[i], vy[i], tolerance));
+        }
+        return errorNorm;
+    }
+
+    /**
+     * Przywraca pozycje i prędkości sprzed ostatniego {@link #attemptStep}
+     */
+    public void rejectStep(BodyStore store) {
+        int n = store.size();
+        System.arraycopy(x0, 0, store.getXArray(), 0, n);
+        System.arraycopy(y0, 0, store.getYArray(), 0, n);
+        System.arraycopy(vx0, 0, store.getVxArray(), 0, n);
+        System.arraycopy(vy0, 0, store.getVyArray(), 0, n);
+    }
+
+    private static double scaledError(double error, double before, double after, double tolerance) {
+        double scale = tolerance * (1 + Math.max(Math.abs(before), Math.abs(after)));
+        return Math.abs(error) / scale;
+    }
+
+    private void ensureCapacity(int n) {
+        if (x0.length >= n) {
+            return;
+        }
+        x0 = new double[n];
+        y0 = new double[n];
+        vx0 = new double[n];
+        vy0 = new double[n];
+        for (int s = 0; s < STAGES; s++) {
+            kxX[s] = new double[n];
+            kxY[s] = new double[n];
+            kvX[s] = new double[n];
+            kvY[s] = new double[n];
+        }
+    }
+}
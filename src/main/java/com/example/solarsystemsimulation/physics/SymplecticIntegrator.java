@@ -0,0 +1,45 @@
+package com.example.solarsystemsimulation.physics;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+
+/**
+ * Baza integratorów symplektycznych złożonych z "dryfu" (x += v·dt) i "kopnięcia" (v += a·dt)
+ */
+public abstract class SymplecticIntegrator implements Integrator {
+
+    /**
+     * Dryf - przesunięcie pozycji ruchomych ciał o v·dt
+     */
+    protected static void drift(BodyStore store, double deltaTime) {
+        int n = store.size();
+        double[] x = store.getXArray();
+        double[] y = store.getYArray();
+        double[] vx = store.getVxArray();
+        double[] vy = store.getVyArray();
+        boolean[] fixed = store.getFixedArray();
+        for (int i = 0; i < n; i++) {
+            if (!fixed[i]) {
+                x[i] += vx[i] * deltaTime;
+                y[i] += vy[i] * deltaTime;
+            }
+        }
+    }
+
+    /**
+     * Kopnięcie - zmiana prędkości ruchomych ciał o a·dt
+     */
+    protected static void kick(BodyStore store, double deltaTime) {
+        int n = store.size();
+        double[] vx = store.getVxArray();
+        double[] vy = store.getVyArray();
+        double[] ax = store.getAxArray();
+        double[] ay = store.getAyArray();
+        boolean[] fixed = store.getFixedArray();
+        for (int i = 0; i < n; i++) {
+            if (!fixed[i]) {
+                vx[i] += ax[i] * deltaTime;
+                vy[i] += ay[i] * deltaTime;
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.solarsystemsimulation.physics;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Jądro sumowania bezpośredniego na rejestrach SIMD (jdk.incubator.vector).
+ *
+ * Klasa jest ładowana tylko wtedy, gdy moduł inkubatora jest dostępny - patrz
+ * {@link VectorizedNewtonianPhysics}.
+ */
+final class VectorGravityKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorGravityKernel() {
+    }
+
+    static int laneCount() {
+        return SPECIES.length();
+    }
+
+    /**
+     * Przyspieszenia ruchomych ciał z zakresu [from, to); pary odległe o mniej niż
+     * sqrt(1e-10) (w tym ciało samo ze sobą) są pomijane, tak jak w NewtonianPhysics
+     */
+    static void computeAccelerations(double[] x, double[] y, double[] mass, double[] ax, double[] ay,
+                                     boolean[] fixed, int n, int from, int to, double g) {
+        int upperBound = SPECIES.loopBound(n);
+        DoubleVector zero = DoubleVector.zero(SPECIES);
+
+        for (int i = from; i < to; i++) {
+            if (fixed[i]) {
+                continue;
+            }
+            double xi = x[i];
+            double yi = y[i];
+            DoubleVector sumX = zero;
+            DoubleVector sumY = zero;
+
+            int j = 0;
+            for (; j < upperBound; j += SPECIES.length()) {
+                DoubleVector dx = DoubleVector.fromArray(SPECIES, x, j).sub(xi);
+                DoubleVector dy = DoubleVector.fromArray(SPECIES, y, j).sub(yi);
+                DoubleVector distanceSquared = dx.mul(dx).add(dy.mul(dy));
+                VectorMask<Double> valid = distanceSquared.compare(VectorOperators.GE, 1e-10);
+
+                // G * m / r³ - kierunek daje (dx, dy)
+                DoubleVector factor = DoubleVector.fromArray(SPECIES, mass, j).mul(g)
+                    .div(distanceSquared.mul(distanceSquared.sqrt()));
+                factor = zero.blend(factor, valid);
+                sumX = dx.fma(factor, sumX);
+                sumY = dy.fma(factor, sumY);
+            }
+
+            double accX = sumX.reduceLanes(VectorOperators.ADD);
+            double accY = sumY.reduceLanes(VectorOperators.ADD);
+
+            // Końcówka krótsza niż wektor
+            for (; j < n; j++) {
+                double dx = x[j] - xi;
+                double dy = y[j] - yi;
+                double distanceSquared = dx * dx + dy * dy;
+                if (distanceSquared < 1e-10) {
+                    continue;
+                }
+                double factor = g * mass[j] / (distanceSquared * Math.sqrt(distanceSquared));
+                accX += dx * factor;
+                accY += dy * factor;
+            }
+
+            ax[i] = accX;
+            ay[i] = accY;
+        }
+    }
+}
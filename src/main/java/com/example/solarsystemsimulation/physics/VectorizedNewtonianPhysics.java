@@ -0,0 +1,62 @@
+package com.example.solarsystemsimulation.physics;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+
+/**
+ * Grawitacja Newtona z sumowaniem bezpośrednim na wektorach SIMD (Java Vector API).
+ *
+ * Wymaga uruchomienia z {@code --add-modules jdk.incubator.vector}; bez tego modułu
+ * strategia liczy skalarnie, tak jak {@link ArrayNewtonianPhysics}. Kolejność sumowania
+ * jest inna niż w wersji skalarnej, więc wyniki różnią się na poziomie błędu zaokrągleń.
+ */
+public class VectorizedNewtonianPhysics extends ArrayNewtonianPhysics {
+    private static final boolean VECTOR_API_AVAILABLE = detectVectorApi();
+
+    private final boolean vectorized;
+
+    public VectorizedNewtonianPhysics() {
+        this(true);
+    }
+
+    /**
+     * @param useVectorApi false wymusza ścieżkę skalarną (np. do porównań)
+     */
+    public VectorizedNewtonianPhysics(boolean useVectorApi) {
+        this.vectorized = useVectorApi && VECTOR_API_AVAILABLE;
+    }
+
+    /**
+     * Czy moduł jdk.incubator.vector został dołączony do uruchomionej JVM
+     */
+    public static boolean isVectorApiAvailable() {
+        return VECTOR_API_AVAILABLE;
+    }
+
+    private static boolean detectVectorApi() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector")
+            .map(VectorizedNewtonianPhysics.class.getModule()::canRead)
+            .orElse(false);
+    }
+
+    public boolean isVectorized() {
+        return vectorized;
+    }
+
+    /**
+     * Liczba ciał przetwarzanych naraz (1 dla ścieżki skalarnej)
+     */
+    public int getLaneCount() {
+        return vectorized ? VectorGravityKernel.laneCount() : 1;
+    }
+
+    @Override
+    public void computeAccelerations(BodyStore store, int from, int to) {
+        if (!vectorized) {
+            super.computeAccelerations(store, from, to);
+            return;
+        }
+        VectorGravityKernel.computeAccelerations(store.getXArray(), store.getYArray(),
+            store.getMassArray(), store.getAxArray(), store.getAyArray(), store.getFixedArray(),
+            store.size(), from, to, G);
+    }
+}
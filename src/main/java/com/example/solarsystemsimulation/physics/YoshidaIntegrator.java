@@ -0,0 +1,38 @@
+package com.example.solarsystemsimulation.physics;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+
+/**
+ * Integrator Yoshidy 4. rzędu - złożenie trzech kroków leapfrog (kick-drift-kick)
+ * o długościach w1·dt, w0·dt, w1·dt. Trzy liczenia sił na krok.
+ */
+public class YoshidaIntegrator extends SymplecticIntegrator {
+    private static final double CBRT2 = Math.cbrt(2.0);
+    private static final double W1 = 1.0 / (2.0 - CBRT2);
+    private static final double W0 = -CBRT2 / (2.0 - CBRT2);
+
+    @Override
+    public void step(BodyStore store, double deltaTime, AccelerationEvaluator evaluator) {
+        // Sąsiednie półkopnięcia kolejnych kroków leapfrog łączymy w jedno
+        kick(store, 0.5 * W1 * deltaTime);
+        drift(store, W1 * deltaTime);
+        evaluator.evaluate(store);
+        kick(store, 0.5 * (W1 + W0) * deltaTime);
+        drift(store, W0 * deltaTime);
+        evaluator.evaluate(store);
+        kick(store, 0.5 * (W0 + W1) * deltaTime);
+        drift(store, W1 * deltaTime);
+        evaluator.evaluate(store);
+        kick(store, 0.5 * W1 * deltaTime);
+    }
+
+    @Override
+    public int getOrder() {
+        return 4;
+    }
+
+    @Override
+    public boolean isFirstSameAsLast() {
+        return true;
+    }
+}
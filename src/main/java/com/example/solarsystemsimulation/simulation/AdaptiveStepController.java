@@ -0,0 +1,125 @@
+package com.example.solarsystemsimulation.simulation;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import com.example.solarsystemsimulation.physics.Integrator;
+import com.example.solarsystemsimulation.physics.RungeKuttaFehlbergIntegrator;
+
+/**
+ * Adaptacyjny dobór kroku czasowego na podstawie oszacowania błędu RKF45.
+ *
+ * Każde wywołanie {@link #advance} przesuwa symulację o zadany odcinek czasu, dzieląc go
+ * na tyle kroków, ile wymaga tolerancja - krótkie przy bliskich przelotach, długie
+ * w spokojnych fazach ruchu. Błąd NaN lub nieskończony (np. ciało o współrzędnych NaN)
+ * odrzuca krok jak zbyt duży błąd; jeśli nie znika nawet przy najkrótszym kroku, stanu nie da
+ * się całkować i {@link #advance} zgłasza {@link IllegalStateException}.
+ */
+public class AdaptiveStepController {
+    private static final double SAFETY = 0.9;
+    private static final double MIN_FACTOR = 0.2;
+    private static final double MAX_FACTOR = 5.0;
+
+    private final RungeKuttaFehlbergIntegrator integrator = new RungeKuttaFehlbergIntegrator();
+    private final double tolerance;
+    private final double minStep;
+    private final double maxStep;
+    private double currentStep; // 0 = dobierany przy pierwszym kroku
+    private long acceptedSteps;
+    private long rejectedSteps;
+
+    public AdaptiveStepController(double tolerance) {
+        this(tolerance, 1e-10, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @param tolerance względna i bezwzględna tolerancja błędu na krok
+     * @param minStep   najkrótszy dopuszczalny krok w dniach (taki krok jest zawsze akceptowany)
+     * @param maxStep   najdłuższy dopuszczalny krok w dniach
+     */
+    public AdaptiveStepController(double tolerance, double minStep, double maxStep) {
+        if (!(tolerance > 0) || !(minStep > 0) || !(maxStep >= minStep)) {
+            throw new IllegalArgumentException("Niepoprawne parametry kroku adaptacyjnego");
+        }
+        this.tolerance = tolerance;
+        this.minStep = minStep;
+        this.maxStep = maxStep;
+    }
+
+    /**
+     * Przesuwa stan o odcinek interval, wykonując zaakceptowane kroki RKF45
+     *
+     * @throws IllegalStateException gdy błąd kroku jest nieskończony także przy najkrótszym kroku
+     *                               (stan pozostaje sprzed nieudanego kroku)
+     */
+    public void advance(BodyStore store, double interval, Integrator.AccelerationEvaluator evaluator) {
+        if (currentStep == 0) {
+            currentStep = clamp(interval);
+        }
+
+        double remaining = interval;
+        while (remaining > 0) {
+            boolean truncated = currentStep >= remaining;
+            double h = truncated ? remaining : currentStep;
+            double error = integrator.attemptStep(store, h, tolerance, evaluator);
+
+            if (!(error < Double.POSITIVE_INFINITY)) {
+                integrator.rejectStep(store);
+                rejectedSteps++;
+                if (h <= minStep) {
+                    throw new IllegalStateException("Nieskończony błąd kroku RKF45 (pozycje, prędkości"
+                        + " lub masy ciał nie są skończone)");
+                }
+                currentStep = clamp(h / 2);
+                continue;
+            }
+            if (error <= 1 || h <= minStep) {
+                acceptedSteps++;
+                remaining -= h;
+                double proposed = clamp(h * growthFactor(error));
+                // Krok skrócony do końca odcinka nie zmniejsza kroku bazowego
+                currentStep = truncated ? Math.max(currentStep, proposed) : proposed;
+            } else {
+                integrator.rejectStep(store);
+                rejectedSteps++;
+                currentStep = clamp(h * growthFactor(error));
+            }
+        }
+    }
+
+    private static double growthFactor(double error) {
+        if (error == 0) {
+            return MAX_FACTOR;
+        }
+        double factor = SAFETY * Math.pow(error, -0.2);
+        return Math.max(MIN_FACTOR, Math.min(MAX_FACTOR, factor));
+    }
+
+    private double clamp(double step) {
+        return Math.max(minStep, Math.min(maxStep, step));
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Bieżąca długość kroku w dniach
+     */
+    public double getCurrentStep() {
+        return currentStep;
+    }
+
+    public long getAcceptedSteps() {
+        return acceptedSteps;
+    }
+
+    public long getRejectedSteps() {
+        return rejectedSteps;
+    }
+
+    /**
+     * Zapomina dobrany krok, np. po wczytaniu innego stanu
+     */
+    public void resetStepSize() {
+        currentStep = 0;
+    }
+}
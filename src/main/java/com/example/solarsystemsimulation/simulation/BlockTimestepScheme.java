@@ -0,0 +1,285 @@
+package com.example.solarsystemsimulation.simulation;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import java.util.Arrays;
+
+/**
+ * Hierarchiczne (blokowe) kroki czasowe - każde ciało ma własny poziom k i krok
+ * blockStep / 2^k, więc Merkury nie wymusza małego kroku na Neptunie.
+ *
+ * Schemat to leapfrog kick-drift-kick z krokami indywidualnymi: w każdym podkroku
+ * wszystkie ruchome ciała są przesuwane (przewidywane) o najmniejszy krok, a siły liczone
+ * są tylko dla ciał "aktywnych", którym właśnie kończy się krok. Poziom ciała wynika
+ * z kryterium dt_i = η·|v_i|/|a_i| (dla ciał prawie nieruchomych η·sqrt(|r_i|/|a_i|)).
+ */
+public class BlockTimestepScheme {
+
+    /**
+     * Liczy przyspieszenia wybranych ciał dla bieżących pozycji wszystkich ciał
+     */
+    @FunctionalInterface
+    public interface ActiveAccelerationEvaluator {
+        void evaluate(int[] indices, int count);
+    }
+
+    private final int maxLevel;
+    private final double eta;
+    private int[] level = new int[0];
+    // Ruchome ciała uporządkowane od najgłębszego poziomu - ciała kończące krok w danej
+    // chwili to zawsze początek tej tablicy
+    private int[] order = new int[0];
+    private int[] sortScratch = new int[0];
+    private final int[] levelCount;
+    private final int[] levelNext; // pozycja następnego ciała poziomu przy sortowaniu
+    private int movingCount;
+    private boolean levelsValid;
+    private long forceEvaluations;
+    private long substeps;
+    private long blocks;
+
+    /**
+     * @param maxLevel najgłębszy poziom - najmniejszy krok to blockStep / 2^maxLevel
+     * @param eta      współczynnik dokładności kryterium kroku (typowo 0.01 - 0.05)
+     */
+    public BlockTimestepScheme(int maxLevel, double eta) {
+        if (maxLevel < 0 || maxLevel > 30) {
+            throw new IllegalArgumentException("Poziom musi być z zakresu 0..30: " + maxLevel);
+        }
+        if (!(eta > 0)) {
+            throw new IllegalArgumentException("Współczynnik eta musi być dodatni: " + eta);
+        }
+        this.maxLevel = maxLevel;
+        this.eta = eta;
+        this.levelCount = new int[maxLevel + 1];
+        this.levelNext = new int[maxLevel + 1];
+    }
+
+    /**
+     * Przesuwa wszystkie ciała o blockStep. Wymaga aktualnych przyspieszeń wszystkich ciał
+     * i pozostawia je aktualnymi (na końcu bloku wszystkie ciała są aktywne).
+     *
+     * Czas bloku jest liczony w najmniejszych krokach (blockStep / 2^maxLevel), ale pętla
+     * przeskakuje od razu do najbliższej granicy kroku najgłębszego zajętego poziomu - bez
+     * ciał na głębokich poziomach blok to kilka podkroków, a nie 2^maxLevel. Kopnięcia
+     * obejmują tylko ciała aktywne (początek tablicy order), dryf - wszystkie ruchome.
+     */
+    public void advance(BodyStore store, double blockStep, ActiveAccelerationEvaluator evaluator) {
+        int n = store.size();
+        if (level.length < n) {
+            level = Arrays.copyOf(level, n);
+            order = new int[n];
+            sortScratch = new int[n];
+            levelsValid = false;
+        }
+        if (!levelsValid) {
+            for (int i = 0; i < n; i++) {
+                level[i] = desiredLevel(store, i, blockStep);
+            }
+            levelsValid = true;
+        }
+        sortByLevel(store.getFixedArray(), n);
+
+        int blockTicks = 1 << maxLevel;
+        double minStep = blockStep / blockTicks;
+        double[] x = store.getXArray();
+        double[] y = store.getYArray();
+        double[] vx = store.getVxArray();
+        double[] vy = store.getVyArray();
+
+        // Półkopnięcie otwierające - na początku bloku wszystkie ciała zaczynają krok
+        kick(store, movingCount, minStep);
+        int tick = 0;
+        while (tick < blockTicks) {
+            int deepest = movingCount > 0 ? level[order[0]] : 0;
+            int ticks = 1 << (maxLevel - deepest);
+
+            // Dryf (przewidywanie) wszystkich ruchomych ciał do najbliższej granicy kroku
+            double drift = ticks * minStep;
+            for (int k = 0; k < movingCount; k++) {
+                int i = order[k];
+                x[i] += vx[i] * drift;
+                y[i] += vy[i] * drift;
+            }
+            tick += ticks;
+
+            // Ciała kończące krok: poziomy, których krok dzieli bieżący czas
+            int shallowest = tick == blockTicks ? 0 : maxLevel - Integer.numberOfTrailingZeros(tick);
+            int activeCount = 0;
+            for (int k = shallowest; k <= maxLevel; k++) {
+                activeCount += levelCount[k];
+            }
+            if (activeCount > 0) {
+                evaluator.evaluate(order, activeCount);
+                forceEvaluations += activeCount;
+            }
+            // Półkopnięcie zamykające i nowy poziom; nowe poziomy nie są płytsze niż shallowest
+            // (krok wydłuża się tylko na siatce dłuższego kroku), więc aktywne zostają na początku
+            kick(store, activeCount, minStep);
+            boolean changed = false;
+            for (int k = 0; k < activeCount; k++) {
+                int i = order[k];
+                int previous = level[i];
+                updateLevel(store, i, tick, blockStep);
+                if (level[i] != previous) {
+                    levelCount[previous]--;
+                    levelCount[level[i]]++;
+                    changed = true;
+                }
+            }
+            if (changed) {
+                sortActive(activeCount, shallowest);
+            }
+            if (tick < blockTicks) {
+                kick(store, activeCount, minStep); // półkopnięcie otwierające następny krok
+            }
+            substeps++;
+        }
+        blocks++;
+    }
+
+    /**
+     * Półkopnięcie (pół własnego kroku) pierwszych count ciał z tablicy order
+     */
+    private void kick(BodyStore store, int count, double minStep) {
+        double[] vx = store.getVxArray();
+        double[] vy = store.getVyArray();
+        double[] ax = store.getAxArray();
+        double[] ay = store.getAyArray();
+        for (int k = 0; k < count; k++) {
+            int i = order[k];
+            double halfStep = 0.5 * stride(i) * minStep;
+            vx[i] += ax[i] * halfStep;
+            vy[i] += ay[i] * halfStep;
+        }
+    }
+
+    /**
+     * Sortowanie przez zliczanie ruchomych ciał od najgłębszego poziomu
+     */
+    private void sortByLevel(boolean[] fixed, int n) {
+        Arrays.fill(levelCount, 0);
+        movingCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (!fixed[i]) {
+                levelCount[level[i]]++;
+                movingCount++;
+            }
+        }
+        int position = 0;
+        for (int k = maxLevel; k >= 0; k--) {
+            levelNext[k] = position;
+            position += levelCount[k];
+        }
+        for (int i = 0; i < n; i++) {
+            if (!fixed[i]) {
+                order[levelNext[level[i]]++] = i;
+            }
+        }
+    }
+
+    /**
+     * Ponowne sortowanie count pierwszych ciał (poziomy od shallowest w górę) po zmianie poziomów
+     */
+    private void sortActive(int count, int shallowest) {
+        System.arraycopy(order, 0, sortScratch, 0, count);
+        int position = 0;
+        for (int k = maxLevel; k >= shallowest; k--) {
+            levelNext[k] = position;
+            position += levelCount[k];
+        }
+        for (int k = 0; k < count; k++) {
+            int i = sortScratch[k];
+            order[levelNext[level[i]]++] = i;
+        }
+    }
+
+    /**
+     * Zmiana poziomu na granicy kroku ciała - w dół zawsze, w górę tylko o jeden poziom
+     * i tylko gdy bieżący czas (w najmniejszych krokach) leży na siatce dłuższego kroku
+     */
+    private void updateLevel(BodyStore store, int i, int substepsDone, double blockStep) {
+        int desired = desiredLevel(store, i, blockStep);
+        if (desired > level[i]) {
+            level[i] = desired;
+        } else if (desired < level[i]) {
+            int coarserStride = 1 << (maxLevel - level[i] + 1);
+            if ((substepsDone & (coarserStride - 1)) == 0) {
+                level[i]--;
+            }
+        }
+    }
+
+    private int desiredLevel(BodyStore store, int i, double blockStep) {
+        if (store.isFixed(i)) {
+            return 0;
+        }
+        double ax = store.getAx(i);
+        double ay = store.getAy(i);
+        double acceleration = Math.sqrt(ax * ax + ay * ay);
+        if (acceleration == 0) {
+            return 0;
+        }
+        double vx = store.getVx(i);
+        double vy = store.getVy(i);
+        double speed = Math.sqrt(vx * vx + vy * vy);
+        double timescale = speed / acceleration;
+        if (timescale * acceleration < 1e-12) {
+            double x = store.getX(i);
+            double y = store.getY(i);
+            timescale = Math.sqrt(Math.sqrt(x * x + y * y) / acceleration);
+        }
+        double step = eta * timescale;
+        if (!(step < blockStep)) {
+            return 0;
+        }
+        int desired = (int) Math.ceil(Math.log(blockStep / step) / Math.log(2));
+        return Math.min(maxLevel, Math.max(0, desired));
+    }
+
+    private int stride(int i) {
+        return 1 << (maxLevel - level[i]);
+    }
+
+    /**
+     * Wymusza ponowne przypisanie poziomów (np. po wczytaniu stanu)
+     */
+    public void invalidateLevels() {
+        levelsValid = false;
+    }
+
+    /**
+     * Poziom ciała - jego krok to blockStep / 2^poziom
+     */
+    public int getLevel(int index) {
+        return level[index];
+    }
+
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    public double getEta() {
+        return eta;
+    }
+
+    /**
+     * Łączna liczba obliczeń przyspieszenia pojedynczego ciała
+     */
+    public long getForceEvaluations() {
+        return forceEvaluations;
+    }
+
+    /**
+     * Liczba wykonanych bloków (wywołań advance)
+     */
+    public long getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * Łączna liczba wykonanych podkroków (granic kroku najgłębszego zajętego poziomu)
+     */
+    public long getSubsteps() {
+        return substeps;
+    }
+}
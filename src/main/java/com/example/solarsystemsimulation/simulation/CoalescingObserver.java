@@ -0,0 +1,141 @@
+package com.example.solarsystemsimulation.simulation;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Obserwator pośredniczący (Decorator) - przekazuje powiadomienia zgodnie z
+ * {@link DeliveryPolicy}, synchronicznie albo na wskazanym wykonawcy (np. {@code Platform::runLater}).
+ *
+ * Przy dostarczaniu asynchronicznym wątek symulacji tylko zleca zadanie, więc wolny obserwator
+ * nie spowalnia fizyki; przy polityce {@link DeliveryPolicy.Mode#LATEST} w kolejce jest
+ * najwyżej jedno powiadomienie o aktualizacji. Obserwator asynchroniczny nie może czytać
+ * symulacji bezpośrednio (robi to inny wątek) - powinien korzystać z migawek
+ * ({@link SnapshotExchange}). Wykonawca musi wykonywać zadania po kolei (jeden wątek),
+ * aby zachować kolejność zdarzeń.
+ */
+public class CoalescingObserver implements SimulationObserver {
+    private final SimulationObserver target;
+    private final DeliveryPolicy policy;
+    private final Executor executor; // null = na wątku symulacji
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Runnable drainTask = this::drainUpdates;
+    private volatile boolean dirty; // aktualizacja czeka na dostarczenie
+    private long stepsSinceDelivery;
+    private long lastDeliveryNanos;
+
+    public CoalescingObserver(SimulationObserver target, DeliveryPolicy policy, Executor executor) {
+        this.target = target;
+        this.policy = policy;
+        this.executor = executor;
+    }
+
+    public SimulationObserver getTarget() {
+        return target;
+    }
+
+    public DeliveryPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public void onSimulationUpdate() {
+        stepsSinceDelivery++;
+        switch (policy.getMode()) {
+            case EVERY_STEP:
+                deliverUpdate(false);
+                break;
+            case EVERY_N_STEPS:
+                if (stepsSinceDelivery >= policy.getSteps()) {
+                    deliverUpdate(false);
+                }
+                break;
+            case LATEST:
+                long now = System.nanoTime();
+                if (now - lastDeliveryNanos >= policy.getIntervalNanos()) {
+                    lastDeliveryNanos = now;
+                    deliverUpdate(true);
+                } else {
+                    dirty = true; // dostarczymy przy następnej okazji lub zdarzeniu
+                }
+                break;
+            default:
+                throw new IllegalStateException("Nieznana polityka: " + policy.getMode());
+        }
+    }
+
+    @Override
+    public void onSimulationStarted() {
+        flushLatest();
+        deliver(target::onSimulationStarted);
+    }
+
+    @Override
+    public void onSimulationStopped() {
+        flushLatest();
+        deliver(target::onSimulationStopped);
+    }
+
+    @Override
+    public void onSimulationReset() {
+        flushLatest();
+        deliver(target::onSimulationReset);
+    }
+
+    /**
+     * Zdarzenia zbliżeń nie są łączone ani pomijane - każde trafia do obserwatora
+     */
+    @Override
+    public void onEncounter(EncounterEvent event) {
+        deliver(() -> target.onEncounter(event));
+    }
+
+    /**
+     * Ostatnia odłożona aktualizacja trafia do obserwatora przed zdarzeniem zmiany stanu
+     */
+    private void flushLatest() {
+        if (policy.getMode() == DeliveryPolicy.Mode.LATEST && stepsSinceDelivery > 0) {
+            lastDeliveryNanos = System.nanoTime();
+            deliverUpdate(true);
+        }
+    }
+
+    private void deliverUpdate(boolean coalesce) {
+        stepsSinceDelivery = 0;
+        if (executor == null) {
+            dirty = false;
+            target.onSimulationUpdate();
+        } else if (coalesce) {
+            dirty = true;
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(drainTask);
+            }
+        } else {
+            executor.execute(target::onSimulationUpdate);
+        }
+    }
+
+    /**
+     * Zadanie wykonawcy: jedno powiadomienie obejmuje wszystkie aktualizacje zgłoszone
+     * do chwili jego rozpoczęcia
+     */
+    private void drainUpdates() {
+        while (true) {
+            dirty = false;
+            target.onSimulationUpdate();
+            scheduled.set(false);
+            // aktualizacja zgłoszona w trakcie powiadomienia nie może przepaść
+            if (!dirty || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void deliver(Runnable event) {
+        if (executor == null) {
+            event.run();
+        } else {
+            executor.execute(event);
+        }
+    }
+}
@@ -0,0 +1,801 @@
+package com.example.solarsystemsimulation.simulation;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import com.example.solarsystemsimulation.model.CelestialBody;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Wykrywanie zderzeń i bliskich przejść ciał na jednorodnej siatce haszowanej.
+ *
+ * Faza szeroka: komórki o boku co najmniej równym promieniowi zbliżenia (i średnicy największego
+ * ciała) trzymane w tablicy haszującej klucz komórki -> lista ciał (listy dwukierunkowe
+ * w tablicach, bez obiektów). Siatka jest aktualizowana przyrostowo - w każdym kroku
+ * przenoszone są tylko ciała, które zmieniły komórkę, a przebudowa następuje dopiero po
+ * zmianie liczby ciał lub nagromadzeniu pustych komórek. Pary sprawdzane są tylko w komórce
+ * i czterech sąsiednich "do przodu", więc każda para raz.
+ *
+ * Faza wąska: najmniejsza odległość pary w ostatnim kroku przy liniowym ruchu względnym, więc
+ * para znaleziona przez fazę szeroką nie przelatuje przez siebie niezauważona. Faza szeroka
+ * widzi jednak tylko położenia po kroku: para jest na pewno sprawdzana, gdy po kroku dzieli ją
+ * najwyżej bok komórki, czyli zetknięcie (zbliżenie) jest pewne tylko przy
+ * suma promieni (promień zbliżenia) + |Δv|·dt <= bok komórki. Szybsze pary mogą zostać
+ * pominięte - wtedy pomaga mniejszy krok albo większy promień zbliżenia. Pary w promieniu
+ * zbliżenia są śledzone do chwili rozejścia, a wtedy zgłaszane jako {@link EncounterEvent}
+ * z najmniejszą odległością. Zetknięcie (odległość mniejsza niż suma promieni) jest obsługiwane
+ * według {@link CollisionPolicy}.
+ *
+ * Usunięte przy zlepieniu ciało zachowuje swój indeks (widoki {@link CelestialBody} wskazują
+ * na indeksy magazynu), ale ma masę 0 i jest nieruchome - tak też jest rozpoznawane w magazynie.
+ * Historia stanów nie zapisuje mas, więc zlepienia trafiają do dziennika, a przywrócenie
+ * wcześniejszego stanu cofa zlepienia późniejsze niż jego czas ({@link #revertTo}). Stan
+ * wczytany razem z masami (plik .sim, punkt kontrolny) zastępuje dziennik ({@link #resync}).
+ *
+ * Używany tylko na wątku symulacji.
+ */
+public class CollisionDetector {
+    public static final double KM_PER_AU = 1.495978707e8;
+
+    private static final long NO_CELL = Long.MIN_VALUE; // ciało poza siatką (usunięte, NaN)
+    private static final long EMPTY = Long.MAX_VALUE; // wolne miejsce tablicy haszującej
+    private static final double MAX_CELL = 1 << 30; // zakres współrzędnych komórki
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final double encounterDistance; // AU
+    private final CollisionPolicy policy;
+    private double defaultRadius; // AU, ciała bez widoku CelestialBody
+    private double restitution = 1.0;
+
+    // Stan ciał
+    private int trackedCount = -1;
+    private double[] radius = new double[0];
+    private boolean[] removed = new boolean[0];
+    private boolean[] ownRadius = new boolean[0]; // promień z widoku CelestialBody lub ze zlepienia
+    private int[] removedOrder = new int[16]; // indeksy usuniętych ciał w kolejności usunięcia
+    private int removedCount;
+    private double maxRadius;
+
+    // Siatka: komórka ciała, listy ciał w komórkach, tablica haszująca komórka -> głowa listy
+    private double cellSize;
+    private boolean gridValid;
+    private long[] cellOf = new long[0];
+    private int[] slotOf = new int[0];
+    private int[] next = new int[0];
+    private int[] prev = new int[0];
+    private long[] cellKeys = new long[0];
+    private int[] cellHeads = new int[0];
+    private int cellBits;
+    private int usedCells; // zajęte miejsca tablicy, także komórki, które opustoszały
+    // Mapa bitowa komórek (8 bitów na miejsce tablicy, mieści się w pamięci podręcznej) -
+    // większość sąsiednich komórek jest pusta i odrzucana bez przeszukiwania tablicy
+    private long[] occupancy = new long[0];
+
+    // Śledzone pary w promieniu zbliżenia (gęsta lista + indeks haszujący)
+    private long[] pairKeys = new long[16];
+    private double[] pairMinDistance = new double[16];
+    private double[] pairMinTime = new double[16];
+    private long[] pairSeen = new long[16];
+    private boolean[] pairTouching = new boolean[16];
+    private int pairCount;
+    private int[] pairIndex = new int[32];
+    private long scanNumber;
+
+    // Zetknięcia z bieżącego kroku, obsługiwane po przeglądzie par
+    private int[] contactFirst = new int[16];
+    private int[] contactSecond = new int[16];
+    private double[] contactDistance = new double[16];
+    private double[] contactTime = new double[16];
+    private int contactCount;
+
+    // Dziennik zlepień: czas, ciało pozostające, usunięte i ich stan sprzed zlepienia
+    private double[] mergeTime = new double[16];
+    private int[] mergeSurvivor = new int[16];
+    private int[] mergeAbsorbed = new int[16];
+    private double[] mergeSurvivorMass = new double[16];
+    private double[] mergeAbsorbedMass = new double[16];
+    private double[] mergeSurvivorRadius = new double[16];
+    private boolean[] mergeSurvivorOwnRadius = new boolean[16];
+    private boolean[] mergeAbsorbedFixed = new boolean[16];
+    private int mergeCount;
+
+    private long encounterCount;
+    private long collisionCount;
+
+    /**
+     * @param encounterDistance promień zbliżenia w AU (0 = tylko zderzenia)
+     * @param policy            obsługa zetknięcia ciał
+     */
+    public CollisionDetector(double encounterDistance, CollisionPolicy policy) {
+        if (!(encounterDistance >= 0) || Double.isInfinite(encounterDistance)) {
+            throw new IllegalArgumentException("Promień zbliżenia musi być nieujemny: " + encounterDistance);
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Brak polityki zderzeń");
+        }
+        this.encounterDistance = encounterDistance;
+        this.policy = policy;
+        Arrays.fill(pairIndex, -1);
+    }
+
+    /**
+     * Promień (AU) ciał dodanych tylko do magazynu, np. planetoid z katalogu; ciała z listy
+     * mają promień z {@link CelestialBody#getRadius()}, a ciała powstałe ze zlepienia zachowują
+     * promień wyliczony przy zlepieniu
+     */
+    public void setDefaultRadius(double defaultRadius) {
+        if (!(defaultRadius >= 0) || Double.isInfinite(defaultRadius)) {
+            throw new IllegalArgumentException("Promień musi być nieujemny: " + defaultRadius);
+        }
+        this.defaultRadius = defaultRadius;
+        int n = Math.max(trackedCount, 0);
+        for (int i = 0; i < n; i++) {
+            if (!ownRadius[i] && !removed[i]) {
+                radius[i] = defaultRadius;
+            }
+        }
+        sizeCells(n);
+    }
+
+    /**
+     * Współczynnik restytucji odbić (1 = sprężyste, 0 = ciała tracą prędkość względną)
+     */
+    public void setRestitution(double restitution) {
+        if (!(restitution >= 0 && restitution <= 1)) {
+            throw new IllegalArgumentException("Współczynnik restytucji musi być z zakresu 0..1: " + restitution);
+        }
+        this.restitution = restitution;
+    }
+
+    /**
+     * Sprawdza stan po kroku zakończonym w chwili time (krok trwał dt dni); zdarzenia trafiają
+     * do listener. Zwraca true, jeśli zmieniono masy, pozycje lub prędkości ciał.
+     */
+    boolean update(BodyStore store, List<CelestialBody> bodies, double time, double dt,
+                   Consumer<EncounterEvent> listener) {
+        int n = store.size();
+        if (n != trackedCount) {
+            track(store, bodies, n);
+        }
+        if (!(cellSize > 0)) {
+            return false; // brak promieni i promienia zbliżenia - nie ma czego wykrywać
+        }
+        if (gridValid) {
+            moveBodies(store.getXArray(), store.getYArray(), n);
+        } else {
+            rebuildGrid(store.getXArray(), store.getYArray(), n);
+        }
+
+        scanNumber++;
+        contactCount = 0;
+        scanPairs(store, time, dt);
+        finishEncounters(listener);
+        return resolveContacts(store, time, listener);
+    }
+
+    /**
+     * Promienie nowych ciał i pełna przebudowa siatki
+     */
+    private void track(BodyStore store, List<CelestialBody> bodies, int n) {
+        int from = Math.max(0, Math.min(trackedCount, n));
+        if (radius.length < n) {
+            int capacity = Math.max(n, radius.length * 2);
+            radius = Arrays.copyOf(radius, capacity);
+            removed = Arrays.copyOf(removed, capacity);
+            ownRadius = Arrays.copyOf(ownRadius, capacity);
+            cellOf = new long[capacity];
+            slotOf = new int[capacity];
+            next = new int[capacity];
+            prev = new int[capacity];
+        }
+        Arrays.fill(radius, from, n, defaultRadius);
+        Arrays.fill(ownRadius, from, n, false);
+        int kept = 0;
+        for (int k = 0; k < removedCount; k++) {
+            if (removedOrder[k] < from) {
+                removedOrder[kept++] = removedOrder[k];
+            }
+        }
+        removedCount = kept;
+        for (int i = from; i < n; i++) {
+            removed[i] = isRemoved(store, i);
+            if (removed[i]) {
+                addRemoved(i);
+            }
+        }
+        for (CelestialBody body : bodies) {
+            int i = body.getIndex();
+            if (i >= from && i < n) {
+                radius[i] = body.getRadius() / KM_PER_AU;
+                ownRadius[i] = true;
+            }
+        }
+        trackedCount = n;
+        sizeCells(n);
+    }
+
+    /**
+     * Bok komórki z promienia zbliżenia i największego promienia; siatka do przebudowy
+     */
+    private void sizeCells(int n) {
+        maxRadius = 0;
+        for (int i = 0; i < n; i++) {
+            maxRadius = Math.max(maxRadius, radius[i]);
+        }
+        cellSize = Math.max(encounterDistance, 2 * maxRadius);
+        gridValid = false;
+    }
+
+    /**
+     * Ciało usunięte przez zlepienie: bez masy i nieruchome
+     */
+    private static boolean isRemoved(BodyStore store, int i) {
+        return store.getMass(i) == 0 && store.isFixed(i);
+    }
+
+    private void addRemoved(int i) {
+        if (removedCount == removedOrder.length) {
+            removedOrder = Arrays.copyOf(removedOrder, removedCount * 2);
+        }
+        removedOrder[removedCount++] = i;
+    }
+
+    private long cellKey(double x, double y) {
+        double cx = Math.floor(x / cellSize);
+        double cy = Math.floor(y / cellSize);
+        if (!(Math.abs(cx) < MAX_CELL && Math.abs(cy) < MAX_CELL)) {
+            return NO_CELL; // NaN lub poza zakresem siatki
+        }
+        return pack((int) cx, (int) cy);
+    }
+
+    private static long pack(int cx, int cy) {
+        return (long) cx << 32 | (cy & 0xffffffffL);
+    }
+
+    private int hash(long key) {
+        return (int) ((key * HASH_MULTIPLIER) >>> (64 - cellBits));
+    }
+
+    private int occupancyBit(long key) {
+        return (int) ((key * HASH_MULTIPLIER) >>> (64 - cellBits - 3));
+    }
+
+    /**
+     * Miejsce komórki w tablicy haszującej lub -1
+     */
+    private int findCell(long key) {
+        int mask = cellKeys.length - 1;
+        for (int slot = hash(key); ; slot = (slot + 1) & mask) {
+            long k = cellKeys[slot];
+            if (k == key) {
+                return slot;
+            }
+            if (k == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    private int findOrAddCell(long key) {
+        int mask = cellKeys.length - 1;
+        for (int slot = hash(key); ; slot = (slot + 1) & mask) {
+            long k = cellKeys[slot];
+            if (k == key) {
+                return slot;
+            }
+            if (k == EMPTY) {
+                cellKeys[slot] = key;
+                cellHeads[slot] = -1;
+                usedCells++;
+                int bit = occupancyBit(key);
+                occupancy[bit >>> 6] |= 1L << bit;
+                return slot;
+            }
+        }
+    }
+
+    private void link(int i, long key) {
+        int slot = findOrAddCell(key);
+        int head = cellHeads[slot];
+        prev[i] = -1;
+        next[i] = head;
+        if (head >= 0) {
+            prev[head] = i;
+        }
+        cellHeads[slot] = i;
+        cellOf[i] = key;
+        slotOf[i] = slot;
+    }
+
+    private void unlink(int i) {
+        if (cellOf[i] == NO_CELL) {
+            return;
+        }
+        if (prev[i] >= 0) {
+            next[prev[i]] = next[i];
+        } else {
+            cellHeads[slotOf[i]] = next[i];
+        }
+        if (next[i] >= 0) {
+            prev[next[i]] = prev[i];
+        }
+        cellOf[i] = NO_CELL;
+    }
+
+    /**
+     * Pełna przebudowa - tablica haszująca o rozmiarze 2^k >= 2N bez pustych komórek
+     */
+    private void rebuildGrid(double[] x, double[] y, int n) {
+        int capacity = Integer.highestOneBit(Math.max(64, 2 * n - 1)) << 1;
+        if (cellKeys.length != capacity) {
+            cellKeys = new long[capacity];
+            cellHeads = new int[capacity];
+            cellBits = Integer.numberOfTrailingZeros(capacity);
+            occupancy = new long[capacity / 8];
+        }
+        Arrays.fill(cellKeys, EMPTY);
+        Arrays.fill(occupancy, 0);
+        usedCells = 0;
+        for (int i = 0; i < n; i++) {
+            long key = removed[i] ? NO_CELL : cellKey(x[i], y[i]);
+            if (key == NO_CELL) {
+                cellOf[i] = NO_CELL;
+            } else {
+                link(i, key);
+            }
+        }
+        gridValid = true;
+    }
+
+    /**
+     * Aktualizacja przyrostowa - tylko ciała, które zmieniły komórkę; gdy tablica zapełni się
+     * w 3/4 (także komórkami, które opustoszały) - pełna przebudowa
+     */
+    private void moveBodies(double[] x, double[] y, int n) {
+        int limit = cellKeys.length / 4 * 3;
+        for (int i = 0; i < n; i++) {
+            if (removed[i]) {
+                continue;
+            }
+            long key = cellKey(x[i], y[i]);
+            if (key != cellOf[i]) {
+                if (usedCells >= limit) {
+                    rebuildGrid(x, y, n);
+                    return;
+                }
+                unlink(i);
+                if (key != NO_CELL) {
+                    link(i, key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pary w komórce i w sąsiednich komórkach (x+1, y), (x-1, y+1), (x, y+1), (x+1, y+1)
+     */
+    private void scanPairs(BodyStore store, double time, double dt) {
+        for (int slot = 0; slot < cellKeys.length; slot++) {
+            int head = cellHeads[slot];
+            if (cellKeys[slot] == EMPTY || head < 0) {
+                continue;
+            }
+            for (int i = head; i >= 0; i = next[i]) {
+                for (int j = next[i]; j >= 0; j = next[j]) {
+                    testPair(store, i, j, time, dt);
+                }
+            }
+            long key = cellKeys[slot];
+            int cx = (int) (key >> 32);
+            int cy = (int) key;
+            scanNeighbour(store, head, pack(cx + 1, cy), time, dt);
+            scanNeighbour(store, head, pack(cx - 1, cy + 1), time, dt);
+            scanNeighbour(store, head, pack(cx, cy + 1), time, dt);
+            scanNeighbour(store, head, pack(cx + 1, cy + 1), time, dt);
+        }
+    }
+
+    private void scanNeighbour(BodyStore store, int head, long neighbourKey, double time, double dt) {
+        int bit = occupancyBit(neighbourKey);
+        if ((occupancy[bit >>> 6] & 1L << bit) == 0) {
+            return;
+        }
+        int slot = findCell(neighbourKey);
+        if (slot < 0 || cellHeads[slot] < 0) {
+            return;
+        }
+        int otherHead = cellHeads[slot];
+        for (int i = head; i >= 0; i = next[i]) {
+            for (int j = otherHead; j >= 0; j = next[j]) {
+                testPair(store, i, j, time, dt);
+            }
+        }
+    }
+
+    /**
+     * Najmniejsza odległość pary w ostatnim kroku (ruch względny liniowy, chwila z [-dt, 0])
+     */
+    private void testPair(BodyStore store, int i, int j, double time, double dt) {
+        double[] x = store.getXArray();
+        double[] y = store.getYArray();
+        double dx = x[j] - x[i];
+        double dy = y[j] - y[i];
+        double contact = radius[i] + radius[j];
+        double limit = Math.max(encounterDistance, contact);
+        // Szybkie odrzucenie: dalej niż limit plus droga względna w kroku
+        double[] vx = store.getVxArray();
+        double[] vy = store.getVyArray();
+        double dvx = vx[j] - vx[i];
+        double dvy = vy[j] - vy[i];
+        double reach = limit + Math.sqrt(dvx * dvx + dvy * dvy) * dt;
+        double distanceSquared = dx * dx + dy * dy;
+        if (distanceSquared >= reach * reach) {
+            return;
+        }
+        double t = 0;
+        double speedSquared = dvx * dvx + dvy * dvy;
+        if (speedSquared > 0) {
+            t = Math.max(-dt, Math.min(0, -(dx * dvx + dy * dvy) / speedSquared));
+        }
+        double mx = dx + dvx * t;
+        double my = dy + dvy * t;
+        double minSquared = mx * mx + my * my;
+        if (minSquared >= limit * limit) {
+            return;
+        }
+        double minDistance = Math.sqrt(minSquared);
+        trackPair(Math.min(i, j), Math.max(i, j), minDistance, time + t, minDistance < contact);
+    }
+
+    private void trackPair(int first, int second, double distance, double time, boolean touching) {
+        long key = (long) first << 32 | second;
+        int entry = findPair(key);
+        if (entry < 0) {
+            entry = addPair(key);
+            pairMinDistance[entry] = distance;
+            pairMinTime[entry] = time;
+            pairTouching[entry] = false;
+        } else if (distance < pairMinDistance[entry]) {
+            pairMinDistance[entry] = distance;
+            pairMinTime[entry] = time;
+        }
+        pairSeen[entry] = scanNumber;
+        if (touching && !pairTouching[entry]) {
+            addContact(first, second, distance, time);
+        }
+        pairTouching[entry] = touching;
+    }
+
+    private int findPair(long key) {
+        int mask = pairIndex.length - 1;
+        for (int slot = pairHash(key, mask); ; slot = (slot + 1) & mask) {
+            int entry = pairIndex[slot];
+            if (entry < 0) {
+                return -1;
+            }
+            if (pairKeys[entry] == key) {
+                return entry;
+            }
+        }
+    }
+
+    private int addPair(long key) {
+        if (pairCount == pairKeys.length) {
+            int capacity = pairCount * 2;
+            pairKeys = Arrays.copyOf(pairKeys, capacity);
+            pairMinDistance = Arrays.copyOf(pairMinDistance, capacity);
+            pairMinTime = Arrays.copyOf(pairMinTime, capacity);
+            pairSeen = Arrays.copyOf(pairSeen, capacity);
+            pairTouching = Arrays.copyOf(pairTouching, capacity);
+            pairIndex = new int[capacity * 2];
+            reindexPairs();
+        }
+        int entry = pairCount++;
+        pairKeys[entry] = key;
+        insertPairIndex(entry);
+        return entry;
+    }
+
+    private static int pairHash(long key, int mask) {
+        return (int) ((key * HASH_MULTIPLIER) >>> 32) & mask;
+    }
+
+    private void insertPairIndex(int entry) {
+        int mask = pairIndex.length - 1;
+        int slot = pairHash(pairKeys[entry], mask);
+        while (pairIndex[slot] >= 0) {
+            slot = (slot + 1) & mask;
+        }
+        pairIndex[slot] = entry;
+    }
+
+    private void reindexPairs() {
+        Arrays.fill(pairIndex, -1);
+        for (int entry = 0; entry < pairCount; entry++) {
+            insertPairIndex(entry);
+        }
+    }
+
+    /**
+     * Pary niewidziane w tym kroku rozeszły się - zgłoszenie zbliżenia i usunięcie z listy
+     */
+    private void finishEncounters(Consumer<EncounterEvent> listener) {
+        int kept = 0;
+        for (int entry = 0; entry < pairCount; entry++) {
+            if (pairSeen[entry] != scanNumber) {
+                if (pairMinDistance[entry] < encounterDistance) {
+                    long key = pairKeys[entry];
+                    encounterCount++;
+                    listener.accept(new EncounterEvent(EncounterEvent.Type.ENCOUNTER, (int) (key >>> 32), (int) key,
+                        pairMinTime[entry], pairMinDistance[entry]));
+                }
+                continue;
+            }
+            if (kept != entry) {
+                pairKeys[kept] = pairKeys[entry];
+                pairMinDistance[kept] = pairMinDistance[entry];
+                pairMinTime[kept] = pairMinTime[entry];
+                pairSeen[kept] = pairSeen[entry];
+                pairTouching[kept] = pairTouching[entry];
+            }
+            kept++;
+        }
+        if (kept != pairCount) {
+            pairCount = kept;
+            reindexPairs();
+        }
+    }
+
+    private void addContact(int first, int second, double distance, double time) {
+        if (contactCount == contactFirst.length) {
+            int capacity = contactCount * 2;
+            contactFirst = Arrays.copyOf(contactFirst, capacity);
+            contactSecond = Arrays.copyOf(contactSecond, capacity);
+            contactDistance = Arrays.copyOf(contactDistance, capacity);
+            contactTime = Arrays.copyOf(contactTime, capacity);
+        }
+        contactFirst[contactCount] = first;
+        contactSecond[contactCount] = second;
+        contactDistance[contactCount] = distance;
+        contactTime[contactCount] = time;
+        contactCount++;
+    }
+
+    private boolean resolveContacts(BodyStore store, double time, Consumer<EncounterEvent> listener) {
+        boolean changed = false;
+        for (int k = 0; k < contactCount; k++) {
+            int a = contactFirst[k];
+            int b = contactSecond[k];
+            if (removed[a] || removed[b]) {
+                continue; // jedno z ciał zlepiło się już w tym kroku
+            }
+            collisionCount++;
+            listener.accept(new EncounterEvent(EncounterEvent.Type.COLLISION, a, b, contactTime[k], contactDistance[k]));
+            switch (policy) {
+                case REPORT:
+                    break;
+                case MERGE:
+                    merge(store, a, b, time);
+                    changed = true;
+                    break;
+                case BOUNCE:
+                    changed |= bounce(store, a, b);
+                    break;
+                default:
+                    throw new IllegalStateException("Nieznana polityka: " + policy);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Zlepienie z zachowaniem masy i pędu; pozostaje ciało nieruchome, cięższe lub o mniejszym indeksie
+     */
+    private void merge(BodyStore store, int a, int b, double time) {
+        double[] mass = store.getMassArray();
+        boolean[] fixed = store.getFixedArray();
+        int survivor = fixed[b] && !fixed[a] || !fixed[a] && mass[b] > mass[a] ? b : a;
+        int absorbed = survivor == a ? b : a;
+        logMerge(time, survivor, absorbed, mass[survivor], mass[absorbed], fixed[absorbed]);
+
+        double[] x = store.getXArray();
+        double[] y = store.getYArray();
+        double[] vx = store.getVxArray();
+        double[] vy = store.getVyArray();
+        if (!fixed[survivor]) {
+            double total = mass[survivor] + mass[absorbed];
+            double ws = total > 0 ? mass[survivor] / total : 0.5;
+            double wa = 1 - ws;
+            x[survivor] = ws * x[survivor] + wa * x[absorbed];
+            y[survivor] = ws * y[survivor] + wa * y[absorbed];
+            vx[survivor] = ws * vx[survivor] + wa * vx[absorbed];
+            vy[survivor] = ws * vy[survivor] + wa * vy[absorbed];
+        }
+        mass[survivor] += mass[absorbed];
+        double rs = radius[survivor];
+        double ra = radius[absorbed];
+        radius[survivor] = Math.cbrt(rs * rs * rs + ra * ra * ra);
+        ownRadius[survivor] = true;
+
+        // Ciało usunięte: bez masy, nieruchome, w miejscu zlepienia (skończone współrzędne dla fizyki)
+        mass[absorbed] = 0;
+        fixed[absorbed] = true;
+        x[absorbed] = x[survivor];
+        y[absorbed] = y[survivor];
+        store.setVelocity(absorbed, 0, 0);
+        store.setAcceleration(absorbed, 0, 0);
+        removed[absorbed] = true;
+        addRemoved(absorbed);
+        unlink(absorbed);
+
+        if (radius[survivor] > maxRadius) {
+            maxRadius = radius[survivor];
+            if (2 * maxRadius > cellSize) {
+                cellSize = 2 * maxRadius; // większe ciało - siatka z większymi komórkami
+                gridValid = false;
+            }
+        }
+    }
+
+    private void logMerge(double time, int survivor, int absorbed, double survivorMass, double absorbedMass,
+                          boolean absorbedFixed) {
+        if (mergeCount == mergeTime.length) {
+            int capacity = mergeCount * 2;
+            mergeTime = Arrays.copyOf(mergeTime, capacity);
+            mergeSurvivor = Arrays.copyOf(mergeSurvivor, capacity);
+            mergeAbsorbed = Arrays.copyOf(mergeAbsorbed, capacity);
+            mergeSurvivorMass = Arrays.copyOf(mergeSurvivorMass, capacity);
+            mergeAbsorbedMass = Arrays.copyOf(mergeAbsorbedMass, capacity);
+            mergeSurvivorRadius = Arrays.copyOf(mergeSurvivorRadius, capacity);
+            mergeSurvivorOwnRadius = Arrays.copyOf(mergeSurvivorOwnRadius, capacity);
+            mergeAbsorbedFixed = Arrays.copyOf(mergeAbsorbedFixed, capacity);
+        }
+        mergeTime[mergeCount] = time;
+        mergeSurvivor[mergeCount] = survivor;
+        mergeAbsorbed[mergeCount] = absorbed;
+        mergeSurvivorMass[mergeCount] = survivorMass;
+        mergeAbsorbedMass[mergeCount] = absorbedMass;
+        mergeSurvivorRadius[mergeCount] = radius[survivor];
+        mergeSurvivorOwnRadius[mergeCount] = ownRadius[survivor];
+        mergeAbsorbedFixed[mergeCount] = absorbedFixed;
+        mergeCount++;
+    }
+
+    /**
+     * Odbicie wzdłuż linii środków i rozsunięcie na sumę promieni (ciała nieruchome się nie ruszają,
+     * ciała bez masy ustępują ciałom z masą)
+     */
+    private boolean bounce(BodyStore store, int a, int b) {
+        double[] x = store.getXArray();
+        double[] y = store.getYArray();
+        double dx = x[b] - x[a];
+        double dy = y[b] - y[a];
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        double wa = inverseMass(store, a);
+        double wb = inverseMass(store, b);
+        if (Double.isInfinite(wa) && Double.isInfinite(wb)) {
+            wa = 1;
+            wb = 1;
+        } else if (Double.isInfinite(wa) || Double.isInfinite(wb)) {
+            wa = Double.isInfinite(wa) ? 1 : 0;
+            wb = 1 - wa;
+        }
+        if (distance == 0 || wa + wb == 0) {
+            return false; // kierunek nieokreślony lub dwa ciała nieruchome
+        }
+        double nx = dx / distance;
+        double ny = dy / distance;
+        double[] vx = store.getVxArray();
+        double[] vy = store.getVyArray();
+        double approach = (vx[b] - vx[a]) * nx + (vy[b] - vy[a]) * ny;
+        if (approach < 0) {
+            double impulse = -(1 + restitution) * approach / (wa + wb);
+            vx[a] -= impulse * wa * nx;
+            vy[a] -= impulse * wa * ny;
+            vx[b] += impulse * wb * nx;
+            vy[b] += impulse * wb * ny;
+        }
+        double overlap = radius[a] + radius[b] - distance;
+        if (overlap > 0) {
+            double share = overlap / (wa + wb);
+            x[a] -= share * wa * nx;
+            y[a] -= share * wa * ny;
+            x[b] += share * wb * nx;
+            y[b] += share * wb * ny;
+        }
+        return true;
+    }
+
+    private static double inverseMass(BodyStore store, int i) {
+        if (store.isFixed(i)) {
+            return 0;
+        }
+        double mass = store.getMass(i);
+        return mass > 0 ? 1 / mass : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Cofa zlepienia późniejsze niż time (po wpisaniu do magazynu wcześniejszego stanu)
+     * i zapomina śledzone pary
+     */
+    void revertTo(BodyStore store, double time) {
+        while (mergeCount > 0 && mergeTime[mergeCount - 1] > time) {
+            mergeCount--;
+            int survivor = mergeSurvivor[mergeCount];
+            int absorbed = mergeAbsorbed[mergeCount];
+            if (absorbed < store.size() && survivor < store.size()) {
+                store.getMassArray()[survivor] = mergeSurvivorMass[mergeCount];
+                store.getMassArray()[absorbed] = mergeAbsorbedMass[mergeCount];
+                store.setFixed(absorbed, mergeAbsorbedFixed[mergeCount]);
+            }
+            if (absorbed < removed.length) {
+                radius[survivor] = mergeSurvivorRadius[mergeCount];
+                ownRadius[survivor] = mergeSurvivorOwnRadius[mergeCount];
+                removed[absorbed] = false;
+            }
+            for (int k = removedCount - 1; k >= 0; k--) {
+                if (removedOrder[k] == absorbed) {
+                    System.arraycopy(removedOrder, k + 1, removedOrder, k, removedCount - k - 1);
+                    removedCount--;
+                    break;
+                }
+            }
+        }
+        forgetPairs();
+    }
+
+    /**
+     * Przyjmuje masy i nieruchomość ciał wpisane do magazynu razem ze stanem (plik .sim,
+     * punkt kontrolny): usunięte są ciała bez masy i nieruchome, a dziennik zlepień - zapisanych
+     * już w tym stanie - jest czyszczony
+     */
+    void resync(BodyStore store) {
+        mergeCount = 0;
+        removedCount = 0;
+        int n = Math.min(trackedCount, store.size());
+        for (int i = 0; i < n; i++) {
+            removed[i] = isRemoved(store, i);
+            if (removed[i]) {
+                addRemoved(i);
+            }
+        }
+        forgetPairs();
+    }
+
+    private void forgetPairs() {
+        pairCount = 0;
+        Arrays.fill(pairIndex, -1);
+        gridValid = false;
+    }
+
+    /**
+     * Liczba ciał usuniętych przez zlepienia (także zapisanych we wczytanym stanie)
+     */
+    public int getRemovedCount() {
+        return removedCount;
+    }
+
+    /**
+     * Indeks k-tego usuniętego ciała (k < {@link #getRemovedCount()})
+     */
+    public int getRemovedIndex(int k) {
+        return removedOrder[k];
+    }
+
+    public long getEncounterCount() {
+        return encounterCount;
+    }
+
+    public long getCollisionCount() {
+        return collisionCount;
+    }
+
+    public double getEncounterDistance() {
+        return encounterDistance;
+    }
+
+    public CollisionPolicy getPolicy() {
+        return policy;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.solarsystemsimulation.simulation;
+
+/**
+ * Co robi {@link CollisionDetector}, gdy dwa ciała się zetkną (odległość mniejsza niż suma promieni)
+ */
+public enum CollisionPolicy {
+    /**
+     * Tylko zdarzenie - ciała przechodzą przez siebie jak dotąd
+     */
+    REPORT,
+    /**
+     * Zlepienie: cięższe ciało (lub nieruchome) przejmuje masę i pęd lżejszego, lżejsze
+     * zostaje usunięte z symulacji (masa 0, nieruchome)
+     */
+    MERGE,
+    /**
+     * Odbicie wzdłuż linii środków ze współczynnikiem restytucji i rozsunięcie ciał
+     */
+    BOUNCE
+}
@@ -0,0 +1,73 @@
+package com.example.solarsystemsimulation.simulation;
+
+/**
+ * Jak często obserwator dostaje {@link SimulationObserver#onSimulationUpdate()}
+ * ({@link CoalescingObserver}). Zdarzenia start/stop/reset są dostarczane zawsze.
+ */
+public final class DeliveryPolicy {
+    // Jedna klatka przy 60 Hz
+    public static final long FRAME_NANOS = 1_000_000_000L / 60;
+
+    /**
+     * Rodzaj polityki
+     */
+    public enum Mode {
+        /** po każdym kroku */
+        EVERY_STEP,
+        /** po co N-tym kroku */
+        EVERY_N_STEPS,
+        /** najwyżej raz na przedział czasu; kroki pomiędzy są łączone w jedno powiadomienie */
+        LATEST
+    }
+
+    private final Mode mode;
+    private final int steps;
+    private final long intervalNanos;
+
+    private DeliveryPolicy(Mode mode, int steps, long intervalNanos) {
+        this.mode = mode;
+        this.steps = steps;
+        this.intervalNanos = intervalNanos;
+    }
+
+    public static DeliveryPolicy everyStep() {
+        return new DeliveryPolicy(Mode.EVERY_STEP, 1, 0);
+    }
+
+    public static DeliveryPolicy everySteps(int steps) {
+        if (steps < 1) {
+            throw new IllegalArgumentException("Liczba kroków musi być dodatnia: " + steps);
+        }
+        return new DeliveryPolicy(Mode.EVERY_N_STEPS, steps, 0);
+    }
+
+    /**
+     * Najnowszy stan najwyżej raz na intervalNanos (0 = gdy tylko poprzednie powiadomienie
+     * zostało obsłużone)
+     */
+    public static DeliveryPolicy latest(long intervalNanos) {
+        if (intervalNanos < 0) {
+            throw new IllegalArgumentException("Przedział nie może być ujemny: " + intervalNanos);
+        }
+        return new DeliveryPolicy(Mode.LATEST, 1, intervalNanos);
+    }
+
+    /**
+     * Najnowszy stan najwyżej raz na klatkę ekranu (60 Hz)
+     */
+    public static DeliveryPolicy latestPerFrame() {
+        return latest(FRAME_NANOS);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.solarsystemsimulation.simulation;
+
+import java.util.Locale;
+
+/**
+ * Zbliżenie lub zderzenie pary ciał wykryte przez {@link CollisionDetector}.
+ *
+ * Zbliżenie jest zgłaszane, gdy para opuszcza promień zbliżenia - z najmniejszą odległością
+ * i chwilą, w której wystąpiła. Zderzenie jest zgłaszane w kroku pierwszego zetknięcia.
+ */
+public class EncounterEvent {
+    public enum Type {
+        ENCOUNTER,
+        COLLISION
+    }
+
+    private final Type type;
+    private final int first;
+    private final int second;
+    private final double time;
+    private final double minDistance;
+
+    public EncounterEvent(Type type, int first, int second, double time, double minDistance) {
+        this.type = type;
+        this.first = first;
+        this.second = second;
+        this.time = time;
+        this.minDistance = minDistance;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Indeks ciała w {@link com.example.solarsystemsimulation.model.BodyStore} (mniejszy z pary)
+     */
+    public int getFirst() {
+        return first;
+    }
+
+    public int getSecond() {
+        return second;
+    }
+
+    /**
+     * Czas symulacji (dni) najmniejszej odległości
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Najmniejsza odległość środków (AU)
+     */
+    public double getMinDistance() {
+        return minDistance;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s %d-%d t=%.4f d=%.6g AU", type, first, second, time, minDistance);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.solarsystemsimulation.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Wykonuje fazy kroku symulacji równolegle na puli ForkJoin, dzieląc zakres ciał
+ * na fragmenty o zadanej wielkości.
+ *
+ * Każde ciało jest liczone dokładnie tak samo jak w trybie sekwencyjnym (ta sama
+ * kolejność sumowania), więc wyniki są identyczne bit w bit.
+ */
+public class ParallelStepExecutor implements AutoCloseable {
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Akcja wykonywana dla zakresu indeksów [from, to)
+     */
+    @FunctionalInterface
+    public interface RangeAction {
+        void apply(int from, int to);
+    }
+
+    public ParallelStepExecutor(int parallelism, int chunkSize) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Liczba wątków musi być dodatnia: " + parallelism);
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Rozmiar fragmentu musi być dodatni: " + chunkSize);
+        }
+        this.pool = new ForkJoinPool(parallelism);
+        this.chunkSize = chunkSize;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Wykonuje akcję dla zakresu [0, count) podzielonego na fragmenty i czeka na zakończenie
+     */
+    public void forEachChunk(int count, RangeAction action) {
+        if (count <= chunkSize) {
+            action.apply(0, count);
+            return;
+        }
+        pool.invoke(new RangeTask(action, 0, count, chunkSize));
+    }
+
+    /**
+     * Wykonuje akcję dla każdego indeksu z [0, count) jako osobnego zadania - dla pracy
+     * podzielonej już na duże kawałki (np. pary kafelków), niezależnie od rozmiaru fragmentu
+     */
+    public void forEachTask(int count, RangeAction action) {
+        if (count <= 1) {
+            action.apply(0, count);
+            return;
+        }
+        pool.invoke(new RangeTask(action, 0, count, 1));
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Zadanie dzielące zakres na połowy aż do rozmiaru fragmentu
+     */
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient RangeAction action; // zadania nie są serializowane
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        RangeTask(RangeAction action, int from, int to, int chunkSize) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                action.apply(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                new RangeTask(action, from, middle, chunkSize),
+                new RangeTask(action, middle, to, chunkSize)
+            );
+        }
+    }
+}
@@ -1,23 +1,52 @@
 package com.example.solarsystemsimulation.simulation;
 
+import com.example.solarsystemsimulation.metrics.MetricsRegistry;
+import com.example.solarsystemsimulation.metrics.PhysicsStepEvent;
+import com.example.solarsystemsimulation.model.BodyStore;
 import com.example.solarsystemsimulation.model.CelestialBody;
+import com.example.solarsystemsimulation.physics.ArrayPhysicsStrategy;
+import com.example.solarsystemsimulation.physics.Integrator;
+import com.example.solarsystemsimulation.physics.PairwiseNewtonianPhysics;
 import com.example.solarsystemsimulation.physics.PhysicsStrategy;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import jdk.jfr.EventType;
 
 /**
  * Główna klasa symulacji - wzorzec State i Observer
  */
 public class Simulation {
+    // Zdarzenie JFR tworzone tylko, gdy nagrywanie je obejmuje
+    private static final EventType STEP_EVENT = EventType.getEventType(PhysicsStepEvent.class);
+
     private final List<CelestialBody> bodies;
+    private final BodyStore bodyStore;
     private final List<SimulationObserver> observers;
     private final PhysicsStrategy physicsStrategy;
     private SimulationState state;
     private double timeStep; // w dniach
     private double speedMultiplier; // mnożnik prędkości
+    private double simulationTime; // czas symulacji w dniach
+    private long stepCount;
+    private ParallelStepExecutor parallelExecutor; // null = tryb sekwencyjny
+    private Integrator integrator; // null = PhysicsStrategy.updateBody
+    private AdaptiveStepController adaptiveStepController; // null = stały krok
+    private BlockTimestepScheme blockTimestepScheme; // null = wspólny krok dla wszystkich ciał
+    private CollisionDetector collisionDetector; // null = ciała przechodzą przez siebie
+    private boolean accelerationsValid; // przyspieszenia odpowiadają bieżącym pozycjom
+    private MetricsRegistry metrics; // null = bez pomiarów
+    private boolean timingPhases; // mierzymy czas faz bieżącego kroku
+    private long accelerationNanos; // czas fazy przyspieszeń w bieżącym kroku
+    private final Integrator.AccelerationEvaluator accelerationEvaluator = store -> computeAccelerations();
+    private final BlockTimestepScheme.ActiveAccelerationEvaluator activeAccelerationEvaluator =
+        this::computeAccelerations;
+    private final Consumer<EncounterEvent> encounterListener = this::notifyObserversEncounter;
 
     public Simulation(PhysicsStrategy physicsStrategy) {
         this.bodies = new ArrayList<>();
+        this.bodyStore = new BodyStore();
         this.observers = new ArrayList<>();
         this.physicsStrategy = physicsStrategy;
         this.state = new StoppedState(this);
@@ -26,19 +55,70 @@ public class Simulation {
     }
 
     public void addBody(CelestialBody body) {
+        body.attachTo(bodyStore);
         bodies.add(body);
+        accelerationsValid = false;
+        if (blockTimestepScheme != null) {
+            blockTimestepScheme.invalidateLevels();
+        }
+    }
+
+    /**
+     * Dodaje count ciał tylko do {@link BodyStore}, bez widoków {@link CelestialBody} (np. setki
+     * tysięcy planetoid z katalogu) i zwraca indeks pierwszego. Stan ciał wpisuje wywołujący
+     * do tablic magazynu. Wymaga strategii tablicowej - ścieżka obiektowa widzi tylko ciała
+     * z {@link #getBodies()}.
+     */
+    public int addBulkBodies(int count) {
+        if (!(physicsStrategy instanceof ArrayPhysicsStrategy)) {
+            throw new IllegalStateException("Ciała bez widoków CelestialBody wymagają strategii tablicowej");
+        }
+        int first = bodyStore.addBulk(count);
+        accelerationsValid = false;
+        if (blockTimestepScheme != null) {
+            blockTimestepScheme.invalidateLevels();
+        }
+        return first;
     }
 
     public List<CelestialBody> getBodies() {
         return new ArrayList<>(bodies);
     }
 
+    /**
+     * Magazyn tablicowy, na który wskazują widoki {@link CelestialBody}
+     */
+    public BodyStore getBodyStore() {
+        return bodyStore;
+    }
+
+    /**
+     * Rejestr, do którego trafiają czasy kroków; null wyłącza pomiary (zdarzenia JFR
+     * są wysyłane niezależnie, gdy nagrywanie je obejmuje)
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
     public void addObserver(SimulationObserver observer) {
         observers.add(observer);
     }
 
+    /**
+     * Dodaje obserwatora z polityką dostarczania; executor == null oznacza dostarczanie
+     * na wątku symulacji ({@link CoalescingObserver})
+     */
+    public void addObserver(SimulationObserver observer, DeliveryPolicy policy, Executor executor) {
+        observers.add(new CoalescingObserver(observer, policy, executor));
+    }
+
     public void removeObserver(SimulationObserver observer) {
-        observers.remove(observer);
+        observers.removeIf(o -> o == observer
+            || o instanceof CoalescingObserver && ((CoalescingObserver) o).getTarget() == observer);
     }
 
     public void setState(SimulationState state) {
@@ -49,6 +129,10 @@ public class Simulation {
         return state;
     }
 
+    public boolean isRunning() {
+        return state instanceof RunningState;
+    }
+
     public void setSpeedMultiplier(double multiplier) {
         this.speedMultiplier = multiplier;
     }
@@ -57,6 +141,139 @@ public class Simulation {
         return speedMultiplier;
     }
 
+    public void setTimeStep(double timeStep) {
+        if (!(timeStep > 0)) {
+            throw new IllegalArgumentException("Krok czasowy musi być dodatni: " + timeStep);
+        }
+        this.timeStep = timeStep;
+    }
+
+    public double getTimeStep() {
+        return timeStep;
+    }
+
+    /**
+     * Czas symulacji w dniach od stanu początkowego
+     */
+    public double getSimulationTime() {
+        return simulationTime;
+    }
+
+    /**
+     * Liczba wykonanych kroków fizyki
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    /**
+     * Włącza równoległe liczenie faz przyspieszeń i integracji.
+     * Wyniki są identyczne bit w bit z trybem sekwencyjnym.
+     */
+    public void setParallelExecution(int parallelism, int chunkSize) {
+        ParallelStepExecutor executor = new ParallelStepExecutor(parallelism, chunkSize);
+        setSequentialExecution();
+        this.parallelExecutor = executor;
+    }
+
+    /**
+     * Wraca do trybu sekwencyjnego i zwalnia wątki puli
+     */
+    public void setSequentialExecution() {
+        if (parallelExecutor != null) {
+            parallelExecutor.close();
+            parallelExecutor = null;
+        }
+    }
+
+    public boolean isParallelExecution() {
+        return parallelExecutor != null;
+    }
+
+    /**
+     * Ustawia metodę całkowania; null przywraca PhysicsStrategy.updateBody
+     */
+    public void setIntegrator(Integrator integrator) {
+        this.integrator = integrator;
+        this.accelerationsValid = false;
+    }
+
+    public Integrator getIntegrator() {
+        return integrator;
+    }
+
+    /**
+     * Włącza adaptacyjny krok czasowy (RKF45) z podaną tolerancją błędu.
+     * Każdy krok symulacji nadal obejmuje timeStep * speedMultiplier dni, ale jest dzielony
+     * na tyle podkroków, ile wymaga dynamika. Ma pierwszeństwo przed ustawionym integratorem.
+     */
+    public void setAdaptiveTimeStep(double tolerance) {
+        this.adaptiveStepController = new AdaptiveStepController(tolerance);
+    }
+
+    /**
+     * Wraca do stałego kroku czasowego
+     */
+    public void disableAdaptiveTimeStep() {
+        this.adaptiveStepController = null;
+        this.accelerationsValid = false;
+    }
+
+    /**
+     * Kontroler kroku adaptacyjnego (liczniki kroków zaakceptowanych i odrzuconych) lub null
+     */
+    public AdaptiveStepController getAdaptiveStepController() {
+        return adaptiveStepController;
+    }
+
+    /**
+     * Włącza hierarchiczne kroki blokowe: każde ciało dostaje krok (timeStep * speedMultiplier) / 2^k,
+     * k ≤ maxLevel, dobrany z kryterium η·|v|/|a|. Siły liczone są tylko dla ciał kończących krok,
+     * więc szybkie planety wewnętrzne nie wymuszają małego kroku na zewnętrznych.
+     * Ma pierwszeństwo przed krokiem adaptacyjnym i integratorem.
+     */
+    public void setBlockTimesteps(int maxLevel, double eta) {
+        this.blockTimestepScheme = new BlockTimestepScheme(maxLevel, eta);
+        this.accelerationsValid = false;
+    }
+
+    /**
+     * Wraca do wspólnego kroku czasowego
+     */
+    public void disableBlockTimesteps() {
+        this.blockTimestepScheme = null;
+        this.accelerationsValid = false;
+    }
+
+    /**
+     * Schemat kroków blokowych (poziomy ciał, liczba obliczeń sił) lub null
+     */
+    public BlockTimestepScheme getBlockTimestepScheme() {
+        return blockTimestepScheme;
+    }
+
+    /**
+     * Włącza wykrywanie zbliżeń i zderzeń po każdym kroku (zdarzenia trafiają do
+     * {@link SimulationObserver#onEncounter}); null wyłącza
+     */
+    public void setCollisionDetector(CollisionDetector collisionDetector) {
+        this.collisionDetector = collisionDetector;
+    }
+
+    /**
+     * Detektor zderzeń (liczniki zdarzeń, ciała usunięte przez zlepienia) lub null
+     */
+    public CollisionDetector getCollisionDetector() {
+        return collisionDetector;
+    }
+
+    /**
+     * Oznacza przyspieszenia jako nieaktualne - do wywołania po zmianie stanu ciał spoza kroku
+     */
+    public void invalidateAccelerations() {
+        accelerationsValid = false;
+    }
+
     // Metody delegowane do stanu (wzorzec State)
     public void start() {
         state.start();
@@ -78,32 +295,190 @@ public class Simulation {
      * Aktualizacja fizyki - oblicza nową pozycję i prędkość dla wszystkich ciał
      */
     public void updatePhysics() {
-        // Oblicz przyspieszenie dla wszystkich ciał
-        List<CelestialBody> bodiesCopy = new ArrayList<>(bodies);
-        for (CelestialBody body : bodies) {
-            if (!body.isSun()) { // Słońce nie porusza się
-                var acceleration = physicsStrategy.calculateAcceleration(body, bodiesCopy);
-                body.setAcceleration(acceleration);
-            }
+        PhysicsStepEvent event = null;
+        if (STEP_EVENT.isEnabled()) {
+            event = new PhysicsStepEvent();
+            event.begin();
         }
-
-        // Aktualizuj pozycje i prędkości
+        timingPhases = metrics != null || event != null;
+        long startNanos = timingPhases ? System.nanoTime() : 0;
+        accelerationNanos = 0;
         double effectiveTimeStep = timeStep * speedMultiplier;
-        for (CelestialBody body : bodies) {
-            if (!body.isSun()) {
-                physicsStrategy.updateBody(body, effectiveTimeStep);
+
+        if (blockTimestepScheme != null) {
+            if (!accelerationsValid) {
+                computeAccelerations();
+            }
+            blockTimestepScheme.advance(bodyStore, effectiveTimeStep, activeAccelerationEvaluator);
+            accelerationsValid = true;
+        } else if (adaptiveStepController != null) {
+            adaptiveStepController.advance(bodyStore, effectiveTimeStep, accelerationEvaluator);
+            accelerationsValid = false;
+        } else if (integrator != null) {
+            if (integrator.isFirstSameAsLast() && !accelerationsValid) {
+                computeAccelerations();
             }
+            integrator.step(bodyStore, effectiveTimeStep, accelerationEvaluator);
+            accelerationsValid = integrator.isFirstSameAsLast();
+        } else {
+            // Oblicz przyspieszenie dla wszystkich ciał, potem aktualizuj pozycje i prędkości
+            computeAccelerations();
+            integrateWithStrategy(effectiveTimeStep);
+            accelerationsValid = false;
         }
 
+        simulationTime += effectiveTimeStep;
+        stepCount++;
+        long collisionNanos = 0;
+        if (collisionDetector != null) {
+            long collisionStart = timingPhases ? System.nanoTime() : 0;
+            if (collisionDetector.update(bodyStore, bodies, simulationTime, effectiveTimeStep, encounterListener)) {
+                // Zlepienia i odbicia zmieniły masy, pozycje lub prędkości
+                accelerationsValid = false;
+                if (blockTimestepScheme != null) {
+                    blockTimestepScheme.invalidateLevels();
+                }
+            }
+            if (timingPhases) {
+                collisionNanos = Math.max(1, System.nanoTime() - collisionStart);
+            }
+        }
+        if (timingPhases) {
+            recordStep(event, System.nanoTime() - startNanos, collisionNanos);
+        }
         notifyObserversUpdate();
     }
 
+    private void recordStep(PhysicsStepEvent event, long stepNanos, long collisionNanos) {
+        if (metrics != null) {
+            metrics.recordStep(stepNanos, accelerationNanos, collisionNanos, bodyStore.size());
+        }
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.step = stepCount;
+            event.bodyCount = bodyStore.size();
+            event.accelerationNanos = accelerationNanos;
+            event.integrationNanos = stepNanos - accelerationNanos - collisionNanos;
+            event.collisionNanos = collisionNanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Faza przyspieszeń - tablicowo lub przez interfejs obiektowy, sekwencyjnie lub równolegle
+     */
+    private void computeAccelerations() {
+        long startNanos = timingPhases ? System.nanoTime() : 0;
+        if (physicsStrategy instanceof ArrayPhysicsStrategy arrayPhysics) {
+            // Ścieżka tablicowa - bez alokacji
+            if (parallelExecutor != null && arrayPhysics instanceof PairwiseNewtonianPhysics pairwise) {
+                // Rundy par kafelków - pary jednej rundy nie współdzielą ciał
+                pairwise.beginAccelerations(bodyStore);
+                for (int round = 0; round < pairwise.getRoundCount(); round++) {
+                    int currentRound = round;
+                    parallelExecutor.forEachTask(pairwise.getTilePairCount(round),
+                        (from, to) -> pairwise.accumulateTilePairs(bodyStore, currentRound, from, to));
+                }
+                pairwise.finishAccelerations(bodyStore);
+            } else if (parallelExecutor != null) {
+                arrayPhysics.prepareAccelerations(bodyStore);
+                parallelExecutor.forEachChunk(bodyStore.size(),
+                    (from, to) -> arrayPhysics.computeAccelerations(bodyStore, from, to));
+            } else {
+                arrayPhysics.computeAccelerations(bodyStore);
+            }
+        } else if (parallelExecutor != null) {
+            List<CelestialBody> bodiesCopy = new ArrayList<>(bodies);
+            parallelExecutor.forEachChunk(bodies.size(), (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    CelestialBody body = bodies.get(i);
+                    if (!body.isFixed()) {
+                        body.setAcceleration(physicsStrategy.calculateAcceleration(body, bodiesCopy));
+                    }
+                }
+            });
+        } else {
+            physicsStrategy.calculateAllAccelerations(bodies);
+        }
+        if (timingPhases) {
+            accelerationNanos += System.nanoTime() - startNanos;
+        }
+    }
+
+    /**
+     * Przyspieszenia tylko wybranych ciał (kroki blokowe); pozostałe ciała zachowują swoje
+     */
+    private void computeAccelerations(int[] indices, int count) {
+        long startNanos = timingPhases ? System.nanoTime() : 0;
+        if (physicsStrategy instanceof ArrayPhysicsStrategy arrayPhysics) {
+            if (parallelExecutor != null) {
+                arrayPhysics.prepareAccelerations(bodyStore);
+                parallelExecutor.forEachChunk(count, (from, to) -> {
+                    for (int k = from; k < to; k++) {
+                        arrayPhysics.computeAccelerations(bodyStore, indices[k], indices[k] + 1);
+                    }
+                });
+            } else {
+                arrayPhysics.computeAccelerations(bodyStore, indices, count);
+            }
+        } else {
+            List<CelestialBody> bodiesCopy = new ArrayList<>(bodies);
+            for (int k = 0; k < count; k++) {
+                CelestialBody body = bodies.get(indices[k]);
+                if (!body.isFixed()) {
+                    body.setAcceleration(physicsStrategy.calculateAcceleration(body, bodiesCopy));
+                }
+            }
+        }
+        if (timingPhases) {
+            accelerationNanos += System.nanoTime() - startNanos;
+        }
+    }
+
+    /**
+     * Faza integracji metodą strategii (gdy nie ustawiono integratora)
+     */
+    private void integrateWithStrategy(double effectiveTimeStep) {
+        if (physicsStrategy instanceof ArrayPhysicsStrategy arrayPhysics) {
+            if (parallelExecutor != null) {
+                parallelExecutor.forEachChunk(bodyStore.size(),
+                    (from, to) -> arrayPhysics.integrate(bodyStore, effectiveTimeStep, from, to));
+            } else {
+                arrayPhysics.integrate(bodyStore, effectiveTimeStep);
+            }
+        } else if (parallelExecutor != null) {
+            parallelExecutor.forEachChunk(bodies.size(), (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    CelestialBody body = bodies.get(i);
+                    if (!body.isFixed()) {
+                        physicsStrategy.updateBody(body, effectiveTimeStep);
+                    }
+                }
+            });
+        } else {
+            for (CelestialBody body : bodies) {
+                if (!body.isFixed()) {
+                    physicsStrategy.updateBody(body, effectiveTimeStep);
+                }
+            }
+        }
+    }
+
     public void notifyObserversUpdate() {
         for (SimulationObserver observer : observers) {
             observer.onSimulationUpdate();
         }
     }
 
+    public void notifyObserversEncounter(EncounterEvent event) {
+        for (SimulationObserver observer : observers) {
+            observer.onEncounter(event);
+        }
+    }
+
     public void notifyObserversStarted() {
         for (SimulationObserver observer : observers) {
             observer.onSimulationStarted();
@@ -130,7 +505,7 @@ public class Simulation {
         for (CelestialBody body : bodies) {
             bodyMementos.add(body.saveToMemento());
         }
-        return new SimulationMemento(bodyMementos, speedMultiplier);
+        return new SimulationMemento(bodyMementos, speedMultiplier, simulationTime, stepCount);
     }
 
     /**
@@ -141,7 +516,44 @@ public class Simulation {
         for (int i = 0; i < bodies.size() && i < bodyMementos.size(); i++) {
             bodies.get(i).restoreFromMemento(bodyMementos.get(i));
         }
-        this.speedMultiplier = memento.getSpeedMultiplier();
+        restoreState(memento.getSpeedMultiplier(), memento.getSimulationTime(), memento.getStepCount());
+    }
+
+    /**
+     * Przywraca parametry symulacji po wpisaniu stanu ciał bezpośrednio do {@link BodyStore}
+     * (np. przez wczytanie pliku binarnego)
+     */
+    public void restoreState(double speedMultiplier, double simulationTime, long stepCount) {
+        this.speedMultiplier = speedMultiplier;
+        this.simulationTime = simulationTime;
+        this.stepCount = stepCount;
+        this.accelerationsValid = false;
+        if (collisionDetector != null) {
+            collisionDetector.revertTo(bodyStore, simulationTime);
+        }
+        if (adaptiveStepController != null) {
+            adaptiveStepController.resetStepSize();
+        }
+        if (blockTimestepScheme != null) {
+            blockTimestepScheme.invalidateLevels();
+        }
+    }
+
+    /**
+     * Wpisuje masy i nieruchomość ciał zapisane razem ze stanem (po {@link #restoreState}).
+     * Zapisany stan zawiera wynik wcześniejszych zlepień, więc zastępuje dziennik detektora zderzeń.
+     */
+    public void restoreMasses(double[] mass, boolean[] fixed, int count) {
+        int n = Math.min(count, bodyStore.size());
+        System.arraycopy(mass, 0, bodyStore.getMassArray(), 0, n);
+        System.arraycopy(fixed, 0, bodyStore.getFixedArray(), 0, n);
+        this.accelerationsValid = false;
+        if (collisionDetector != null) {
+            collisionDetector.resync(bodyStore);
+        }
+        if (blockTimestepScheme != null) {
+            blockTimestepScheme.invalidateLevels();
+        }
     }
 
     /**
@@ -151,11 +563,21 @@ public class Simulation {
         private static final long serialVersionUID = 1L;
         private final List<CelestialBody.CelestialBodyMemento> bodyMementos;
         private final double speedMultiplier;
+        // Pola dodane później - w starszych plikach mają wartość 0
+        private final double simulationTime;
+        private final long stepCount;
 
         public SimulationMemento(List<CelestialBody.CelestialBodyMemento> bodyMementos, 
                                  double speedMultiplier) {
+            this(bodyMementos, speedMultiplier, 0, 0);
+        }
+
+        public SimulationMemento(List<CelestialBody.CelestialBodyMemento> bodyMementos,
+                                 double speedMultiplier, double simulationTime, long stepCount) {
             this.bodyMementos = new ArrayList<>(bodyMementos);
             this.speedMultiplier = speedMultiplier;
+            this.simulationTime = simulationTime;
+            this.stepCount = stepCount;
         }
 
         public List<CelestialBody.CelestialBodyMemento> getBodyMementos() {
@@ -165,5 +587,13 @@ public class Simulation {
         public double getSpeedMultiplier() {
             return speedMultiplier;
         }
+
+        public double getSimulationTime() {
+            return simulationTime;
+        }
+
+        public long getStepCount() {
+            return stepCount;
+        }
     }
 }
@@ -23,4 +23,11 @@ public interface SimulationObserver {
      * Wywoływane gdy symulacja jest resetowana
      */
     void onSimulationReset();
+    
+    /**
+     * Wywoływane po wykryciu zbliżenia lub zderzenia ciał (gdy symulacja ma
+     * {@link CollisionDetector}); domyślnie zdarzenie jest pomijane
+     */
+    default void onEncounter(EncounterEvent event) {
+    }
 }
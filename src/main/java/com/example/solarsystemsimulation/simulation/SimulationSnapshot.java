@@ -0,0 +1,119 @@
+package com.example.solarsystemsimulation.simulation;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import java.util.Arrays;
+
+/**
+ * Migawka stanu ciał przekazywana z wątku symulacji do renderera.
+ * Bufory są używane ponownie przez {@link SnapshotExchange}, ale dopóki czytelnik
+ * trzyma migawkę, wątek symulacji jej nie modyfikuje.
+ * Ciała usunięte przez zlepienia ({@link CollisionDetector}) mają współrzędne NaN.
+ */
+public class SimulationSnapshot {
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private double[] vx = new double[0];
+    private double[] vy = new double[0];
+    private int bodyCount;
+    private long stepCount;
+    private double simulationTime;
+    private long sequence; // numer publikacji, rośnie z każdą nową migawką
+    private SpatialGrid spatialGrid; // tworzona przy pierwszej migawce z indeksem
+    private boolean indexed;
+
+    /**
+     * Kopiuje stan symulacji do migawki (wywoływane przez wątek symulacji)
+     */
+    void copyFrom(Simulation simulation, long sequence, int indexedFrom) {
+        BodyStore store = simulation.getBodyStore();
+        int n = store.size();
+        if (x.length < n) {
+            int capacity = Math.max(n, x.length * 2);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            vx = Arrays.copyOf(vx, capacity);
+            vy = Arrays.copyOf(vy, capacity);
+        }
+        System.arraycopy(store.getXArray(), 0, x, 0, n);
+        System.arraycopy(store.getYArray(), 0, y, 0, n);
+        System.arraycopy(store.getVxArray(), 0, vx, 0, n);
+        System.arraycopy(store.getVyArray(), 0, vy, 0, n);
+        this.bodyCount = n;
+        this.stepCount = simulation.getStepCount();
+        this.simulationTime = simulation.getSimulationTime();
+        this.sequence = sequence;
+
+        CollisionDetector detector = simulation.getCollisionDetector();
+        if (detector != null) {
+            for (int k = 0; k < detector.getRemovedCount(); k++) {
+                int i = detector.getRemovedIndex(k);
+                if (i < n) {
+                    x[i] = Double.NaN;
+                    y[i] = Double.NaN;
+                }
+            }
+        }
+
+        indexed = indexedFrom >= 0 && indexedFrom < n;
+        if (indexed) {
+            if (spatialGrid == null) {
+                spatialGrid = new SpatialGrid();
+            }
+            spatialGrid.build(x, y, indexedFrom, n);
+        }
+    }
+
+    /**
+     * Siatka przestrzenna ciał od indeksu ustawionego w {@link SnapshotExchange#setIndexedFrom}
+     * lub null, jeśli migawka nie ma indeksu
+     */
+    public SpatialGrid getSpatialGrid() {
+        return indexed ? spatialGrid : null;
+    }
+
+    public int getBodyCount() {
+        return bodyCount;
+    }
+
+    public double getX(int index) {
+        return x[index];
+    }
+
+    public double getY(int index) {
+        return y[index];
+    }
+
+    public double getVx(int index) {
+        return vx[index];
+    }
+
+    public double getVy(int index) {
+        return vy[index];
+    }
+
+    /**
+     * Pozycje X (tablica może być dłuższa niż liczba ciał)
+     */
+    public double[] getXArray() {
+        return x;
+    }
+
+    /**
+     * Pozycje Y (tablica może być dłuższa niż liczba ciał)
+     */
+    public double[] getYArray() {
+        return y;
+    }
+
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    public double getSimulationTime() {
+        return simulationTime;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.solarsystemsimulation.simulation;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Osobny wątek liczący fizykę ze stałym krokiem czasowym.
+ *
+ * Wątek wykonuje {@code stepsPerSecond} kroków na sekundę czasu rzeczywistego niezależnie
+ * od odświeżania ekranu i po każdej porcji kroków publikuje migawkę w {@link SnapshotExchange}.
+ * Wszystkie zmiany symulacji z innych wątków (start, stop, reset, wczytanie) należy zlecać
+ * przez {@link #execute} lub {@link #call} - są wykonywane pomiędzy krokami, najpóźniej po
+ * zakończeniu bieżącego kroku.
+ *
+ * Wyjątek z kroku (fizyka, obserwatorzy) nie kończy wątku: symulacja jest zatrzymywana,
+ * a błąd trafia do {@link #setErrorHandler obsługi błędów}. Polecenia zlecone po zakończeniu
+ * wątku są kończone wyjątkiem zamiast czekać w kolejce.
+ */
+public class SimulationThread {
+    public static final double DEFAULT_STEPS_PER_SECOND = 60.0;
+
+    // Częstotliwość budzenia wątku - kilka razy na klatkę ekranu
+    private static final long TICK_NANOS = 1_000_000_000L / 240;
+
+    private final Simulation simulation;
+    private final SnapshotExchange snapshots = new SnapshotExchange();
+    private final Queue<Command<?>> commands = new ConcurrentLinkedQueue<>();
+    private volatile double stepsPerSecond = DEFAULT_STEPS_PER_SECOND;
+    private volatile int maxStepsPerTick = 10_000;
+    private volatile boolean running;
+    private volatile boolean terminated;
+    private volatile Thread thread;
+    private volatile Consumer<Throwable> errorHandler;
+
+    public SimulationThread(Simulation simulation) {
+        this.simulation = simulation;
+    }
+
+    /**
+     * Uruchamia wątek symulacji (symulacja zaczyna liczyć dopiero po simulation.start())
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        terminated = false;
+        thread = new Thread(this::runLoop, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Zatrzymuje wątek i czeka na jego zakończenie
+     */
+    public synchronized void shutdown() throws InterruptedException {
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join();
+        thread = null;
+    }
+
+    /**
+     * Liczba kroków fizyki na sekundę czasu rzeczywistego
+     */
+    public void setStepsPerSecond(double stepsPerSecond) {
+        if (!(stepsPerSecond > 0)) {
+            throw new IllegalArgumentException("Liczba kroków na sekundę musi być dodatnia: " + stepsPerSecond);
+        }
+        this.stepsPerSecond = stepsPerSecond;
+    }
+
+    public double getStepsPerSecond() {
+        return stepsPerSecond;
+    }
+
+    /**
+     * Górny limit kroków w jednym cyklu - gdy procesor nie nadąża, symulacja zwalnia
+     * zamiast nadrabiać zaległości w nieskończoność
+     */
+    public void setMaxStepsPerTick(int maxStepsPerTick) {
+        if (maxStepsPerTick < 1) {
+            throw new IllegalArgumentException("Limit kroków musi być dodatni: " + maxStepsPerTick);
+        }
+        this.maxStepsPerTick = maxStepsPerTick;
+    }
+
+    /**
+     * Obsługa błędu kroku symulacji - wywoływana na wątku symulacji po zatrzymaniu symulacji
+     * (null = domyślna obsługa nieprzechwyconych wyjątków wątku)
+     */
+    public void setErrorHandler(Consumer<Throwable> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Buduje w migawkach siatkę przestrzenną ciał od indeksu first (-1 = bez indeksu) -
+     * na wątku symulacji, poza wątkiem rysującym
+     */
+    public void setSpatialIndex(int first) {
+        snapshots.setIndexedFrom(first);
+    }
+
+    /**
+     * Najnowsza migawka stanu - dla jednego wątku czytającego (renderera)
+     */
+    public SimulationSnapshot latestSnapshot() {
+        return snapshots.acquire();
+    }
+
+    /**
+     * Zleca operację na symulacji; wykonywana na wątku symulacji pomiędzy krokami
+     */
+    public CompletableFuture<Void> execute(Runnable command) {
+        return call(() -> {
+            command.run();
+            return null;
+        });
+    }
+
+    /**
+     * Zleca operację z wynikiem; wykonywana na wątku symulacji pomiędzy krokami
+     * (lub od razu, jeśli wątek nie został uruchomiony)
+     */
+    public <T> CompletableFuture<T> call(Callable<T> command) {
+        Command<T> task = new Command<>(command);
+        Thread current = thread;
+        if (current == null) {
+            task.run();
+        } else {
+            commands.add(task);
+            LockSupport.unpark(current);
+            if (terminated) {
+                failCommands(); // wątek zakończył się przed pobraniem polecenia
+            }
+        }
+        return task.result;
+    }
+
+    private void runLoop() {
+        try {
+            loop();
+            runCommands();
+        } finally {
+            terminated = true;
+            failCommands();
+        }
+    }
+
+    private void loop() {
+        snapshots.publish(simulation);
+        double pendingSteps = 0;
+        long lastNanos = System.nanoTime();
+
+        while (running) {
+            boolean changed = runCommands();
+
+            long now = System.nanoTime();
+            if (simulation.isRunning()) {
+                pendingSteps += (now - lastNanos) * stepsPerSecond / 1e9;
+                int limit = maxStepsPerTick;
+                int steps = (int) Math.min(pendingSteps, limit);
+                pendingSteps -= steps;
+                if (pendingSteps > limit) {
+                    pendingSteps = 0; // nie nadrabiamy zaległości
+                }
+                int executed = 0;
+                while (executed < steps && running && simulation.isRunning()) {
+                    try {
+                        simulation.update();
+                    } catch (Throwable e) {
+                        stopAfterFailure(e);
+                        break;
+                    }
+                    executed++;
+                    if (!commands.isEmpty()) {
+                        break; // polecenie (np. kopia stanu do zapisu) czeka najwyżej jeden krok
+                    }
+                }
+                pendingSteps += steps - executed;
+                changed |= executed > 0;
+            } else {
+                pendingSteps = 0;
+            }
+            lastNanos = now;
+
+            if (changed) {
+                try {
+                    snapshots.publish(simulation);
+                } catch (Throwable e) {
+                    stopAfterFailure(e);
+                }
+            }
+
+            long sleepNanos = TICK_NANOS - (System.nanoTime() - now);
+            if (sleepNanos > 0 && commands.isEmpty()) {
+                LockSupport.parkNanos(this, sleepNanos);
+            }
+        }
+    }
+
+    /**
+     * Zatrzymuje symulację po wyjątku z kroku i przekazuje błąd do obsługi
+     */
+    private void stopAfterFailure(Throwable error) {
+        try {
+            simulation.stop();
+        } catch (Throwable e) {
+            error.addSuppressed(e);
+        }
+        Consumer<Throwable> handler = errorHandler;
+        Thread current = Thread.currentThread();
+        try {
+            if (handler != null) {
+                handler.accept(error);
+            } else {
+                current.getUncaughtExceptionHandler().uncaughtException(current, error);
+            }
+        } catch (Throwable e) {
+            e.addSuppressed(error);
+            e.printStackTrace();
+        }
+    }
+
+    private boolean runCommands() {
+        boolean executed = false;
+        Command<?> command;
+        while ((command = commands.poll()) != null) {
+            command.run();
+            executed = true;
+        }
+        return executed;
+    }
+
+    /**
+     * Kończy wyjątkiem polecenia, których zakończony wątek już nie wykona
+     */
+    private void failCommands() {
+        Command<?> command;
+        while ((command = commands.poll()) != null) {
+            command.result.completeExceptionally(new IllegalStateException("Wątek symulacji nie działa"));
+        }
+    }
+
+    /**
+     * Polecenie z wynikiem - wyjątek polecenia kończy wynik zamiast przerwać wątek
+     */
+    private static final class Command<T> {
+        private final Callable<T> action;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Command(Callable<T> action) {
+            this.action = action;
+        }
+
+        private void run() {
+            try {
+                result.complete(action.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
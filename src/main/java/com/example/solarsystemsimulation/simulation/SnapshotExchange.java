@@ -0,0 +1,53 @@
+package com.example.solarsystemsimulation.simulation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bezblokadowe przekazywanie migawek między jednym pisarzem (wątek symulacji)
+ * a jednym czytelnikiem (wątek JavaFX).
+ *
+ * Trzy bufory: pisarz wypełnia swój bufor i podmienia go ze środkowym jedną operacją
+ * atomową, czytelnik zabiera środkowy tylko gdy jest nowszy niż ten, który trzyma.
+ * Żadna ze stron nigdy nie czeka na drugą.
+ */
+public class SnapshotExchange {
+    private static final int INDEX_MASK = 0b011;
+    private static final int FRESH = 0b100;
+
+    private final SimulationSnapshot[] buffers = {
+        new SimulationSnapshot(), new SimulationSnapshot(), new SimulationSnapshot()
+    };
+    // Indeks bufora środkowego + flaga "nowa migawka"
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int writeIndex = 0; // tylko wątek pisarza
+    private int readIndex = 2; // tylko wątek czytelnika
+    private long sequence; // tylko wątek pisarza
+    private volatile int indexedFrom = -1;
+
+    /**
+     * Migawki będą zawierać siatkę przestrzenną ({@link SpatialGrid}) ciał od indeksu first;
+     * -1 wyłącza indeks. Siatka jest budowana przez pisarza, więc czytelnik dostaje ją gotową.
+     */
+    public void setIndexedFrom(int first) {
+        this.indexedFrom = first;
+    }
+
+    /**
+     * Zapisuje bieżący stan symulacji i udostępnia go czytelnikowi
+     */
+    public void publish(Simulation simulation) {
+        buffers[writeIndex].copyFrom(simulation, ++sequence, indexedFrom);
+        writeIndex = middle.getAndSet(writeIndex | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Zwraca najnowszą opublikowaną migawkę (lub poprzednią, jeśli nie ma nowej).
+     * Zwrócona migawka pozostaje ważna do następnego wywołania tej metody.
+     */
+    public SimulationSnapshot acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            readIndex = middle.getAndSet(readIndex) & INDEX_MASK;
+        }
+        return buffers[readIndex];
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.solarsystemsimulation.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Jednorodna siatka przestrzenna pozycji ciał z piramidą poziomów (każdy poziom łączy
+ * komórki 2×2 poprzedniego).
+ *
+ * Pozwala odwiedzić tylko ciała z zadanego prostokąta, a gdy komórki są mniejsze niż piksel -
+ * tylko punkty zbiorcze (środek masy ciał komórki z ich liczbą), więc koszt zależy od widocznego
+ * obszaru, a nie od liczby ciał. Budowa to sortowanie przez zliczanie, O(N), bez alokacji
+ * po pierwszym użyciu (poza wzrostem liczby ciał).
+ */
+public class SpatialGrid {
+    private static final int MIN_SIDE = 16;
+    private static final int MAX_SIDE = 512;
+    private static final int BODIES_PER_CELL = 4;
+
+    /**
+     * Odbiorca punktów: pojedyncze ciało (weight = 1) lub punkt zbiorczy komórki
+     */
+    @FunctionalInterface
+    public interface PointVisitor {
+        void visit(double x, double y, int weight);
+    }
+
+    private double[] x;
+    private double[] y;
+    private int count;
+    private int side;
+    private int levels;
+    private double minX;
+    private double minY;
+    private double cellSize; // bok komórki poziomu 0 w AU
+    private int[] cellOf = new int[0];
+    private int[] order = new int[0]; // indeksy ciał posortowane według komórek
+    private int[] cellStart = new int[0];
+    private int[] cursor = new int[0];
+    private int[][] counts = new int[0][];
+    private double[][] sumX = new double[0][];
+    private double[][] sumY = new double[0][];
+
+    /**
+     * Buduje siatkę dla ciał [first, end) z tablic x, y (tablice muszą pozostać niezmienione,
+     * dopóki siatka jest używana)
+     */
+    public void build(double[] x, double[] y, int first, int end) {
+        this.x = x;
+        this.y = y;
+        this.count = Math.max(0, end - first);
+        int target = (int) Math.sqrt((double) count / BODIES_PER_CELL);
+        int newSide = Math.min(MAX_SIDE, Math.max(MIN_SIDE, Integer.highestOneBit(Math.max(1, target)) << 1));
+        allocate(newSide);
+
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        minX = Double.POSITIVE_INFINITY;
+        minY = Double.POSITIVE_INFINITY;
+        for (int i = first; i < end; i++) {
+            double xi = x[i];
+            double yi = y[i];
+            if (Double.isFinite(xi) && Double.isFinite(yi)) {
+                minX = Math.min(minX, xi);
+                maxX = Math.max(maxX, xi);
+                minY = Math.min(minY, yi);
+                maxY = Math.max(maxY, yi);
+            }
+        }
+        double extent = Math.max(maxX - minX, maxY - minY);
+        if (!(extent > 0)) {
+            extent = 1e-9; // jedno położenie lub brak ciał o skończonych współrzędnych
+        }
+        cellSize = extent / side * (1 + 1e-9);
+
+        // Poziom 0: liczba ciał i sumy współrzędnych w komórkach
+        int[] counts0 = counts[0];
+        double[] sumX0 = sumX[0];
+        double[] sumY0 = sumY[0];
+        Arrays.fill(counts0, 0);
+        Arrays.fill(sumX0, 0);
+        Arrays.fill(sumY0, 0);
+        for (int k = 0; k < count; k++) {
+            int i = first + k;
+            int cell = cellIndex(x[i], y[i]);
+            cellOf[k] = cell;
+            if (cell >= 0) {
+                counts0[cell]++;
+                sumX0[cell] += x[i];
+                sumY0[cell] += y[i];
+            }
+        }
+
+        // Sortowanie przez zliczanie: ciała każdej komórki leżą obok siebie w order
+        int cells = side * side;
+        cellStart[0] = 0;
+        for (int c = 0; c < cells; c++) {
+            cellStart[c + 1] = cellStart[c] + counts0[c];
+        }
+        System.arraycopy(cellStart, 0, cursor, 0, cells);
+        for (int k = 0; k < count; k++) {
+            int cell = cellOf[k];
+            if (cell >= 0) {
+                order[cursor[cell]++] = first + k;
+            }
+        }
+
+        // Wyższe poziomy piramidy
+        for (int level = 1; level < levels; level++) {
+            int s = side >> level;
+            int childSide = s << 1;
+            int[] parentCounts = counts[level];
+            int[] childCounts = counts[level - 1];
+            double[] parentX = sumX[level];
+            double[] parentY = sumY[level];
+            double[] childX = sumX[level - 1];
+            double[] childY = sumY[level - 1];
+            for (int cy = 0; cy < s; cy++) {
+                for (int cx = 0; cx < s; cx++) {
+                    int a = (2 * cy) * childSide + 2 * cx;
+                    int b = a + childSide;
+                    int parent = cy * s + cx;
+                    parentCounts[parent] = childCounts[a] + childCounts[a + 1] + childCounts[b] + childCounts[b + 1];
+                    parentX[parent] = childX[a] + childX[a + 1] + childX[b] + childX[b + 1];
+                    parentY[parent] = childY[a] + childY[a + 1] + childY[b] + childY[b + 1];
+                }
+            }
+        }
+    }
+
+    private void allocate(int newSide) {
+        if (cellOf.length < count) {
+            cellOf = new int[Math.max(count, cellOf.length * 2)];
+            order = new int[cellOf.length];
+        }
+        if (newSide == side) {
+            return;
+        }
+        side = newSide;
+        levels = Integer.numberOfTrailingZeros(side) + 1;
+        cellStart = new int[side * side + 1];
+        cursor = new int[side * side];
+        counts = new int[levels][];
+        sumX = new double[levels][];
+        sumY = new double[levels][];
+        for (int level = 0; level < levels; level++) {
+            int s = side >> level;
+            counts[level] = new int[s * s];
+            sumX[level] = new double[s * s];
+            sumY[level] = new double[s * s];
+        }
+    }
+
+    private int cellIndex(double xi, double yi) {
+        if (!Double.isFinite(xi) || !Double.isFinite(yi)) {
+            return -1;
+        }
+        int cx = Math.min(side - 1, (int) ((xi - minX) / cellSize));
+        int cy = Math.min(side - 1, (int) ((yi - minY) / cellSize));
+        return cy * side + cx;
+    }
+
+    /**
+     * Odwiedza ciała w prostokącie [fromX, toX] × [fromY, toY] (AU). Jeśli komórki są mniejsze
+     * niż pixelSize (AU na piksel), zamiast ciał odwiedza punkty zbiorcze najgrubszego poziomu
+     * o komórkach nie większych niż piksel.
+     */
+    public void visit(double fromX, double fromY, double toX, double toY, double pixelSize, PointVisitor visitor) {
+        double extent = cellSize * side;
+        if (count == 0 || toX < minX || toY < minY || fromX > minX + extent || fromY > minY + extent) {
+            return;
+        }
+        int level = -1;
+        double size = cellSize;
+        while (level + 1 < levels && size <= pixelSize) {
+            level++;
+            size *= 2;
+        }
+        if (level < 0) {
+            visitBodies(fromX, fromY, toX, toY, visitor);
+        } else {
+            visitCells(level, fromX, fromY, toX, toY, visitor);
+        }
+    }
+
+    private void visitBodies(double fromX, double fromY, double toX, double toY, PointVisitor visitor) {
+        int cx0 = clampCell(fromX - minX, cellSize, side);
+        int cx1 = clampCell(toX - minX, cellSize, side);
+        int cy0 = clampCell(fromY - minY, cellSize, side);
+        int cy1 = clampCell(toY - minY, cellSize, side);
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                int cell = cy * side + cx;
+                for (int j = cellStart[cell]; j < cellStart[cell + 1]; j++) {
+                    int i = order[j];
+                    double xi = x[i];
+                    double yi = y[i];
+                    if (xi >= fromX && xi <= toX && yi >= fromY && yi <= toY) {
+                        visitor.visit(xi, yi, 1);
+                    }
+                }
+            }
+        }
+    }
+
+    private void visitCells(int level, double fromX, double fromY, double toX, double toY, PointVisitor visitor) {
+        int s = side >> level;
+        double size = cellSize * (1 << level);
+        int cx0 = clampCell(fromX - minX, size, s);
+        int cx1 = clampCell(toX - minX, size, s);
+        int cy0 = clampCell(fromY - minY, size, s);
+        int cy1 = clampCell(toY - minY, size, s);
+        int[] levelCounts = counts[level];
+        double[] levelX = sumX[level];
+        double[] levelY = sumY[level];
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                int cell = cy * s + cx;
+                int n = levelCounts[cell];
+                if (n > 0) {
+                    visitor.visit(levelX[cell] / n, levelY[cell] / n, n);
+                }
+            }
+        }
+    }
+
+    private static int clampCell(double offset, double size, int side) {
+        double cell = Math.floor(offset / size);
+        return (int) Math.max(0, Math.min(side - 1, cell));
+    }
+
+    /**
+     * Liczba zaindeksowanych ciał
+     */
+    public int getCount() {
+        return count;
+    }
+}
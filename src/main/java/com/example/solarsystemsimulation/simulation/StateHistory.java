@@ -0,0 +1,179 @@
+package com.example.solarsystemsimulation.simulation;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+
+/**
+ * Historia ostatnich stanów symulacji do przewijania (Observer) - bufor cykliczny
+ * spakowanych tablic double zapisywanych co K kroków.
+ *
+ * Każdy stan to jedna tablica {x, y, vx, vy, ax, ay} (6·N liczb); tablice są alokowane
+ * raz i używane ponownie, a liczba stanów wynika z budżetu pamięci. Po przepełnieniu
+ * najstarsze stany są nadpisywane. Gdy nawet jeden stan nie mieści się w budżecie, historia
+ * jest wyłączona ({@link #getCapacity()} = 0, {@link #capture()} nic nie robi).
+ * Wszystkie metody poza {@link #size()} należy wywoływać na wątku symulacji.
+ */
+public class StateHistory implements SimulationObserver {
+    private static final int STATE_ARRAYS = 6;
+    private static final long SLOT_OVERHEAD_BYTES = 16 + Long.BYTES + 2 * Double.BYTES;
+
+    private final Simulation simulation;
+    private final long memoryBudgetBytes;
+    private final int recordInterval;
+
+    private int bodyCount = -1;
+    private double[][] slots = new double[0][];
+    private long[] steps = new long[0];
+    private double[] times = new double[0];
+    private double[] speeds = new double[0];
+    private int head; // indeks najstarszego stanu w buforze
+    private volatile int count;
+    private int restoredIndex = -1; // stan wczytany przez restore, -1 = brak
+
+    /**
+     * @param memoryBudgetBytes maksymalny rozmiar przechowywanych stanów w bajtach
+     * @param recordInterval    co ile kroków zapamiętywać stan
+     */
+    public StateHistory(Simulation simulation, long memoryBudgetBytes, int recordInterval) {
+        if (memoryBudgetBytes < 1 || recordInterval < 1) {
+            throw new IllegalArgumentException("Budżet pamięci i odstęp zapisu muszą być dodatnie");
+        }
+        this.simulation = simulation;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.recordInterval = recordInterval;
+    }
+
+    @Override
+    public void onSimulationUpdate() {
+        if (simulation.getStepCount() % recordInterval == 0) {
+            capture();
+        }
+    }
+
+    @Override
+    public void onSimulationStarted() {
+    }
+
+    @Override
+    public void onSimulationStopped() {
+    }
+
+    @Override
+    public void onSimulationReset() {
+    }
+
+    /**
+     * Zapamiętuje bieżący stan. Jeśli wcześniej cofnięto symulację, stany nowsze od
+     * wczytanego są porzucane - historia rozgałęzia się od punktu powrotu.
+     */
+    public void capture() {
+        BodyStore store = simulation.getBodyStore();
+        int n = store.size();
+        if (n != bodyCount) {
+            allocate(n);
+        }
+        if (slots.length == 0) {
+            return; // stan nie mieści się w budżecie
+        }
+        if (restoredIndex >= 0) {
+            count = restoredIndex + 1;
+            restoredIndex = -1;
+        }
+
+        int slot;
+        if (count < slots.length) {
+            slot = (head + count) % slots.length;
+        } else {
+            slot = head; // nadpisujemy najstarszy stan
+            head = (head + 1) % slots.length;
+        }
+        if (slots[slot] == null) {
+            slots[slot] = new double[STATE_ARRAYS * n];
+        }
+
+        double[] packed = slots[slot];
+        System.arraycopy(store.getXArray(), 0, packed, 0, n);
+        System.arraycopy(store.getYArray(), 0, packed, n, n);
+        System.arraycopy(store.getVxArray(), 0, packed, 2 * n, n);
+        System.arraycopy(store.getVyArray(), 0, packed, 3 * n, n);
+        System.arraycopy(store.getAxArray(), 0, packed, 4 * n, n);
+        System.arraycopy(store.getAyArray(), 0, packed, 5 * n, n);
+        steps[slot] = simulation.getStepCount();
+        times[slot] = simulation.getSimulationTime();
+        speeds[slot] = simulation.getSpeedMultiplier();
+        if (count < slots.length) {
+            count++;
+        }
+    }
+
+    /**
+     * Przywraca stan o podanym indeksie (0 = najstarszy, size() - 1 = najnowszy).
+     * Nowsze stany pozostają dostępne, dopóki symulacja nie zapisze kolejnego stanu.
+     */
+    public void restore(int index) {
+        int slot = slot(index);
+        BodyStore store = simulation.getBodyStore();
+        int n = bodyCount;
+        double[] packed = slots[slot];
+        System.arraycopy(packed, 0, store.getXArray(), 0, n);
+        System.arraycopy(packed, n, store.getYArray(), 0, n);
+        System.arraycopy(packed, 2 * n, store.getVxArray(), 0, n);
+        System.arraycopy(packed, 3 * n, store.getVyArray(), 0, n);
+        System.arraycopy(packed, 4 * n, store.getAxArray(), 0, n);
+        System.arraycopy(packed, 5 * n, store.getAyArray(), 0, n);
+        simulation.restoreState(speeds[slot], times[slot], steps[slot]);
+        restoredIndex = index;
+    }
+
+    /**
+     * Usuwa wszystkie stany (bufory zostają w puli)
+     */
+    public void clear() {
+        head = 0;
+        count = 0;
+        restoredIndex = -1;
+    }
+
+    /**
+     * Liczba zapamiętanych stanów - można czytać z dowolnego wątku
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Maksymalna liczba stanów mieszczących się w budżecie pamięci
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    public long getStep(int index) {
+        return steps[slot(index)];
+    }
+
+    public double getTime(int index) {
+        return times[slot(index)];
+    }
+
+    private int slot(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Brak stanu " + index + " (zapamiętano " + count + ")");
+        }
+        return (head + index) % slots.length;
+    }
+
+    /**
+     * Wyznacza pojemność z budżetu (0, gdy nie mieści się ani jeden stan); zmiana liczby
+     * ciał unieważnia historię
+     */
+    private void allocate(int n) {
+        long slotBytes = (long) STATE_ARRAYS * Double.BYTES * n + SLOT_OVERHEAD_BYTES;
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, memoryBudgetBytes / slotBytes);
+        slots = new double[capacity][];
+        steps = new long[capacity];
+        times = new double[capacity];
+        speeds = new double[capacity];
+        bodyCount = n;
+        clear();
+    }
+}
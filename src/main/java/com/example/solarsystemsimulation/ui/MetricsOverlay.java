@@ -0,0 +1,60 @@
+package com.example.solarsystemsimulation.ui;
+
+import com.example.solarsystemsimulation.metrics.LatencyHistogram;
+import com.example.solarsystemsimulation.metrics.MetricsRegistry;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import java.util.Locale;
+
+/**
+ * Nakładka HUD z metrykami wydajności w prawym górnym rogu canvasu.
+ * Rysowana razem z legendą, najwyżej cztery razy na sekundę ({@link SimulationRenderer}).
+ */
+class MetricsOverlay {
+    private static final Font FONT = new Font("Monospaced", 11);
+    private static final Color BACKGROUND = Color.rgb(0, 0, 0, 0.7);
+    private static final double WIDTH = 360;
+    private static final double LINE_HEIGHT = 14;
+
+    private final MetricsRegistry metrics;
+    private final String[] lines = new String[6];
+
+    MetricsOverlay(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    void draw(GraphicsContext gc, double canvasWidth) {
+        refresh();
+        double x = canvasWidth - WIDTH - 5;
+        gc.setFill(BACKGROUND);
+        gc.fillRect(x, 5, WIDTH, lines.length * LINE_HEIGHT + 10);
+        gc.setFill(Color.LIGHTGREEN);
+        gc.setFont(FONT);
+        double y = 20;
+        for (String line : lines) {
+            gc.fillText(line, x + 8, y);
+            y += LINE_HEIGHT;
+        }
+    }
+
+    private void refresh() {
+        LatencyHistogram step = metrics.getStepLatency();
+        LatencyHistogram render = metrics.getRenderLatency();
+        lines[0] = String.format(Locale.ROOT, "kroki/s: %.0f  ciała*kroki/s: %.3g  ciała: %d",
+            metrics.getStepRate().getRate(), metrics.getBodyStepRate().getRate(), metrics.getBodyCount());
+        lines[1] = String.format(Locale.ROOT, "krok p50/p99/max: %.1f / %.1f / %.1f µs",
+            step.getPercentile(0.5) / 1e3, step.getPercentile(0.99) / 1e3, step.getMaxNanos() / 1e3);
+        lines[2] = String.format(Locale.ROOT, "  przyspieszenia p50: %.1f µs  integracja p50: %.1f µs",
+            metrics.getAccelerationLatency().getPercentile(0.5) / 1e3,
+            metrics.getIntegrationLatency().getPercentile(0.5) / 1e3);
+        LatencyHistogram collisions = metrics.getCollisionLatency();
+        lines[3] = collisions.getCount() > 0
+            ? String.format(Locale.ROOT, "  zderzenia p50: %.1f µs", collisions.getPercentile(0.5) / 1e3)
+            : "  zderzenia: wyłączone";
+        lines[4] = String.format(Locale.ROOT, "alokacje wątku kroków: %.2f MB/s",
+            metrics.getAllocationRate().getRate() / 1e6);
+        lines[5] = String.format(Locale.ROOT, "rysowanie p50/p99: %.2f / %.2f ms  %.0f kl./s",
+            render.getPercentile(0.5) / 1e6, render.getPercentile(0.99) / 1e6, metrics.getFrameRate().getRate());
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.solarsystemsimulation.ui;
+
+/**
+ * Dopisywanie liczb stałoprzecinkowych do StringBuilder bez {@code String.format}
+ * (bez parsowania wzorca i obiektów Formatter przy każdym odświeżeniu)
+ */
+final class NumberText {
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1000, 10_000, 100_000, 1_000_000};
+
+    private NumberText() {
+    }
+
+    /**
+     * Dopisuje value zaokrągloną do decimals miejsc po przecinku (kropka dziesiętna)
+     */
+    static StringBuilder appendFixed(StringBuilder out, double value, int decimals) {
+        long scale = POWERS_OF_TEN[decimals];
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= Long.MAX_VALUE / scale) {
+            return out.append(value);
+        }
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) {
+            out.append('-');
+        }
+        out.append(scaled / scale);
+        if (decimals > 0) {
+            out.append('.');
+            long fraction = scaled % scale;
+            for (long digit = scale / 10; digit > 0; digit /= 10) {
+                out.append((char) ('0' + fraction / digit % 10));
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.solarsystemsimulation.ui;
+
+import com.example.solarsystemsimulation.model.CelestialBody;
+import com.example.solarsystemsimulation.simulation.SimulationSnapshot;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import java.util.List;
+
+/**
+ * Ślady orbit: ostatnie położenia ciał z listy w jednym, z góry zaalokowanym buforze cyklicznym.
+ *
+ * Położenia są zapisywane z migawek najwyżej co {@code interval} dni symulacji (decymacja),
+ * a każde ciało ma {@code length} ostatnich próbek. Łączny rozmiar bufora nie przekracza
+ * limitu pamięci podanego w konstruktorze - przy wielu ciałach ślady są odpowiednio krótsze.
+ * Po zapełnieniu najstarsze próbki są nadpisywane, więc nic nie jest alokowane w kolejnych
+ * klatkach. Cofnięcie czasu (reset, oś czasu, wczytanie stanu) czyści ślady.
+ *
+ * Każdy ślad jest rysowany kilkoma łamanymi ({@link #FADE_BANDS}, po jednej na przedział
+ * wieku), coraz mniej przezroczystymi - canvas nie zmienia krycia wzdłuż jednej łamanej.
+ */
+public class OrbitTrails {
+    public static final long DEFAULT_MAX_BYTES = 8L << 20;
+    public static final int DEFAULT_LENGTH = 2048;
+    public static final double DEFAULT_INTERVAL = 0.5; // dni
+    static final int FADE_BANDS = 4;
+    private static final double MAX_OPACITY = 0.8;
+    private static final int BYTES_PER_SAMPLE = 2 * Double.BYTES;
+
+    private final long maxBytes;
+    private int length = DEFAULT_LENGTH;
+    private double interval = DEFAULT_INTERVAL;
+
+    // Bufor [ciało][próbka][x, y]; wspólna głowa, bo wszystkie ciała są próbkowane razem
+    private double[] points = new double[0];
+    private int bodyCount;
+    private int capacity; // próbek na ciało
+    private int head; // miejsce następnej próbki
+    private int size;
+    private double lastSampleTime = Double.NaN;
+    private List<CelestialBody> sampledBodies;
+    private Color[][] bandColors = new Color[0][];
+
+    // Współrzędne ekranowe jednej łamanej (bez alokacji w klatce)
+    private double[] screenX = new double[0];
+    private double[] screenY = new double[0];
+
+    public OrbitTrails(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Limit pamięci nie może być ujemny: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Długość śladu (próbek na ciało) i odstęp próbek w dniach symulacji; czyści ślady
+     */
+    public void configure(int length, double interval) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Długość śladu nie może być ujemna: " + length);
+        }
+        if (!(interval >= 0)) {
+            throw new IllegalArgumentException("Odstęp próbek nie może być ujemny: " + interval);
+        }
+        this.length = length;
+        this.interval = interval;
+        sampledBodies = null;
+    }
+
+    /**
+     * Usuwa zapamiętane położenia
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+        lastSampleTime = Double.NaN;
+    }
+
+    /**
+     * Zapisuje położenia ciał z migawki, jeśli od poprzedniej próbki minął odstęp decymacji
+     */
+    void sample(List<CelestialBody> bodies, SimulationSnapshot snapshot) {
+        if (bodies != sampledBodies) {
+            allocate(bodies);
+        }
+        if (capacity == 0) {
+            return;
+        }
+        double time = snapshot.getSimulationTime();
+        if (time < lastSampleTime || interval > 0 && time - lastSampleTime > interval * capacity) {
+            clear(); // cofnięcie lub skok w czasie - stary ślad nie łączy się z nowym stanem
+        }
+        if (time - lastSampleTime < interval) {
+            return;
+        }
+        for (int b = 0; b < bodyCount; b++) {
+            int i = bodies.get(b).getIndex();
+            int offset = (b * capacity + head) * 2;
+            points[offset] = snapshot.getX(i);
+            points[offset + 1] = snapshot.getY(i);
+        }
+        head = (head + 1) % capacity;
+        size = Math.min(size + 1, capacity);
+        lastSampleTime = time;
+    }
+
+    /**
+     * Rozmiar bufora według długości śladu i limitu pamięci
+     */
+    private void allocate(List<CelestialBody> bodies) {
+        sampledBodies = bodies;
+        bodyCount = bodies.size();
+        long perBody = bodyCount > 0 ? maxBytes / ((long) bodyCount * BYTES_PER_SAMPLE) : 0;
+        capacity = (int) Math.min(length, perBody);
+        if (capacity < 2) {
+            capacity = 0; // za mało pamięci na choćby jeden odcinek
+        }
+        int doubles = bodyCount * capacity * 2;
+        if (points.length != doubles) {
+            points = new double[doubles];
+        }
+        if (screenX.length < capacity + 1) {
+            screenX = new double[capacity + 1];
+            screenY = new double[capacity + 1];
+        }
+        bandColors = new Color[bodyCount][FADE_BANDS];
+        for (int b = 0; b < bodyCount; b++) {
+            Color color = bodies.get(b).getColor();
+            for (int band = 0; band < FADE_BANDS; band++) {
+                double opacity = MAX_OPACITY * (band + 1) / FADE_BANDS;
+                bandColors[b][band] = Color.color(color.getRed(), color.getGreen(), color.getBlue(), opacity);
+            }
+        }
+        clear();
+    }
+
+    /**
+     * Rysuje ślady ciał (bez Słońca) zakończone bieżącym położeniem z migawki
+     */
+    void draw(GraphicsContext gc, List<CelestialBody> bodies, SimulationSnapshot snapshot, Viewport viewport) {
+        if (bodies != sampledBodies || size == 0) {
+            return;
+        }
+        gc.setLineWidth(1);
+        int oldest = (head - size + capacity) % capacity;
+        for (int b = 0; b < bodyCount; b++) {
+            CelestialBody body = bodies.get(b);
+            if (body.isSun()) {
+                continue;
+            }
+            // Punkty od najstarszego do najnowszego, na końcu bieżące położenie ciała
+            int base = b * capacity;
+            for (int k = 0; k < size; k++) {
+                int offset = (base + (oldest + k) % capacity) * 2;
+                screenX[k] = viewport.toScreenX(points[offset]);
+                screenY[k] = viewport.toScreenY(points[offset + 1]);
+            }
+            int i = body.getIndex();
+            if (Double.isNaN(snapshot.getX(i))) {
+                continue; // ciało usunięte przez zlepienie
+            }
+            screenX[size] = viewport.toScreenX(snapshot.getX(i));
+            screenY[size] = viewport.toScreenY(snapshot.getY(i));
+            int pointCount = size + 1;
+
+            // Przedziały wieku - sąsiednie łamane dzielą punkt styku
+            for (int band = 0; band < FADE_BANDS; band++) {
+                int from = band * (pointCount - 1) / FADE_BANDS;
+                int to = (band + 1) * (pointCount - 1) / FADE_BANDS;
+                if (to <= from) {
+                    continue;
+                }
+                gc.setStroke(bandColors[b][band]);
+                strokeRange(gc, from, to);
+            }
+        }
+    }
+
+    /**
+     * Łamana przez punkty [from, to] bufora ekranowego
+     */
+    private void strokeRange(GraphicsContext gc, int from, int to) {
+        int count = to - from + 1;
+        if (from == 0) {
+            gc.strokePolyline(screenX, screenY, count);
+            return;
+        }
+        // strokePolyline zaczyna od indeksu 0 - przesunięcie fragmentu na początek; nadpisuje
+        // tylko punkty wcześniejszych (już narysowanych) przedziałów, bo from >= 1
+        System.arraycopy(screenX, from, screenX, 0, count);
+        System.arraycopy(screenY, from, screenY, 0, count);
+        gc.strokePolyline(screenX, screenY, count);
+    }
+
+    /**
+     * Liczba próbek na ciało po uwzględnieniu limitu pamięci
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Liczba zapamiętanych próbek na ciało
+     */
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.solarsystemsimulation.ui;
+
+import com.example.solarsystemsimulation.simulation.ParallelStepExecutor;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Rysowanie setek tysięcy ciał jako punktów we własnym buforze pikseli.
+ *
+ * Zamiast jednego {@code fillOval} na ciało (każde przechodzi przez bufor poleceń canvasu)
+ * punkty ({@link #addPoint}) są zliczane w tablicy gęstości z wagami (punkt zbiorczy liczy się
+ * za wszystkie ciała, które łączy), a gęstość jest zamieniana na kolor z przezroczystością
+ * przez paletę (więcej ciał w pikselu = jaśniej i mniej przezroczyście). Gotowy bufor ARGB
+ * trafia na canvas jednym {@code drawImage} na klatkę.
+ *
+ * Przy kilku wątkach zliczanie i zamiana na kolory są dzielone na pasy wierszy; każdy pas
+ * pisze tylko do swoich wierszy, więc nie potrzeba synchronizacji. Punkty są raz na klatkę
+ * rozkładane sortowaniem przez zliczanie do kubełków pasów, więc pas przegląda tylko swoje
+ * punkty. Wynik jest taki sam jak sekwencyjny.
+ */
+public class PointSpriteRenderer implements AutoCloseable {
+    private static final Color DEFAULT_COLOR = Color.rgb(170, 190, 255);
+    private static final int PALETTE_SIZE = 256;
+
+    private final int width;
+    private final int height;
+    private final int[] density;
+    private final int[] pixels;
+    private final int[] palette;
+    private final WritableImage image;
+    private final PixelWriter pixelWriter;
+    private final PixelFormat<IntBuffer> pixelFormat = PixelFormat.getIntArgbPreInstance();
+    private final ParallelStepExecutor.RangeAction bandAction = this::fillBands;
+    private ParallelStepExecutor executor; // null = sekwencyjnie
+    private int bandCount = 1;
+    private int[] bandStart = new int[2]; // kubełek pasu b: [bandStart[b], bandStart[b + 1])
+    private int[] bandNext = new int[1]; // następne wolne miejsce kubełka przy sortowaniu
+    private int[] pointPixels = new int[1024]; // piksel punktu w bieżącej klatce
+    private int[] pointWeights = new int[1024];
+    private int[] bandPixels = new int[0]; // punkty ułożone według pasów
+    private int[] bandWeights = new int[0];
+    private int pointCount;
+
+    public PointSpriteRenderer(int width, int height) {
+        this(width, height, DEFAULT_COLOR);
+    }
+
+    public PointSpriteRenderer(int width, int height, Color color) {
+        this.width = width;
+        this.height = height;
+        this.density = new int[width * height];
+        this.pixels = new int[width * height];
+        this.palette = buildPalette(color);
+        this.image = new WritableImage(width, height);
+        this.pixelWriter = image.getPixelWriter();
+    }
+
+    /**
+     * Paleta gęstość -> kolor ARGB z przezroczystością przemnożoną (format IntArgbPre);
+     * jasność rośnie logarytmicznie, a gęste skupiska bieleją
+     */
+    private static int[] buildPalette(Color color) {
+        int[] palette = new int[PALETTE_SIZE];
+        double maxLog = Math.log1p(PALETTE_SIZE - 1);
+        for (int count = 1; count < PALETTE_SIZE; count++) {
+            double level = Math.log1p(count) / maxLog;
+            double alpha = Math.min(1.0, 0.35 + 0.65 * level);
+            double white = level * level;
+            int r = (int) Math.round(255 * alpha * (color.getRed() + (1 - color.getRed()) * white));
+            int g = (int) Math.round(255 * alpha * (color.getGreen() + (1 - color.getGreen()) * white));
+            int b = (int) Math.round(255 * alpha * (color.getBlue() + (1 - color.getBlue()) * white));
+            palette[count] = (int) Math.round(255 * alpha) << 24 | r << 16 | g << 8 | b;
+        }
+        return palette;
+    }
+
+    /**
+     * Liczba wątków wypełniających bufor (1 = sekwencyjnie)
+     */
+    public void setParallelism(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Liczba wątków musi być dodatnia: " + threads);
+        }
+        if (executor != null) {
+            executor.close();
+            executor = null;
+        }
+        if (threads > 1) {
+            executor = new ParallelStepExecutor(threads, 1);
+        }
+        bandCount = threads;
+        bandStart = new int[threads + 1];
+        bandNext = new int[threads];
+    }
+
+    /**
+     * Rozpoczyna nową klatkę (bez punktów)
+     */
+    public void begin() {
+        pointCount = 0;
+    }
+
+    /**
+     * Dodaje punkt o wadze weight (liczba ciał) w pikselu (screenX, screenY); punkty poza
+     * buforem są pomijane
+     */
+    public void addPoint(double screenX, double screenY, int weight) {
+        if (!(screenX >= 0 && screenX < width && screenY >= 0 && screenY < height)) {
+            return;
+        }
+        if (pointCount == pointPixels.length) {
+            pointPixels = Arrays.copyOf(pointPixels, pointCount * 2);
+            pointWeights = Arrays.copyOf(pointWeights, pointCount * 2);
+        }
+        pointPixels[pointCount] = (int) screenY * width + (int) screenX;
+        pointWeights[pointCount] = weight;
+        pointCount++;
+    }
+
+    /**
+     * Zlicza dodane punkty, zamienia gęstość na kolory i rysuje bufor na gc
+     */
+    public void draw(GraphicsContext gc) {
+        if (executor != null) {
+            sortByBand();
+            executor.forEachTask(bandCount, bandAction);
+        } else {
+            fillRows(0, height, pointPixels, pointWeights, 0, pointCount);
+        }
+        pixelWriter.setPixels(0, 0, width, height, pixelFormat, pixels, 0, width);
+        gc.drawImage(image, 0, 0);
+    }
+
+    private int rowsPerBand() {
+        return (height + bandCount - 1) / bandCount;
+    }
+
+    /**
+     * Sortowanie przez zliczanie punktów według pasów (stabilne, O(punkty + pasy))
+     */
+    private void sortByBand() {
+        if (bandPixels.length < pointCount) {
+            bandPixels = new int[pointPixels.length];
+            bandWeights = new int[pointPixels.length];
+        }
+        int bandSize = rowsPerBand() * width; // pikseli w pasie
+        int[] start = bandStart;
+        Arrays.fill(start, 0);
+        for (int k = 0; k < pointCount; k++) {
+            start[pointPixels[k] / bandSize + 1]++;
+        }
+        for (int band = 0; band < bandCount; band++) {
+            start[band + 1] += start[band];
+        }
+        System.arraycopy(start, 0, bandNext, 0, bandCount);
+        for (int k = 0; k < pointCount; k++) {
+            int slot = bandNext[pointPixels[k] / bandSize]++;
+            bandPixels[slot] = pointPixels[k];
+            bandWeights[slot] = pointWeights[k];
+        }
+    }
+
+    /**
+     * Pasy wierszy o numerach [fromBand, toBand)
+     */
+    private void fillBands(int fromBand, int toBand) {
+        int rowsPerBand = rowsPerBand();
+        for (int band = fromBand; band < toBand; band++) {
+            int rowFrom = Math.min(height, band * rowsPerBand);
+            int rowTo = Math.min(height, rowFrom + rowsPerBand);
+            fillRows(rowFrom, rowTo, bandPixels, bandWeights, bandStart[band], bandStart[band + 1]);
+        }
+    }
+
+    /**
+     * Zlicza punkty [pointFrom, pointTo) z indices/weights (wszystkie w wierszach [rowFrom, rowTo))
+     * i zamienia gęstość tych wierszy na kolory
+     */
+    private void fillRows(int rowFrom, int rowTo, int[] indices, int[] weights, int pointFrom, int pointTo) {
+        int start = rowFrom * width;
+        int end = rowTo * width;
+        Arrays.fill(density, start, end, 0);
+        for (int k = pointFrom; k < pointTo; k++) {
+            density[indices[k]] += weights[k];
+        }
+        for (int p = start; p < end; p++) {
+            pixels[p] = palette[Math.min(density[p], PALETTE_SIZE - 1)];
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.close();
+            executor = null;
+        }
+    }
+}
@@ -1,27 +1,63 @@
 package com.example.solarsystemsimulation.ui;
 
+import com.example.solarsystemsimulation.data.BodyCatalogLoader;
 import com.example.solarsystemsimulation.data.PlanetDataParser;
+import com.example.solarsystemsimulation.metrics.MetricsRegistry;
 import com.example.solarsystemsimulation.model.CelestialBody;
-import com.example.solarsystemsimulation.persistence.SimulationPersistence;
-import com.example.solarsystemsimulation.physics.NewtonianPhysics;
+import com.example.solarsystemsimulation.persistence.AsyncSimulationPersistence;
+import com.example.solarsystemsimulation.persistence.SavedState;
+import com.example.solarsystemsimulation.physics.ArrayNewtonianPhysics;
+import com.example.solarsystemsimulation.physics.LeapfrogIntegrator;
+import com.example.solarsystemsimulation.simulation.DeliveryPolicy;
 import com.example.solarsystemsimulation.simulation.Simulation;
 import com.example.solarsystemsimulation.simulation.SimulationObserver;
+import com.example.solarsystemsimulation.simulation.SimulationSnapshot;
+import com.example.solarsystemsimulation.simulation.SimulationThread;
+import com.example.solarsystemsimulation.simulation.StateHistory;
 import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.control.*;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.StackPane;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import java.io.File;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 /**
- * Kontroler GUI dla symulacji (wzorzec Observer)
+ * Kontroler GUI dla symulacji (wzorzec Observer).
+ * Fizyka liczy się na osobnym wątku ({@link SimulationThread}); kontroler zleca mu zmiany
+ * symulacji, a w każdym pulsie JavaFX rysuje najnowszą migawkę stanu.
  */
 public class SimulationController implements SimulationObserver {
+    // Historia do przewijania: stan co 6 kroków (10 razy na sekundę przy 60 krokach/s)
+    private static final long HISTORY_BUDGET_BYTES = 64L << 20;
+    private static final int HISTORY_INTERVAL = 6;
+    // Opcjonalny katalog małych ciał, np. -Dsolarsystem.catalog=MPCORB.DAT
+    private static final String CATALOG_PROPERTY = "solarsystem.catalog";
+    // Przybliżenie o e^(0.002 * przesunięcie kółka) - jeden ząbek (40 px) to około 8%
+    private static final double ZOOM_PER_SCROLL_PIXEL = 0.002;
+    // Odległość od ciała, w której podwójne kliknięcie zaczyna je śledzić
+    private static final double FOLLOW_PICK_PIXELS = 15;
+
+    @FXML
+    private Canvas backgroundCanvas;
+    
     @FXML
     private Canvas simulationCanvas;
     
+    @FXML
+    private Canvas overlayCanvas;
+    
+    @FXML
+    private StackPane canvasPane;
+    
     @FXML
     private Button startButton;
     
@@ -37,55 +73,107 @@ public class SimulationController implements SimulationObserver {
     @FXML
     private Button loadButton;
     
+    @FXML
+    private ProgressBar ioProgress;
+    
+    @FXML
+    private Label ioStatusLabel;
+    
+    @FXML
+    private CheckBox metricsCheckBox;
+    
     @FXML
     private Slider speedSlider;
     
     @FXML
     private Label speedLabel;
     
+    @FXML
+    private Slider historySlider;
+    
+    @FXML
+    private Label historyLabel;
+    
     private Simulation simulation;
+    private SimulationThread simulationThread;
+    private AsyncSimulationPersistence persistence;
     private SimulationRenderer renderer;
     private AnimationTimer animationTimer;
-    private Simulation.SimulationMemento initialState;
+    private SavedState initialState; // cały magazyn, także ciała z katalogu (zmieniany na wątku symulacji)
+    private List<CelestialBody> bodies; // stałe dane ciał dla renderera
+    private long renderedSequence = -1;
+    private long labelTenths = Long.MIN_VALUE; // czas na etykiecie osi czasu w dziesiątych dnia
+    private final StringBuilder labelText = new StringBuilder(32);
+    private StateHistory history;
+    private boolean updatingHistorySlider; // zmiana suwaka z kodu, nie przez użytkownika
+    private double dragX; // ostatnia pozycja myszy przy przesuwaniu widoku
+    private double dragY;
     
     /**
      * Inicjalizacja kontrolera
      */
     @FXML
     public void initialize() {
-        // Utworzenie symulacji z fizyką newtonowską
-        simulation = new Simulation(new NewtonianPhysics());
-        simulation.addObserver(this);
+        // Utworzenie symulacji z fizyką newtonowską (wariant tablicowy, bez alokacji)
+        simulation = new Simulation(new ArrayNewtonianPhysics());
+        simulation.setIntegrator(new LeapfrogIntegrator());
+        simulation.setMetrics(MetricsRegistry.global());
+        // Powiadomienia na wątku JavaFX, najwyżej jedno na klatkę - UI nie spowalnia fizyki
+        simulation.addObserver(this, DeliveryPolicy.latestPerFrame(), Platform::runLater);
         
-        // Wczytanie danych planet z XML
+        // Wczytanie danych planet z XML (katalog małych ciał dochodzi na wątku symulacji)
         loadPlanets();
         
         // Zapisanie stanu początkowego
-        initialState = simulation.saveToMemento();
+        initialState = SavedState.capture(simulation);
+        bodies = simulation.getBodies();
+        
+        // Historia stanów do przewijania osi czasu
+        history = new StateHistory(simulation, HISTORY_BUDGET_BYTES, HISTORY_INTERVAL);
+        history.capture();
+        simulation.addObserver(history);
         
         // Utworzenie renderera
         renderer = new SimulationRenderer(
+            backgroundCanvas.getGraphicsContext2D(),
             simulationCanvas.getGraphicsContext2D(),
+            overlayCanvas.getGraphicsContext2D(),
             simulationCanvas.getWidth(),
             simulationCanvas.getHeight()
         );
+        renderer.setMetrics(MetricsRegistry.global());
+        renderer.setPointSpriteThreads(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        
+        // Wątek fizyki - od tej pory symulację zmienia tylko on
+        simulationThread = new SimulationThread(simulation);
+        // Ciała spoza listy (katalog) są indeksowane w migawkach dla szybkiego rysowania widoku
+        simulationThread.setSpatialIndex(bodies.size());
+        persistence = new AsyncSimulationPersistence(simulation, simulationThread);
+        // Błąd kroku zatrzymuje symulację - komunikat zamiast zamrożonego obrazu
+        simulationThread.setErrorHandler(error -> Platform.runLater(() ->
+            showAlert(Alert.AlertType.ERROR, "Błąd", "Symulacja zatrzymana po błędzie: " + error)));
         
-        // Timer animacji
+        // Konfiguracja slidera prędkości
+        setupSpeedSlider();
+        setupHistorySlider();
+        setupViewportControls();
+        
+        simulationThread.start();
+        
+        // Timer animacji - rysuje najnowszą migawkę, nie czeka na fizykę
         animationTimer = new AnimationTimer() {
             @Override
             public void handle(long now) {
-                simulation.update();
+                renderLatestSnapshot();
+                updateHistorySlider();
             }
         };
-        
-        // Konfiguracja slidera prędkości
-        setupSpeedSlider();
-        
-        // Początkowe renderowanie
-        renderer.render(simulation.getBodies());
+        animationTimer.start();
         
         // Aktywacja przycisków
         updateButtonStates(false);
+        
+        loadCatalog();
     }
     
     /**
@@ -111,6 +199,98 @@ public class SimulationController implements SimulationObserver {
         }
     }
     
+    /**
+     * Wczytuje opcjonalny katalog małych ciał poleceniem wątku symulacji - GUI działa w tym
+     * czasie dalej, a polecenia z przycisków czekają w kolejce na koniec wczytywania
+     */
+    private void loadCatalog() {
+        String catalogPath = System.getProperty(CATALOG_PROPERTY);
+        if (catalogPath == null) {
+            return;
+        }
+        setTransferInProgress(true);
+        ioProgress.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+        ioStatusLabel.setText("Wczytywanie katalogu " + catalogPath);
+        simulationThread.call(() -> {
+            BodyCatalogLoader.Result result = new BodyCatalogLoader()
+                .load(simulation, Path.of(catalogPath), BodyCatalogLoader.Format.AUTO);
+            // Reset i historia obejmują też ciała z katalogu
+            initialState = SavedState.capture(simulation);
+            history.clear();
+            history.capture();
+            return result;
+        }).whenComplete((result, error) -> Platform.runLater(() -> finishCatalog(catalogPath, result, error)));
+    }
+    
+    /**
+     * Kończy wczytywanie katalogu: liczba ciał w pasku stanu albo komunikat błędu
+     */
+    private void finishCatalog(String catalogPath, BodyCatalogLoader.Result result, Throwable error) {
+        setTransferInProgress(false);
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            ioStatusLabel.setText("");
+            showAlert(Alert.AlertType.ERROR, "Błąd",
+                "Nie udało się wczytać katalogu " + catalogPath + ": " + cause.getMessage());
+            return;
+        }
+        ioStatusLabel.setText(String.format("Katalog: %d ciał, %d pominiętych wierszy (%.1f s)",
+            result.getLoaded(), result.getRejected(), result.getSeconds()));
+    }
+    
+    /**
+     * Sterowanie widokiem myszą: kółko - przybliżenie w miejscu kursora, przeciąganie - przesunięcie,
+     * podwójne kliknięcie - śledzenie najbliższego ciała, prawy przycisk - widok domyślny
+     */
+    private void setupViewportControls() {
+        Viewport viewport = renderer.getViewport();
+        canvasPane.addEventHandler(ScrollEvent.SCROLL, event -> {
+            viewport.zoomAt(Math.exp(event.getDeltaY() * ZOOM_PER_SCROLL_PIXEL), event.getX(), event.getY());
+            event.consume();
+        });
+        canvasPane.addEventHandler(MouseEvent.MOUSE_PRESSED, event -> {
+            dragX = event.getX();
+            dragY = event.getY();
+        });
+        canvasPane.addEventHandler(MouseEvent.MOUSE_DRAGGED, event -> {
+            if (event.isPrimaryButtonDown()) {
+                viewport.pan(event.getX() - dragX, event.getY() - dragY);
+                dragX = event.getX();
+                dragY = event.getY();
+            }
+        });
+        canvasPane.addEventHandler(MouseEvent.MOUSE_CLICKED, event -> {
+            if (event.getButton() == MouseButton.SECONDARY) {
+                viewport.reset();
+            } else if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2) {
+                viewport.follow(findBodyAt(event.getX(), event.getY()));
+            }
+        });
+    }
+    
+    /**
+     * Indeks ciała z listy najbliższego punktowi ekranu (w promieniu FOLLOW_PICK_PIXELS) lub -1
+     */
+    private int findBodyAt(double screenX, double screenY) {
+        SimulationSnapshot snapshot = simulationThread.latestSnapshot();
+        if (snapshot.getSequence() == 0) {
+            return -1;
+        }
+        Viewport viewport = renderer.getViewport();
+        int nearest = -1;
+        double nearestDistance = FOLLOW_PICK_PIXELS;
+        for (CelestialBody body : bodies) {
+            int i = body.getIndex();
+            double distance = Math.hypot(viewport.toScreenX(snapshot.getX(i)) - screenX,
+                viewport.toScreenY(snapshot.getY(i)) - screenY);
+            if (distance <= nearestDistance) {
+                nearest = i;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+    
     /**
      * Konfiguruje slider prędkości z 4 poziomami
      */
@@ -151,13 +331,51 @@ public class SimulationController implements SimulationObserver {
         updateSpeed(1);
     }
     
+    /**
+     * Konfiguruje suwak osi czasu - przeciągnięcie zatrzymuje symulację i przywraca
+     * zapamiętany stan
+     */
+    private void setupHistorySlider() {
+        historySlider.setMin(0);
+        historySlider.setMax(0);
+        historySlider.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (updatingHistorySlider) {
+                return;
+            }
+            int index = newVal.intValue();
+            simulationThread.execute(() -> {
+                simulation.stop();
+                if (index < history.size()) {
+                    history.restore(index);
+                }
+            });
+        });
+    }
+    
+    /**
+     * Dopasowuje zakres suwaka do historii; podczas biegu symulacji suwak stoi na końcu
+     */
+    private void updateHistorySlider() {
+        if (historySlider.isValueChanging()) {
+            return;
+        }
+        int size = history.size();
+        boolean running = startButton.isDisabled();
+        updatingHistorySlider = true;
+        historySlider.setMax(Math.max(0, size - 1));
+        if (running) {
+            historySlider.setValue(historySlider.getMax());
+        }
+        updatingHistorySlider = false;
+    }
+    
     /**
      * Aktualizuje prędkość symulacji
      */
     private void updateSpeed(int level) {
         double[] speeds = {0.5, 1.0, 4.0, 16.0};
         double speed = speeds[Math.min(level, speeds.length - 1)];
-        simulation.setSpeedMultiplier(speed);
+        simulationThread.execute(() -> simulation.setSpeedMultiplier(speed));
         speedLabel.setText(String.format("%.1fx", speed));
     }
     
@@ -166,8 +384,7 @@ public class SimulationController implements SimulationObserver {
      */
     @FXML
     private void handleStart() {
-        simulation.start();
-        animationTimer.start();
+        simulationThread.execute(simulation::start);
     }
     
     /**
@@ -175,8 +392,7 @@ public class SimulationController implements SimulationObserver {
      */
     @FXML
     private void handleStop() {
-        simulation.stop();
-        animationTimer.stop();
+        simulationThread.execute(simulation::stop);
     }
     
     /**
@@ -184,11 +400,21 @@ public class SimulationController implements SimulationObserver {
      */
     @FXML
     private void handleReset() {
-        simulation.stop();
-        animationTimer.stop();
-        simulation.restoreFromMemento(initialState);
-        simulation.reset();
-        renderer.render(simulation.getBodies());
+        simulationThread.execute(() -> {
+            simulation.stop();
+            initialState.applyTo(simulation);
+            simulation.reset();
+            history.clear();
+            history.capture();
+        });
+    }
+    
+    /**
+     * Obsługa pola wyboru Metryki - pokazuje lub ukrywa nakładkę z metrykami
+     */
+    @FXML
+    private void handleMetricsToggle() {
+        renderer.setMetricsOverlayVisible(metricsCheckBox.isSelected());
     }
     
     /**
@@ -206,12 +432,11 @@ public class SimulationController implements SimulationObserver {
         File file = fileChooser.showSaveDialog(stage);
         
         if (file != null) {
-            try {
-                SimulationPersistence.saveSimulation(simulation, file.getAbsolutePath());
-                showAlert(Alert.AlertType.INFORMATION, "Sukces", "Stan symulacji został zapisany.");
-            } catch (Exception e) {
-                showAlert(Alert.AlertType.ERROR, "Błąd", "Nie udało się zapisać stanu: " + e.getMessage());
-            }
+            // Kopia stanu pomiędzy krokami, zapis na wątku wejścia-wyjścia - GUI i fizyka działają dalej
+            setTransferInProgress(true);
+            persistence.save(file.getAbsolutePath(), this::reportProgress)
+                .whenComplete((transfer, error) -> Platform.runLater(() ->
+                    finishTransfer("Zapisano", transfer, error, "Nie udało się zapisać stanu: ")));
         }
     }
     
@@ -230,14 +455,82 @@ public class SimulationController implements SimulationObserver {
         File file = fileChooser.showOpenDialog(stage);
         
         if (file != null) {
-            try {
-                SimulationPersistence.loadSimulation(simulation, file.getAbsolutePath());
-                renderer.render(simulation.getBodies());
-                showAlert(Alert.AlertType.INFORMATION, "Sukces", "Stan symulacji został wczytany.");
-            } catch (Exception e) {
-                showAlert(Alert.AlertType.ERROR, "Błąd", "Nie udało się wczytać stanu: " + e.getMessage());
-            }
+            // Odczyt w tle, podmiana stanu (razem z historią) jednym poleceniem wątku symulacji
+            setTransferInProgress(true);
+            persistence.load(file.getAbsolutePath(), this::reportProgress, () -> {
+                history.clear();
+                history.capture();
+            }).whenComplete((transfer, error) -> Platform.runLater(() ->
+                finishTransfer("Wczytano", transfer, error, "Nie udało się wczytać stanu: ")));
+        }
+    }
+    
+    /**
+     * Postęp zapisu/odczytu - wywoływany na wątku wejścia-wyjścia
+     */
+    private void reportProgress(long bytesDone, long totalBytes, double bytesPerSecond) {
+        double fraction = totalBytes > 0 ? (double) bytesDone / totalBytes : 1;
+        Platform.runLater(() -> {
+            ioProgress.setProgress(fraction);
+            ioStatusLabel.setText(String.format("%.1f / %.1f MB (%.0f MB/s)",
+                bytesDone / 1e6, totalBytes / 1e6, bytesPerSecond / 1e6));
+        });
+    }
+    
+    /**
+     * Blokuje przyciski zapisu i odczytu na czas operacji
+     */
+    private void setTransferInProgress(boolean inProgress) {
+        saveButton.setDisable(inProgress);
+        loadButton.setDisable(inProgress);
+        ioProgress.setVisible(inProgress);
+        ioProgress.setProgress(0);
+    }
+    
+    /**
+     * Kończy zapis/odczyt: podsumowanie w pasku stanu albo komunikat błędu
+     */
+    private void finishTransfer(String verb, AsyncSimulationPersistence.Transfer transfer, Throwable error,
+                                String errorPrefix) {
+        setTransferInProgress(false);
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            ioStatusLabel.setText("");
+            showAlert(Alert.AlertType.ERROR, "Błąd", errorPrefix + cause.getMessage());
+            return;
+        }
+        ioStatusLabel.setText(String.format("%s %.1f MB w %.2f s (%.0f MB/s)", verb,
+            transfer.getBytes() / 1e6, transfer.getSeconds(), transfer.getBytesPerSecond() / 1e6));
+    }
+    
+    /**
+     * Rysuje najnowszą migawkę, jeśli wątek symulacji opublikował nową lub zmienił się widok
+     */
+    private void renderLatestSnapshot() {
+        SimulationSnapshot snapshot = simulationThread.latestSnapshot();
+        if (snapshot.getSequence() == 0
+                || snapshot.getSequence() == renderedSequence && !renderer.needsRedraw()) {
+            renderer.refreshOverlay(); // legenda dogania ostatnią migawkę po zatrzymaniu
+            return;
+        }
+        renderer.render(bodies, snapshot);
+        renderedSequence = snapshot.getSequence();
+        updateHistoryLabel(snapshot.getSimulationTime());
+    }
+    
+    /**
+     * Zmienia tekst etykiety tylko, gdy zmienia się wyświetlana wartość (co 0,1 dnia)
+     */
+    private void updateHistoryLabel(double simulationTime) {
+        long tenths = Math.round(simulationTime * 10);
+        if (tenths == labelTenths) {
+            return;
         }
+        labelTenths = tenths;
+        labelText.setLength(0);
+        labelText.append("t = ");
+        NumberText.appendFixed(labelText, simulationTime, 1).append(" dni");
+        historyLabel.setText(labelText.toString());
     }
     
     /**
@@ -259,11 +552,11 @@ public class SimulationController implements SimulationObserver {
         alert.showAndWait();
     }
     
-    // Implementacja SimulationObserver
+    // Implementacja SimulationObserver - wywoływana na wątku JavaFX (Platform::runLater)
     
     @Override
     public void onSimulationUpdate() {
-        renderer.render(simulation.getBodies());
+        // Rysowanie odbywa się w pulsie AnimationTimer na podstawie migawek
     }
     
     @Override
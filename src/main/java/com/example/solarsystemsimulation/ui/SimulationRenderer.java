@@ -1,97 +1,280 @@
 package com.example.solarsystemsimulation.ui;
 
+import com.example.solarsystemsimulation.metrics.MetricsRegistry;
+import com.example.solarsystemsimulation.metrics.RenderEvent;
 import com.example.solarsystemsimulation.model.CelestialBody;
-import com.example.solarsystemsimulation.physics.Vector2D;
+import com.example.solarsystemsimulation.simulation.SimulationSnapshot;
+import com.example.solarsystemsimulation.simulation.SpatialGrid;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import java.util.List;
+import jdk.jfr.EventType;
 
 /**
- * Renderer do rysowania symulacji na Canvas (wzorzec Decorator - dekoruje GraphicsContext)
+ * Renderer do rysowania symulacji na Canvas (wzorzec Decorator - dekoruje GraphicsContext).
+ *
+ * Rysuje na trzech nałożonych warstwach: tło (przerysowywane tylko po unieważnieniu),
+ * ciała ze śladami orbit ({@link OrbitTrails}, w każdej klatce)
+ * oraz legenda z nakładką metryk (najwyżej {@link #OVERLAY_REFRESH_NANOS} razy na sekundę).
+ *
+ * Ciała z listy (Słońce, planety) są rysowane pojedynczo; pozostałe ciała migawki (np. planetoidy
+ * z katalogu) - jako punkty we wspólnym buforze pikseli ({@link PointSpriteRenderer}).
+ * Położenie i skalę widoku określa {@link Viewport}. Jeśli migawka ma siatkę przestrzenną,
+ * odwiedzane są tylko ciała z widocznego obszaru, a skupiska mniejsze niż piksel - jako jeden
+ * punkt zbiorczy.
  */
 public class SimulationRenderer {
-    private final GraphicsContext gc;
+    // Odświeżanie legendy - 4 razy na sekundę
+    static final long OVERLAY_REFRESH_NANOS = 250_000_000L;
+    
+    // Zdarzenie JFR tworzone tylko, gdy nagrywanie je obejmuje
+    private static final EventType RENDER_EVENT = EventType.getEventType(RenderEvent.class);
+    private static final Font NAME_FONT = new Font("Arial Bold", 12);
+    private static final Font DATA_FONT = new Font("Arial", 10);
+    private static final Color LEGEND_BACKGROUND = Color.rgb(0, 0, 0, 0.7);
+    private static final Color SUN_GLOW = Color.rgb(255, 255, 0, 0.3);
+    
+    private final GraphicsContext backgroundGc;
+    private final GraphicsContext bodyGc;
+    private final GraphicsContext overlayGc;
     private final double width;
     private final double height;
-    private final double scale; // skala AU -> piksele
-    private final double centerX;
-    private final double centerY;
+    private final Viewport viewport;
+    private final OrbitTrails trails = new OrbitTrails(OrbitTrails.DEFAULT_MAX_BYTES);
+    private final StringBuilder text = new StringBuilder(64);
+    private MetricsRegistry metrics; // null = bez pomiarów
+    private MetricsOverlay metricsOverlay; // null = bez nakładki HUD
+    private PointSpriteRenderer pointSprites; // tworzony przy pierwszej klatce z dodatkowymi ciałami
+    private int pointSpriteThreads = 1;
+    private final SpatialGrid.PointVisitor pointVisitor = this::addPoint;
+    
+    // Stan warstw z pamięci podręcznej
+    private boolean backgroundValid;
+    private long drawnViewportVersion = -1;
+    private boolean overlayValid;
+    private long overlayDrawnNanos;
+    private long overlaySequence = -1;
+    private List<CelestialBody> lastBodies;
+    private SimulationSnapshot lastSnapshot;
     
     // Minimalna wielkość punktu dla małych planet
     private static final double MIN_PLANET_SIZE = 3.0;
     private static final double MAX_PLANET_SIZE = 30.0;
     
+    /**
+     * Wszystkie warstwy na jednym canvasie (tło i legenda są wtedy rysowane w każdej klatce)
+     */
     public SimulationRenderer(GraphicsContext gc, double width, double height) {
-        this.gc = gc;
+        this(gc, gc, gc, width, height);
+    }
+    
+    /**
+     * Warstwy na osobnych, nałożonych canvasach tej samej wielkości (tło, ciała, nakładka)
+     */
+    public SimulationRenderer(GraphicsContext backgroundGc, GraphicsContext bodyGc, GraphicsContext overlayGc,
+                              double width, double height) {
+        this.backgroundGc = backgroundGc;
+        this.bodyGc = bodyGc;
+        this.overlayGc = overlayGc;
         this.width = width;
         this.height = height;
-        this.centerX = width / 2;
-        this.centerY = height / 2;
         // Skala: 1 AU = około 60 pikseli (Neptun na 30 AU będzie daleko)
-        this.scale = Math.min(width, height) / 70.0;
+        this.viewport = new Viewport(width, height, Math.min(width, height) / 70.0);
+    }
+    
+    /**
+     * Widok (przybliżenie, przesunięcie, śledzone ciało) - zmieniany na wątku JavaFX
+     */
+    public Viewport getViewport() {
+        return viewport;
+    }
+    
+    /**
+     * Ślady orbit (długość, decymacja) - zmieniane na wątku JavaFX
+     */
+    public OrbitTrails getTrails() {
+        return trails;
+    }
+    
+    /**
+     * Czy widok zmienił się od ostatniej klatki (wtedy ostatnią migawkę trzeba narysować ponownie)
+     */
+    public boolean needsRedraw() {
+        return viewport.getVersion() != drawnViewportVersion;
+    }
+    
+    /**
+     * Rejestr, do którego trafiają czasy rysowania; null wyłącza pomiary
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+        if (metricsOverlay != null) {
+            metricsOverlay = metrics != null ? new MetricsOverlay(metrics) : null;
+        }
+        overlayValid = false;
+    }
+    
+    /**
+     * Włącza nakładkę HUD z metrykami (wymaga rejestru z {@link #setMetrics})
+     */
+    public void setMetricsOverlayVisible(boolean visible) {
+        metricsOverlay = visible && metrics != null ? new MetricsOverlay(metrics) : null;
+        overlayValid = false;
+    }
+    
+    /**
+     * Liczba wątków wypełniających bufor punktów dla dodatkowych ciał
+     */
+    public void setPointSpriteThreads(int threads) {
+        pointSpriteThreads = threads;
+        if (pointSprites != null) {
+            pointSprites.setParallelism(threads);
+        }
+    }
+    
+    /**
+     * Wymusza przerysowanie warstw tła i nakładki w następnej klatce (np. po zmianie widoku)
+     */
+    public void invalidateStaticLayers() {
+        backgroundValid = false;
+        overlayValid = false;
     }
     
     /**
      * Czyści canvas
      */
     public void clear() {
-        gc.setFill(Color.BLACK);
-        gc.fillRect(0, 0, width, height);
+        backgroundGc.setFill(Color.BLACK);
+        backgroundGc.fillRect(0, 0, width, height);
     }
     
     /**
-     * Rysuje wszystkie ciała niebieskie
+     * Rysuje wszystkie ciała niebieskie w stanie z migawki.
+     * Lista ciał dostarcza tylko stałe dane (nazwa, kolor, promień), pozycje pochodzą z migawki.
      */
-    public void render(List<CelestialBody> bodies) {
-        clear();
+    public void render(List<CelestialBody> bodies, SimulationSnapshot snapshot) {
+        RenderEvent event = null;
+        if (RENDER_EVENT.isEnabled()) {
+            event = new RenderEvent();
+            event.begin();
+        }
+        long startNanos = System.nanoTime();
+        boolean singleCanvas = bodyGc == backgroundGc;
+        viewport.track(snapshot);
         
-        // Rysuj orbity (tylko dla lepszej wizualizacji)
-        drawOrbits(bodies);
+        // Tło - tylko po unieważnieniu
+        if (singleCanvas || !backgroundValid) {
+            clear();
+            backgroundValid = true;
+        }
+        drawnViewportVersion = viewport.getVersion();
         
-        // Rysuj ciała
+        // Rysuj ciała - najpierw masowo ciała spoza listy, potem ślady, na nich Słońce i planety
+        if (!singleCanvas) {
+            bodyGc.clearRect(0, 0, width, height);
+        }
+        drawPointSprites(bodies, snapshot);
+        trails.sample(bodies, snapshot);
+        trails.draw(bodyGc, bodies, snapshot, viewport);
         for (CelestialBody body : bodies) {
-            drawBody(body);
+            drawBody(body, snapshot);
         }
         
-        // Legenda
-        drawLegend(bodies);
+        lastBodies = bodies;
+        lastSnapshot = snapshot;
+        if (singleCanvas) {
+            overlayValid = false;
+        }
+        refreshOverlay(startNanos);
+        
+        if (metrics != null) {
+            metrics.recordRender(System.nanoTime() - startNanos);
+        }
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.bodyCount = snapshot.getBodyCount();
+                event.step = snapshot.getStepCount();
+                event.commit();
+            }
+        }
     }
     
     /**
-     * Rysuje okręgi orbit
+     * Przerysowuje legendę, jeśli minął okres odświeżania, a ostatnio narysowana migawka jest
+     * nowsza (lub nakładka zmieniła się) - wywoływać także w klatkach bez nowej migawki,
+     * aby legenda pokazała stan po zatrzymaniu symulacji
      */
-    private void drawOrbits(List<CelestialBody> bodies) {
-        gc.setStroke(Color.rgb(50, 50, 50));
-        gc.setLineWidth(1);
-        
+    public void refreshOverlay() {
+        if (overlayGc != bodyGc) {
+            refreshOverlay(System.nanoTime());
+        }
+    }
+    
+    private void refreshOverlay(long now) {
+        if (lastSnapshot == null) {
+            return;
+        }
+        boolean stale = lastSnapshot.getSequence() != overlaySequence || metricsOverlay != null;
+        if (overlayValid && !(stale && now - overlayDrawnNanos >= OVERLAY_REFRESH_NANOS)) {
+            return;
+        }
+        if (overlayGc != bodyGc) {
+            overlayGc.clearRect(0, 0, width, height);
+        }
+        drawLegend(lastBodies, lastSnapshot);
+        if (metricsOverlay != null) {
+            metricsOverlay.draw(overlayGc, width);
+        }
+        overlayValid = true;
+        overlayDrawnNanos = now;
+        overlaySequence = lastSnapshot.getSequence();
+    }
+    
+    /**
+     * Ciała z indeksami za ostatnim ciałem z listy (dodane tylko do magazynu) jako punkty
+     */
+    private void drawPointSprites(List<CelestialBody> bodies, SimulationSnapshot snapshot) {
+        int first = 0;
         for (CelestialBody body : bodies) {
-            if (!body.isSun()) {
-                // Oblicz promień orbity (odległość od środka)
-                Vector2D initialPos = body.getPosition();
-                double orbitRadius = initialPos.magnitude() * scale;
-                
-                if (orbitRadius > 0 && orbitRadius < Math.max(width, height)) {
-                    gc.strokeOval(
-                        centerX - orbitRadius,
-                        centerY - orbitRadius,
-                        orbitRadius * 2,
-                        orbitRadius * 2
-                    );
-                }
+            first = Math.max(first, body.getIndex() + 1);
+        }
+        if (first >= snapshot.getBodyCount()) {
+            return;
+        }
+        if (pointSprites == null) {
+            pointSprites = new PointSpriteRenderer((int) width, (int) height);
+            pointSprites.setParallelism(pointSpriteThreads);
+        }
+        pointSprites.begin();
+        SpatialGrid grid = snapshot.getSpatialGrid();
+        if (grid != null) {
+            // Tylko widoczny obszar, skupiska mniejsze niż piksel jako punkty zbiorcze
+            grid.visit(viewport.toWorldX(0), viewport.toWorldY(0), viewport.toWorldX(width),
+                    viewport.toWorldY(height), 1 / viewport.getScale(), pointVisitor);
+        } else {
+            int count = snapshot.getBodyCount();
+            for (int i = first; i < count; i++) {
+                addPoint(snapshot.getX(i), snapshot.getY(i), 1);
             }
         }
+        pointSprites.draw(bodyGc);
+    }
+    
+    private void addPoint(double x, double y, int weight) {
+        pointSprites.addPoint(viewport.toScreenX(x), viewport.toScreenY(y), weight);
     }
     
     /**
      * Rysuje pojedyncze ciało niebieskie
      */
-    private void drawBody(CelestialBody body) {
-        Vector2D pos = body.getPosition();
+    private void drawBody(CelestialBody body, SimulationSnapshot snapshot) {
+        int i = body.getIndex();
         
         // Konwersja z AU na piksele
-        double screenX = centerX + pos.getX() * scale;
-        double screenY = centerY + pos.getY() * scale;
+        double screenX = viewport.toScreenX(snapshot.getX(i));
+        double screenY = viewport.toScreenY(snapshot.getY(i));
         
         // Rozmiar ciała - logarytmiczna skala dla lepszej wizualizacji
         double size;
@@ -103,31 +286,36 @@ public class SimulationRenderer {
             size = Math.max(MIN_PLANET_SIZE, Math.min(MAX_PLANET_SIZE, size));
         }
         
+        // Ciała poza ekranem (razem z poświatą) i usunięte (NaN) są pomijane
+        if (!(screenX >= -size && screenX <= width + size && screenY >= -size && screenY <= height + size)) {
+            return;
+        }
+        
         // Rysuj ciało
-        gc.setFill(body.getColor());
-        gc.fillOval(screenX - size/2, screenY - size/2, size, size);
+        bodyGc.setFill(body.getColor());
+        bodyGc.fillOval(screenX - size/2, screenY - size/2, size, size);
         
         // Dodaj poświatę dla Słońca
         if (body.isSun()) {
-            gc.setFill(Color.rgb(255, 255, 0, 0.3));
-            gc.fillOval(screenX - size, screenY - size, size * 2, size * 2);
+            bodyGc.setFill(SUN_GLOW);
+            bodyGc.fillOval(screenX - size, screenY - size, size * 2, size * 2);
         }
     }
     
     /**
      * Rysuje legendę z nazwami planet i ich danymi
      */
-    private void drawLegend(List<CelestialBody> bodies) {
-        gc.setFill(Color.rgb(0, 0, 0, 0.7)); // Semi-transparent background
+    private void drawLegend(List<CelestialBody> bodies, SimulationSnapshot snapshot) {
+        GraphicsContext gc = overlayGc;
+        gc.setFill(LEGEND_BACKGROUND); // Semi-transparent background
         gc.fillRect(5, 5, 380, bodies.size() * 65 + 10);
         
         gc.setFill(Color.WHITE);
-        gc.setFont(new Font("Arial Bold", 12));
         
         int y = 20;
         for (CelestialBody body : bodies) {
             // Nazwa planety
-            gc.setFont(new Font("Arial Bold", 12));
+            gc.setFont(NAME_FONT);
             gc.fillText(body.getName(), 15, y);
             
             // Małe kółko z kolorem
@@ -136,29 +324,45 @@ public class SimulationRenderer {
             gc.setFill(Color.WHITE);
             
             // Dane planety
-            gc.setFont(new Font("Arial", 10));
-            Vector2D pos = body.getPosition();
-            Vector2D vel = body.getVelocity();
+            gc.setFont(DATA_FONT);
+            int i = body.getIndex();
+            double posX = snapshot.getX(i);
+            double posY = snapshot.getY(i);
+            double velX = snapshot.getVx(i);
+            double velY = snapshot.getVy(i);
             
             // Oblicz odległość od Słońca
-            double distanceFromSun = pos.magnitude();
+            double distanceFromSun = Math.sqrt(posX * posX + posY * posY);
             
             // Położenie
             y += 15;
-            gc.fillText(String.format("  Pozycja: (%.3f, %.3f) AU", pos.getX(), pos.getY()), 15, y);
+            text.setLength(0);
+            text.append("  Pozycja: (");
+            NumberText.appendFixed(text, posX, 3).append(", ");
+            NumberText.appendFixed(text, posY, 3).append(") AU");
+            gc.fillText(text.toString(), 15, y);
             
             // Prędkość
             y += 12;
-            double speed = vel.magnitude();
-            gc.fillText(String.format("  Prędkość: %.4f AU/dzień (%.3f, %.3f)", 
-                speed, vel.getX(), vel.getY()), 15, y);
+            double speed = Math.sqrt(velX * velX + velY * velY);
+            text.setLength(0);
+            text.append("  Prędkość: ");
+            NumberText.appendFixed(text, speed, 4).append(" AU/dzień (");
+            NumberText.appendFixed(text, velX, 3).append(", ");
+            NumberText.appendFixed(text, velY, 3).append(')');
+            gc.fillText(text.toString(), 15, y);
             
             // Odległość od Słońca
             y += 12;
-            if (body.isSun()) {
+            if (Double.isNaN(posX)) {
+                gc.fillText("  Pochłonięte w zderzeniu", 15, y);
+            } else if (body.isSun()) {
                 gc.fillText("  Odległość od Słońca: 0.000 AU (centrum)", 15, y);
             } else {
-                gc.fillText(String.format("  Odległość od Słońca: %.3f AU", distanceFromSun), 15, y);
+                text.setLength(0);
+                text.append("  Odległość od Słońca: ");
+                NumberText.appendFixed(text, distanceFromSun, 3).append(" AU");
+                gc.fillText(text.toString(), 15, y);
             }
             
             y += 20; // Odstęp między planetami
@@ -0,0 +1,133 @@
+package com.example.solarsystemsimulation.ui;
+
+import com.example.solarsystemsimulation.simulation.SimulationSnapshot;
+
+/**
+ * Widok na płaszczyznę symulacji: środek w AU, skala w pikselach na AU i opcjonalnie
+ * śledzone ciało, którego pozycja z migawki staje się środkiem widoku.
+ *
+ * Każda zmiana zwiększa numer wersji, po którym renderer poznaje, że warstwy statyczne
+ * trzeba przerysować. Używany tylko na wątku JavaFX.
+ */
+public class Viewport {
+    // Zakres przybliżenia względem widoku domyślnego
+    private static final double MIN_ZOOM = 0.01;
+    private static final double MAX_ZOOM = 1e5;
+
+    private final double width;
+    private final double height;
+    private final double defaultScale;
+    private double centerX; // AU
+    private double centerY; // AU
+    private double scale; // piksele na AU
+    private int followedIndex = -1;
+    private long version;
+
+    public Viewport(double width, double height, double defaultScale) {
+        this.width = width;
+        this.height = height;
+        this.defaultScale = defaultScale;
+        this.scale = defaultScale;
+    }
+
+    public double toScreenX(double x) {
+        return width / 2 + (x - centerX) * scale;
+    }
+
+    public double toScreenY(double y) {
+        return height / 2 + (y - centerY) * scale;
+    }
+
+    public double toWorldX(double screenX) {
+        return centerX + (screenX - width / 2) / scale;
+    }
+
+    public double toWorldY(double screenY) {
+        return centerY + (screenY - height / 2) / scale;
+    }
+
+    /**
+     * Przybliża o factor tak, aby punkt pod (screenX, screenY) pozostał w miejscu
+     * (przy śledzeniu ciała - względem środka widoku)
+     */
+    public void zoomAt(double factor, double screenX, double screenY) {
+        if (followedIndex >= 0) {
+            screenX = width / 2;
+            screenY = height / 2;
+        }
+        double worldX = toWorldX(screenX);
+        double worldY = toWorldY(screenY);
+        scale = Math.max(defaultScale * MIN_ZOOM, Math.min(defaultScale * MAX_ZOOM, scale * factor));
+        centerX = worldX - (screenX - width / 2) / scale;
+        centerY = worldY - (screenY - height / 2) / scale;
+        version++;
+    }
+
+    /**
+     * Przesuwa widok o (dx, dy) pikseli i kończy śledzenie ciała
+     */
+    public void pan(double dx, double dy) {
+        centerX -= dx / scale;
+        centerY -= dy / scale;
+        followedIndex = -1;
+        version++;
+    }
+
+    /**
+     * Śledzi ciało o indeksie index (-1 = bez śledzenia)
+     */
+    public void follow(int index) {
+        followedIndex = index;
+        version++;
+    }
+
+    /**
+     * Widok domyślny: środek układu, skala początkowa, bez śledzenia
+     */
+    public void reset() {
+        centerX = 0;
+        centerY = 0;
+        scale = defaultScale;
+        followedIndex = -1;
+        version++;
+    }
+
+    /**
+     * Ustawia środek na śledzonym ciele (wywoływane przez renderer w każdej klatce)
+     */
+    void track(SimulationSnapshot snapshot) {
+        if (followedIndex < 0 || followedIndex >= snapshot.getBodyCount()) {
+            return;
+        }
+        double x = snapshot.getX(followedIndex);
+        double y = snapshot.getY(followedIndex);
+        if (Double.isNaN(x) || Double.isNaN(y)) {
+            followedIndex = -1; // ciało usunięte przez zlepienie - widok zostaje w miejscu
+            version++;
+        } else if (x != centerX || y != centerY) {
+            centerX = x;
+            centerY = y;
+            version++;
+        }
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    public int getFollowedIndex() {
+        return followedIndex;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
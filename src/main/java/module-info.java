@@ -3,6 +3,10 @@ module com.example.solarsystemsimulation {
     requires javafx.fxml;
     requires java.xml;
     requires java.desktop;
+    requires jdk.jfr;
+    requires jdk.management;
+    // Opcjonalny - VectorizedNewtonianPhysics liczy skalarnie, gdy moduł nie jest dołączony
+    requires static jdk.incubator.vector;
 
     opens com.example.solarsystemsimulation to javafx.fxml;
     opens com.example.solarsystemsimulation.ui to javafx.fxml;
@@ -14,4 +18,6 @@ module com.example.solarsystemsimulation {
     exports com.example.solarsystemsimulation.simulation;
     exports com.example.solarsystemsimulation.data;
     exports com.example.solarsystemsimulation.persistence;
+    exports com.example.solarsystemsimulation.headless;
+    exports com.example.solarsystemsimulation.metrics;
 }
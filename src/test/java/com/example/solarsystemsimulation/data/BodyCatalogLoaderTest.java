@@ -0,0 +1,73 @@
+package com.example.solarsystemsimulation.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import com.example.solarsystemsimulation.physics.ArrayNewtonianPhysics;
+import com.example.solarsystemsimulation.simulation.Simulation;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BodyCatalogLoaderTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void rejectsNonFiniteStateRows() throws IOException {
+        Path path = directory.resolve("state.csv");
+        Files.writeString(path, String.join("\n",
+            "x,y,vx,vy,mass",
+            "1.5,0,0,0.014,1e-9",
+            "NaN,0,0,0.014,1e-9",
+            "2,Infinity,0,0.01,1e-9",
+            "2,0,-Infinity,0.01,1e-9",
+            "2,0,0,0x1p-7,1e-9",
+            "2,0,0,0.01,NaN",
+            "2,0,0,0.01,1e999",
+            "-2.5,1e-3,0.001,-0.01,0") + "\n");
+        Simulation simulation = simulation();
+
+        BodyCatalogLoader.Result result = new BodyCatalogLoader(2, 3).load(simulation, path,
+            BodyCatalogLoader.Format.STATE_CSV);
+
+        assertEquals(2, result.getLoaded());
+        assertEquals(6, result.getRejected());
+        BodyStore store = simulation.getBodyStore();
+        assertEquals(3, store.size());
+        for (int i = 0; i < store.size(); i++) {
+            assertTrue(Double.isFinite(store.getX(i)) && Double.isFinite(store.getY(i))
+                && Double.isFinite(store.getVx(i)) && Double.isFinite(store.getVy(i))
+                && Double.isFinite(store.getMass(i)), "ciało " + i);
+        }
+        assertEquals(-2.5, store.getX(2));
+        assertEquals(BodyCatalogLoader.DEFAULT_MASS, store.getMass(2));
+    }
+
+    @Test
+    void rejectsNonFiniteElements() throws IOException {
+        Path path = directory.resolve("elements.csv");
+        Files.writeString(path, String.join("\n",
+            "a,e,i,node,peri,m",
+            "2.7,0.1,10,80,70,30",
+            "NaN,0.1,10,80,70,30",
+            "2.7,0.1,10,Infinity,70,30",
+            "1e308,0.1,10,80,70,30") + "\n");
+        Simulation simulation = simulation();
+
+        BodyCatalogLoader.Result result = new BodyCatalogLoader(1, 16).load(simulation, path,
+            BodyCatalogLoader.Format.ELEMENTS_CSV);
+
+        assertEquals(1, result.getLoaded());
+        assertEquals(3, result.getRejected());
+    }
+
+    private static Simulation simulation() {
+        Simulation simulation = new Simulation(new ArrayNewtonianPhysics());
+        simulation.getBodyStore().add(333054, 0, 0, 0, 0, true);
+        return simulation;
+    }
+}
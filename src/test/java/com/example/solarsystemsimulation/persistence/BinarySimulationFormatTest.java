@@ -0,0 +1,141 @@
+package com.example.solarsystemsimulation.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BinarySimulationFormatTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsSmallStateThroughBuffer() throws IOException {
+        SavedState state = randomState(100, true);
+        Path path = directory.resolve("small.sim");
+        write(state, path);
+
+        assertTrue(Files.size(path) < 1 << 20); // poniżej progu mapowania
+        assertSameState(state, read(path));
+    }
+
+    @Test
+    void roundTripsLargeStateThroughMapping() throws IOException {
+        SavedState state = randomState(20_000, true);
+        Path path = directory.resolve("large.sim");
+        write(state, path);
+
+        assertTrue(Files.size(path) >= 1 << 20);
+        assertSameState(state, read(path));
+    }
+
+    @Test
+    void readsVersion1WithoutMasses() throws IOException {
+        // Stan bez mas jest zapisywany w wersji 1 (jak pliki sprzed zapisu mas)
+        for (int bodyCount : new int[] {100, 20_000}) {
+            SavedState state = randomState(bodyCount, false);
+            Path path = directory.resolve("v1-" + bodyCount + ".sim");
+            write(state, path);
+
+            assertEquals(BinarySimulationFormat.fileSize(bodyCount, 1), Files.size(path));
+            SavedState loaded = read(path);
+            assertSameState(state, loaded);
+            assertNull(loaded.getMass());
+            assertNull(loaded.getFixed());
+        }
+    }
+
+    @Test
+    void reportsProgressUpToFileSize() throws IOException {
+        SavedState state = randomState(20_000, true);
+        Path path = directory.resolve("progress.sim");
+        write(state, path);
+
+        AtomicLong done = new AtomicLong();
+        AtomicLong total = new AtomicLong();
+        BinarySimulationFormat.read(path, (bytesDone, totalBytes, bytesPerSecond) -> {
+            done.set(bytesDone);
+            total.set(totalBytes);
+        });
+        assertEquals(Files.size(path), total.get());
+        assertEquals(total.get(), done.get());
+    }
+
+    @Test
+    void rejectsTruncatedFile() throws IOException {
+        Path path = directory.resolve("truncated.sim");
+        write(randomState(100, true), path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(path) - 1);
+        }
+
+        assertThrows(IOException.class, () -> read(path));
+    }
+
+    private static SavedState randomState(int bodyCount, boolean withMasses) {
+        Random random = new Random(bodyCount);
+        double[][] arrays = SavedState.allocate(bodyCount);
+        for (double[] array : arrays) {
+            for (int i = 0; i < bodyCount; i++) {
+                array[i] = random.nextGaussian() * 30;
+            }
+        }
+        arrays[0][0] = -0.0; // bity zachowane co do znaku
+        arrays[1][0] = Double.NaN;
+        double[] mass = null;
+        boolean[] fixed = null;
+        if (withMasses) {
+            mass = new double[bodyCount];
+            fixed = new boolean[bodyCount];
+            for (int i = 0; i < bodyCount; i++) {
+                mass[i] = random.nextDouble() * 1e-3;
+                fixed[i] = random.nextInt(10) == 0;
+            }
+            mass[1] = 0; // ciało usunięte przez zlepienie
+            fixed[1] = true;
+        }
+        return new SavedState(arrays, mass, fixed, bodyCount, 2.5, 1234.5, 98_765);
+    }
+
+    private static void write(SavedState state, Path path) throws IOException {
+        BinarySimulationFormat.write(state, path,
+            new ProgressTracker(PersistenceProgress.NONE, BinarySimulationFormat.fileSize(state)));
+    }
+
+    private static SavedState read(Path path) throws IOException {
+        return BinarySimulationFormat.read(path, PersistenceProgress.NONE);
+    }
+
+    private static void assertSameState(SavedState expected, SavedState actual) {
+        assertEquals(expected.getBodyCount(), actual.getBodyCount());
+        assertEquals(expected.getSpeedMultiplier(), actual.getSpeedMultiplier());
+        assertEquals(expected.getSimulationTime(), actual.getSimulationTime());
+        assertEquals(expected.getStepCount(), actual.getStepCount());
+        for (int k = 0; k < SavedState.ARRAY_COUNT; k++) {
+            assertBitsEqual(expected.getArrays()[k], actual.getArrays()[k]);
+        }
+        if (expected.getMass() != null) {
+            assertBitsEqual(expected.getMass(), actual.getMass());
+            assertArrayEquals(expected.getFixed(), actual.getFixed());
+        }
+    }
+
+    private static void assertBitsEqual(double[] expected, double[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(Double.doubleToRawLongBits(expected[i]), Double.doubleToRawLongBits(actual[i]),
+                "indeks " + i);
+        }
+    }
+}
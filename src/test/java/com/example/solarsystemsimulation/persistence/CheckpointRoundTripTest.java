@@ -0,0 +1,168 @@
+package com.example.solarsystemsimulation.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import com.example.solarsystemsimulation.physics.ArrayNewtonianPhysics;
+import com.example.solarsystemsimulation.simulation.Simulation;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CheckpointRoundTripTest {
+    private static final double G = 2.95912208286e-4; // AU^3 / (M_Ziemi dzień^2)
+    private static final double SUN_MASS = 333054;
+    private static final int BODY_COUNT = 200;
+    private static final int STEPS_BETWEEN = 7;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void losslessDeltasRestoreBitIdenticalState() throws IOException {
+        Path path = directory.resolve("lossless.simc");
+        List<double[]> recorded = record(path, 4, 0, 13);
+
+        Simulation target = simulation();
+        try (CheckpointReader reader = new CheckpointReader(path)) {
+            assertEquals(recorded.size(), reader.getCheckpointCount());
+            for (int i = 0; i < recorded.size(); i++) {
+                reader.restore(target, i);
+                assertArrayEquals(bits(recorded.get(i)), bits(state(target)), "punkt " + i);
+                assertEquals(reader.getStep(i), target.getStepCount());
+                assertEquals(reader.getTime(i), target.getSimulationTime());
+            }
+        }
+    }
+
+    @Test
+    void quantizedDeltasStayWithinHalfPrecisionAcrossKeyframes() throws IOException {
+        double precision = 1e-9;
+        int keyframeInterval = 10;
+        Path path = directory.resolve("quantized.simc");
+        List<double[]> recorded = record(path, keyframeInterval, precision, 35);
+
+        Simulation target = simulation();
+        double largestError = 0;
+        try (CheckpointReader reader = new CheckpointReader(path)) {
+            for (int i = 0; i < recorded.size(); i++) {
+                reader.restore(target, i);
+                double[] expected = recorded.get(i);
+                double[] actual = state(target);
+                if (i % keyframeInterval == 0) {
+                    assertArrayEquals(bits(expected), bits(actual), "klatka kluczowa " + i);
+                    continue;
+                }
+                // Błąd nie narasta z liczbą delt od klatki kluczowej
+                double maxError = 0;
+                for (int k = 0; k < expected.length; k++) {
+                    maxError = Math.max(maxError, Math.abs(expected[k] - actual[k]));
+                }
+                assertTrue(maxError <= precision / 2 + 1e-13, "punkt " + i + ": błąd " + maxError);
+                largestError = Math.max(largestError, maxError);
+            }
+        }
+        assertTrue(largestError > 0, "delty zapisane bezstratnie zamiast kwantowanych");
+    }
+
+    @Test
+    void massChangeStartsNewKeyframe() throws IOException {
+        Path path = directory.resolve("masses.simc");
+        Simulation source = simulation();
+        double[][] masses = new double[6][];
+        boolean[][] fixed = new boolean[6][];
+        try (CheckpointWriter writer = new CheckpointWriter(source, path, 100)) {
+            for (int c = 0; c < masses.length; c++) {
+                if (c == 3) {
+                    // Jak przy zlepieniu: ciało 2 przejmuje masę ciała 1, które zostaje usunięte
+                    BodyStore store = source.getBodyStore();
+                    store.getMassArray()[2] += store.getMass(1);
+                    store.getMassArray()[1] = 0;
+                    store.setFixed(1, true);
+                }
+                writer.writeCheckpoint();
+                masses[c] = Arrays.copyOf(source.getBodyStore().getMassArray(), BODY_COUNT);
+                fixed[c] = Arrays.copyOf(source.getBodyStore().getFixedArray(), BODY_COUNT);
+                advance(source);
+            }
+        }
+
+        Simulation target = simulation();
+        try (CheckpointReader reader = new CheckpointReader(path)) {
+            for (int c : new int[] {4, 1, 5, 3}) {
+                reader.restore(target, c);
+                BodyStore store = target.getBodyStore();
+                assertArrayEquals(masses[c], Arrays.copyOf(store.getMassArray(), BODY_COUNT), "punkt " + c);
+                assertArrayEquals(fixed[c], Arrays.copyOf(store.getFixedArray(), BODY_COUNT), "punkt " + c);
+            }
+        }
+    }
+
+    /**
+     * Zapisuje count punktów kontrolnych co STEPS_BETWEEN kroków i zwraca zapisane stany
+     */
+    private static List<double[]> record(Path path, int keyframeInterval, double precision, int count)
+            throws IOException {
+        Simulation source = simulation();
+        List<double[]> recorded = new ArrayList<>();
+        try (CheckpointWriter writer = new CheckpointWriter(source, path, keyframeInterval, precision)) {
+            for (int c = 0; c < count; c++) {
+                writer.writeCheckpoint();
+                recorded.add(state(source));
+                advance(source);
+            }
+        }
+        return recorded;
+    }
+
+    private static void advance(Simulation simulation) {
+        for (int s = 0; s < STEPS_BETWEEN; s++) {
+            simulation.update();
+        }
+    }
+
+    /**
+     * Słońce i ciała na orbitach kołowych, z tym samym ziarnem w każdej symulacji
+     */
+    private static Simulation simulation() {
+        Simulation simulation = new Simulation(new ArrayNewtonianPhysics());
+        BodyStore store = simulation.getBodyStore();
+        store.add(SUN_MASS, 0, 0, 0, 0, false);
+        Random random = new Random(7);
+        for (int i = 1; i < BODY_COUNT; i++) {
+            double r = 0.5 + 4 * random.nextDouble();
+            double angle = 2 * Math.PI * random.nextDouble();
+            double v = Math.sqrt(G * SUN_MASS / r);
+            store.add(1e-3 * random.nextDouble(), r * Math.cos(angle), r * Math.sin(angle),
+                -v * Math.sin(angle), v * Math.cos(angle), false);
+        }
+        simulation.start();
+        return simulation;
+    }
+
+    private static double[] state(Simulation simulation) {
+        BodyStore store = simulation.getBodyStore();
+        int n = store.size();
+        double[] state = new double[4 * n];
+        System.arraycopy(store.getXArray(), 0, state, 0, n);
+        System.arraycopy(store.getYArray(), 0, state, n, n);
+        System.arraycopy(store.getVxArray(), 0, state, 2 * n, n);
+        System.arraycopy(store.getVyArray(), 0, state, 3 * n, n);
+        return state;
+    }
+
+    private static long[] bits(double[] values) {
+        long[] bits = new long[values.length];
+        for (int k = 0; k < values.length; k++) {
+            bits[k] = Double.doubleToRawLongBits(values[k]);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.solarsystemsimulation.physics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class BarnesHutPhysicsTest {
+
+    @Test
+    void zeroThetaMatchesDirectSumWithinRoundOff() {
+        assertMatchesDirectSum(0, 500, 1e-12);
+    }
+
+    @Test
+    void defaultThetaStaysCloseToDirectSum() {
+        // Przybliżenie monopolowe - pojedyncze ciała mogą odbiegać bardziej, więc sprawdzamy
+        // błąd średniokwadratowy względem średniokwadratowego przyspieszenia
+        BodyStore tree = createSystem(500);
+        BodyStore direct = createSystem(500);
+
+        new BarnesHutPhysics(BarnesHutPhysics.DEFAULT_THETA).computeAccelerations(tree);
+        new ArrayNewtonianPhysics().computeAccelerations(direct);
+
+        double error = 0;
+        double magnitude = 0;
+        for (int i = 0; i < direct.size(); i++) {
+            double dx = tree.getAx(i) - direct.getAx(i);
+            double dy = tree.getAy(i) - direct.getAy(i);
+            error += dx * dx + dy * dy;
+            magnitude += direct.getAx(i) * direct.getAx(i) + direct.getAy(i) * direct.getAy(i);
+        }
+        assertTrue(Math.sqrt(error / magnitude) < 1e-2, "błąd względny " + Math.sqrt(error / magnitude));
+    }
+
+    @Test
+    void twoBodiesAreExactForAnyTheta() {
+        // Pojedyncze ciało w węźle to zawsze oddziaływanie dokładne
+        assertMatchesDirectSum(5, 2, 1e-15);
+    }
+
+    private static void assertMatchesDirectSum(double theta, int count, double tolerance) {
+        BodyStore tree = createSystem(count);
+        BodyStore direct = createSystem(count);
+
+        new BarnesHutPhysics(theta).computeAccelerations(tree);
+        new ArrayNewtonianPhysics().computeAccelerations(direct);
+
+        for (int i = 0; i < direct.size(); i++) {
+            double scale = Math.hypot(direct.getAx(i), direct.getAy(i));
+            assertEquals(direct.getAx(i), tree.getAx(i), tolerance * scale, "ax " + i);
+            assertEquals(direct.getAy(i), tree.getAy(i), tolerance * scale, "ay " + i);
+        }
+    }
+
+    private static BodyStore createSystem(int count) {
+        BodyStore store = new BodyStore(count);
+        Random random = new Random(11);
+        for (int i = 0; i < count; i++) {
+            double r = 0.3 + 5 * random.nextDouble();
+            double angle = 2 * Math.PI * random.nextDouble();
+            store.add(1e-3 + random.nextDouble(), r * Math.cos(angle), r * Math.sin(angle), 0, 0, false);
+        }
+        return store;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.solarsystemsimulation.physics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PairwiseNewtonianPhysicsTest {
+
+    @Test
+    void matchesDirectSumWithinRoundOff() {
+        // Liczba ciał nie jest wielokrotnością kafelka - ostatni kafelek jest niepełny
+        BodyStore pairwise = createSystem(203);
+        BodyStore direct = createSystem(203);
+
+        PairwiseNewtonianPhysics physics = new PairwiseNewtonianPhysics(7);
+        physics.computeAccelerations(pairwise);
+        physics.computeAccelerations(pairwise); // sumy z poprzedniego wywołania są zerowane
+        new ArrayNewtonianPhysics().computeAccelerations(direct);
+
+        for (int i = 0; i < direct.size(); i++) {
+            double scale = Math.hypot(direct.getAx(i), direct.getAy(i));
+            assertEquals(direct.getAx(i), pairwise.getAx(i), 1e-12 * scale, "ax " + i);
+            assertEquals(direct.getAy(i), pairwise.getAy(i), 1e-12 * scale, "ay " + i);
+        }
+        // Nieruchome Słońce nie dostaje przyspieszenia
+        assertEquals(0, pairwise.getAx(0));
+        assertEquals(0, pairwise.getAy(0));
+    }
+
+    static BodyStore createSystem(int count) {
+        BodyStore store = new BodyStore(count);
+        store.add(333054, 0, 0, 0, 0, true);
+        Random random = new Random(7);
+        for (int i = 1; i < count; i++) {
+            double r = 0.3 + 5 * random.nextDouble();
+            double angle = 2 * Math.PI * random.nextDouble();
+            store.add(1e-3 + random.nextDouble(), r * Math.cos(angle), r * Math.sin(angle), 0, 0, false);
+        }
+        return store;
+    }
+}
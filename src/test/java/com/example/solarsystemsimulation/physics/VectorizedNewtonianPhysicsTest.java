@@ -0,0 +1,67 @@
+package com.example.solarsystemsimulation.physics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class VectorizedNewtonianPhysicsTest {
+
+    @Test
+    void vectorKernelMatchesScalarKernelWithinRoundOff() {
+        // Surefire dołącza jdk.incubator.vector (argLine w pom.xml) - bez niego test
+        // porównywałby ścieżkę skalarną samą ze sobą
+        VectorizedNewtonianPhysics vector = new VectorizedNewtonianPhysics(true);
+        assertTrue(vector.isVectorized());
+        assertTrue(vector.getLaneCount() > 1);
+
+        // Liczba ciał nie jest wielokrotnością liczby torów - sprawdzamy też ogon pętli
+        int count = 4 * vector.getLaneCount() + 3;
+        BodyStore vectorStore = createSystem(count);
+        BodyStore scalarStore = createSystem(count);
+
+        vector.computeAccelerations(vectorStore);
+        new ArrayNewtonianPhysics().computeAccelerations(scalarStore);
+
+        for (int i = 0; i < count; i++) {
+            double scale = Math.hypot(scalarStore.getAx(i), scalarStore.getAy(i));
+            assertEquals(scalarStore.getAx(i), vectorStore.getAx(i), 1e-12 * scale, "ax " + i);
+            assertEquals(scalarStore.getAy(i), vectorStore.getAy(i), 1e-12 * scale, "ay " + i);
+        }
+        // Nieruchome Słońce zachowuje swoje przyspieszenie
+        assertEquals(0, vectorStore.getAx(0));
+        assertEquals(0, vectorStore.getAy(0));
+    }
+
+    @Test
+    void scalarFallbackIsTheDirectSum() {
+        VectorizedNewtonianPhysics scalar = new VectorizedNewtonianPhysics(false);
+        assertFalse(scalar.isVectorized());
+        assertEquals(1, scalar.getLaneCount());
+
+        BodyStore scalarStore = createSystem(50);
+        BodyStore directStore = createSystem(50);
+        scalar.computeAccelerations(scalarStore);
+        new ArrayNewtonianPhysics().computeAccelerations(directStore);
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(directStore.getAx(i), scalarStore.getAx(i));
+            assertEquals(directStore.getAy(i), scalarStore.getAy(i));
+        }
+    }
+
+    private static BodyStore createSystem(int count) {
+        BodyStore store = new BodyStore(count);
+        store.add(333054, 0, 0, 0, 0, true);
+        Random random = new Random(3);
+        for (int i = 1; i < count; i++) {
+            double r = 0.3 + 5 * random.nextDouble();
+            double angle = 2 * Math.PI * random.nextDouble();
+            store.add(1e-3 + random.nextDouble(), r * Math.cos(angle), r * Math.sin(angle), 0, 0, false);
+        }
+        return store;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.solarsystemsimulation.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import com.example.solarsystemsimulation.physics.Integrator;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveStepControllerTest {
+    private static final double GM = 2.95912208286e-4 * 333054; // Słońce, AU^3 / dzień^2
+
+    // Przyciąganie nieruchomego Słońca w początku układu
+    private static final Integrator.AccelerationEvaluator CENTRAL = store -> {
+        for (int i = 0; i < store.size(); i++) {
+            double x = store.getX(i);
+            double y = store.getY(i);
+            double r = Math.sqrt(x * x + y * y);
+            double a = store.isFixed(i) || r == 0 ? 0 : -GM / (r * r * r);
+            store.setAcceleration(i, a * x, a * y);
+        }
+    };
+
+    @Test
+    void advancesCircularOrbit() {
+        BodyStore store = new BodyStore();
+        store.add(0, 0, 0, 0, 0, true);
+        store.add(1, 1, 0, 0, Math.sqrt(GM), false);
+        AdaptiveStepController controller = new AdaptiveStepController(1e-10);
+
+        controller.advance(store, 10, CENTRAL);
+
+        assertTrue(controller.getAcceptedSteps() > 0);
+        assertEquals(1, Math.hypot(store.getX(1), store.getY(1)), 1e-8);
+    }
+
+    @Test
+    void nonFiniteStateThrowsInsteadOfLooping() {
+        BodyStore store = new BodyStore();
+        store.add(0, 0, 0, 0, 0, true);
+        store.add(1, 1, 0, 0, Math.sqrt(GM), false);
+        store.add(1, Double.NaN, 0, 0, 1, false);
+        AdaptiveStepController controller = new AdaptiveStepController(1e-10);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> assertThrows(IllegalStateException.class, () -> controller.advance(store, 1, CENTRAL)));
+        // Stan sprzed nieudanego kroku
+        assertEquals(1, store.getX(1));
+        assertEquals(0, store.getY(1));
+        assertTrue(controller.getRejectedSteps() > 0);
+    }
+
+    @Test
+    void infiniteVelocityThrows() {
+        BodyStore store = new BodyStore();
+        store.add(0, 0, 0, 0, 0, true);
+        store.add(1, 1, 0, Double.POSITIVE_INFINITY, 0, false);
+        AdaptiveStepController controller = new AdaptiveStepController(1e-10, 1e-6, 1);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> assertThrows(IllegalStateException.class, () -> controller.advance(store, 1, CENTRAL)));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.solarsystemsimulation.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import com.example.solarsystemsimulation.physics.ArrayNewtonianPhysics;
+import com.example.solarsystemsimulation.physics.LeapfrogIntegrator;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class BlockTimestepSchemeTest {
+    private static final double DT = 0.01;
+    private static final int BLOCKS = 200;
+
+    @Test
+    void singleLevelMatchesLeapfrog() {
+        assertMatchesLeapfrog(new BlockTimestepScheme(0, 0.02));
+    }
+
+    @Test
+    void shallowBodiesSkipEmptyDeepLevels() {
+        // Ogromne eta trzyma wszystkie ciała na poziomie 0 - blok to jeden podkrok, a nie 2^6
+        BlockTimestepScheme scheme = new BlockTimestepScheme(6, 1e9);
+        assertMatchesLeapfrog(scheme);
+        assertEquals(BLOCKS, scheme.getBlocks());
+        assertEquals(BLOCKS, scheme.getSubsteps());
+    }
+
+    private static void assertMatchesLeapfrog(BlockTimestepScheme scheme) {
+        ArrayNewtonianPhysics physics = new ArrayNewtonianPhysics();
+        BodyStore reference = createSystem();
+        BodyStore blocks = createSystem();
+        physics.computeAccelerations(reference);
+        physics.computeAccelerations(blocks);
+
+        LeapfrogIntegrator leapfrog = new LeapfrogIntegrator();
+        for (int block = 0; block < BLOCKS; block++) {
+            leapfrog.step(reference, DT, physics::computeAccelerations);
+            scheme.advance(blocks, DT,
+                (indices, count) -> physics.computeAccelerations(blocks, indices, count));
+        }
+
+        // Ta sama arytmetyka na ciało co KDK, więc wyniki są identyczne bit w bit
+        for (int i = 0; i < reference.size(); i++) {
+            assertSameBits(reference.getX(i), blocks.getX(i), "x " + i);
+            assertSameBits(reference.getY(i), blocks.getY(i), "y " + i);
+            assertSameBits(reference.getVx(i), blocks.getVx(i), "vx " + i);
+            assertSameBits(reference.getVy(i), blocks.getVy(i), "vy " + i);
+        }
+    }
+
+    private static void assertSameBits(double expected, double actual, String message) {
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual), message);
+    }
+
+    private static BodyStore createSystem() {
+        BodyStore store = new BodyStore();
+        store.add(333054, 0, 0, 0, 0, true);
+        Random random = new Random(5);
+        for (int i = 0; i < 40; i++) {
+            double r = 0.4 + 4 * random.nextDouble();
+            double angle = 2 * Math.PI * random.nextDouble();
+            double v = Math.sqrt(2.95912208286e-4 * 333054 / r);
+            store.add(1e-3 * random.nextDouble(), r * Math.cos(angle), r * Math.sin(angle),
+                -v * Math.sin(angle), v * Math.cos(angle), false);
+        }
+        return store;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.solarsystemsimulation.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CollisionDetectorTest {
+
+    @Test
+    void mergeConservesMassAndMomentumAndCanBeReverted() {
+        BodyStore store = new BodyStore();
+        store.add(3, 0, 0, 0.1, 0, false);
+        store.add(1, 0.015, 0, -0.2, 0.05, false);
+        store.add(2, 3, 0, 0, 0.3, false); // daleko - nie bierze udziału
+        double mass = 6;
+        double px = momentumX(store);
+        double py = momentumY(store);
+
+        CollisionDetector detector = new CollisionDetector(0.05, CollisionPolicy.MERGE);
+        detector.setDefaultRadius(0.01);
+        assertTrue(detector.update(store, List.of(), 1.0, 0.01, event -> { }));
+
+        // Cięższe ciało przejmuje masę i pęd, lżejsze zostaje bez masy i nieruchome
+        assertEquals(4, store.getMass(0));
+        assertEquals(0, store.getMass(1));
+        assertTrue(store.isFixed(1));
+        assertEquals(0, store.getVx(1));
+        assertEquals(0, store.getVy(1));
+        assertEquals(1, detector.getRemovedCount());
+        assertEquals(1, detector.getRemovedIndex(0));
+        assertEquals(mass, store.getMass(0) + store.getMass(1) + store.getMass(2), 1e-15);
+        assertEquals(px, momentumX(store), 1e-15);
+        assertEquals(py, momentumY(store), 1e-15);
+        assertEquals(0.00375, store.getX(0), 1e-15); // środek masy
+        assertEquals(3, store.getX(2));
+
+        // Cofnięcie do chwili sprzed zlepienia przywraca masy i ruchomość
+        detector.revertTo(store, 0.5);
+        assertEquals(3, store.getMass(0));
+        assertEquals(1, store.getMass(1));
+        assertFalse(store.isFixed(1));
+        assertEquals(0, detector.getRemovedCount());
+    }
+
+    @Test
+    void revertKeepsEarlierMerges() {
+        BodyStore store = new BodyStore();
+        store.add(3, 0, 0, 0, 0, false);
+        store.add(1, 0.015, 0, 0, 0, false);
+        CollisionDetector detector = new CollisionDetector(0, CollisionPolicy.MERGE);
+        detector.setDefaultRadius(0.01);
+        detector.update(store, List.of(), 1.0, 0.01, event -> { });
+
+        detector.revertTo(store, 1.0); // zlepienie w chwili 1.0 nie jest późniejsze
+
+        assertEquals(4, store.getMass(0));
+        assertEquals(0, store.getMass(1));
+        assertEquals(1, detector.getRemovedCount());
+    }
+
+    private static double momentumX(BodyStore store) {
+        double sum = 0;
+        for (int i = 0; i < store.size(); i++) {
+            sum += store.getMass(i) * store.getVx(i);
+        }
+        return sum;
+    }
+
+    private static double momentumY(BodyStore store) {
+        double sum = 0;
+        for (int i = 0; i < store.size(); i++) {
+            sum += store.getMass(i) * store.getVy(i);
+        }
+        return sum;
+    }
+}
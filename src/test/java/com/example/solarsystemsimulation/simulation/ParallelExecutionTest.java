@@ -0,0 +1,88 @@
+package com.example.solarsystemsimulation.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.solarsystemsimulation.model.BodyStore;
+import com.example.solarsystemsimulation.physics.ArrayNewtonianPhysics;
+import com.example.solarsystemsimulation.physics.ArrayPhysicsStrategy;
+import com.example.solarsystemsimulation.physics.BarnesHutPhysics;
+import com.example.solarsystemsimulation.physics.LeapfrogIntegrator;
+import com.example.solarsystemsimulation.physics.PairwiseNewtonianPhysics;
+import java.util.Random;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class ParallelExecutionTest {
+    private static final int BODIES = 301;
+    private static final int STEPS = 20;
+
+    @Test
+    void directSumMatchesSequentialBitForBit() {
+        assertParallelMatchesSequential(ArrayNewtonianPhysics::new);
+    }
+
+    @Test
+    void barnesHutMatchesSequentialBitForBit() {
+        assertParallelMatchesSequential(() -> new BarnesHutPhysics(0.7));
+    }
+
+    @Test
+    void pairwiseRoundsMatchSequentialBitForBit() {
+        assertParallelMatchesSequential(() -> new PairwiseNewtonianPhysics(16));
+    }
+
+    private static void assertParallelMatchesSequential(Supplier<ArrayPhysicsStrategy> physics) {
+        // Całkowanie przez strategię i przez integrator - obie fazy idą równolegle
+        for (boolean leapfrog : new boolean[] {false, true}) {
+            Simulation sequential = createSimulation(physics.get(), leapfrog);
+            Simulation parallel = createSimulation(physics.get(), leapfrog);
+            parallel.setParallelExecution(4, 8);
+            try {
+                assertTrue(parallel.isParallelExecution());
+                for (int step = 0; step < STEPS; step++) {
+                    sequential.update();
+                    parallel.update();
+                }
+                assertSameState(sequential.getBodyStore(), parallel.getBodyStore());
+            } finally {
+                parallel.setSequentialExecution();
+            }
+        }
+    }
+
+    private static Simulation createSimulation(ArrayPhysicsStrategy physics, boolean leapfrog) {
+        Simulation simulation = new Simulation(physics);
+        if (leapfrog) {
+            simulation.setIntegrator(new LeapfrogIntegrator());
+        }
+        BodyStore store = simulation.getBodyStore();
+        store.add(333054, 0, 0, 0, 0, true);
+        int first = simulation.addBulkBodies(BODIES - 1);
+        Random random = new Random(42);
+        for (int i = first; i < store.size(); i++) {
+            double r = 0.5 + 4.5 * random.nextDouble();
+            double angle = 2 * Math.PI * random.nextDouble();
+            double v = Math.sqrt(2.95912208286e-4 * 333054 / r);
+            store.getMassArray()[i] = 1e-3 + random.nextDouble();
+            store.setPosition(i, r * Math.cos(angle), r * Math.sin(angle));
+            store.setVelocity(i, -v * Math.sin(angle), v * Math.cos(angle));
+        }
+        simulation.setTimeStep(0.01);
+        simulation.start();
+        return simulation;
+    }
+
+    private static void assertSameState(BodyStore expected, BodyStore actual) {
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameBits(expected.getX(i), actual.getX(i), "x " + i);
+            assertSameBits(expected.getY(i), actual.getY(i), "y " + i);
+            assertSameBits(expected.getVx(i), actual.getVx(i), "vx " + i);
+            assertSameBits(expected.getVy(i), actual.getVy(i), "vy " + i);
+        }
+    }
+
+    private static void assertSameBits(double expected, double actual, String message) {
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual), message);
+    }
+}